@@ -16,6 +16,7 @@ import org.hyperledger.fabric.client.Contract;
 import org.hyperledger.fabric.client.EndorseException;
 import org.hyperledger.fabric.client.Gateway;
 import org.hyperledger.fabric.client.GatewayException;
+import org.hyperledger.fabric.client.Status;
 import org.hyperledger.fabric.client.SubmitException;
 import org.hyperledger.fabric.client.identity.Identities;
 import org.hyperledger.fabric.client.identity.Identity;
@@ -31,6 +32,10 @@ import java.nio.file.Paths;
 import java.security.InvalidKeyException;
 import java.security.cert.CertificateException;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.TimeUnit;
 
 public final class App {
@@ -38,6 +43,10 @@ public final class App {
 	private static final String channelName = "mychannel";
 	private static final String chaincodeName = "basic";
 
+	// Number of assets created concurrently, and the maximum number of those transactions in flight at any time.
+	private static final int concurrentAssetCount = 200;
+	private static final int maxInFlight = 50;
+
 	// Path to crypto materials.
 	private static final Path cryptoPath = Paths.get("..", "..", "test-network", "organizations", "peerOrganizations", "org1.example.com");
 	// Path to user certificate.
@@ -112,7 +121,7 @@ public final class App {
 		contract = network.getContract(chaincodeName);
 	}
 
-	public void run() throws GatewayException, CommitException {
+	public void run() throws GatewayException, CommitException, InterruptedException {
 		// Initialize a set of asset data on the ledger using the chaincode 'InitLedger' function.
 		initLedger();
 
@@ -130,6 +139,9 @@ public final class App {
 
 		// Update an asset which does not exist.
 		updateNonExistentAsset();
+
+		// Create many assets, with transactions submitted concurrently.
+		createAssetsConcurrently();
 	}
 	
 	/**
@@ -206,6 +218,52 @@ public final class App {
 		System.out.println("*** Transaction committed successfully");
 	}
 
+	/**
+	 * Submit many transactions concurrently, each on its own virtual thread, rather than waiting for each transaction
+	 * to commit before submitting the next. The number of transactions in flight is limited, and blocks the caller
+	 * once reached.
+	 */
+	private void createAssetsConcurrently() throws InterruptedException {
+		System.out.println("\n--> Concurrent Submit Transactions: CreateAsset, creates " + concurrentAssetCount
+				+ " assets with up to " + maxInFlight + " transactions in flight");
+
+		try (var submitter = new ConcurrentSubmitter(contract, maxInFlight)) {
+			var results = new ArrayList<CompletableFuture<Status>>(concurrentAssetCount);
+			for (int i = 0; i < concurrentAssetCount; i++) {
+				results.add(submitter.submit("CreateAsset", assetId + "_" + i, "green", "5", "Tom", "1300"));
+			}
+
+			submitter.awaitAll();
+			submitter.printReport(System.out);
+			checkCommitted(results);
+		}
+	}
+
+	/**
+	 * Join the results of concurrently submitted transactions, reporting each one that failed to endorse, submit or
+	 * commit.
+	 */
+	private static void checkCommitted(final List<CompletableFuture<Status>> results) {
+		var failures = 0;
+		for (var result : results) {
+			try {
+				var status = result.join();
+				if (!status.isSuccessful()) {
+					failures++;
+					System.out.println("*** Transaction " + status.getTransactionId()
+							+ " failed to commit with status code " + status.getCode());
+				}
+			} catch (CompletionException e) {
+				failures++;
+				System.out.println("*** Transaction failed: " + e.getCause());
+			}
+		}
+
+		if (failures > 0) {
+			throw new RuntimeException(failures + " of " + results.size() + " concurrent transactions failed");
+		}
+	}
+
 	private void readAssetById() throws GatewayException {
 		System.out.println("\n--> Evaluate Transaction: ReadAsset, function returns asset attributes");
 
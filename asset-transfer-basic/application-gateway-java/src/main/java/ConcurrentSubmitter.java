@@ -0,0 +1,237 @@
+/*
+ * Copyright IBM Corp. All Rights Reserved.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+import org.hyperledger.fabric.client.Contract;
+import org.hyperledger.fabric.client.Proposal;
+import org.hyperledger.fabric.client.Status;
+
+import java.io.PrintStream;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Submits many transactions concurrently, each on its own virtual thread. A virtual thread endorses and submits its
+ * transaction, then waits for the commit status, so blocking Gateway calls do not tie up platform threads. The number of
+ * transactions in flight is limited; once the limit is reached, {@link #submit(Proposal)} blocks until a transaction
+ * completes.
+ * <p>
+ * Submit latency (endorse and submit to the orderer) and commit latency (until the commit status is received) are
+ * recorded for each transaction, along with the overall commit throughput.
+ */
+public final class ConcurrentSubmitter implements AutoCloseable {
+	private final Contract contract;
+	private final int maxInFlight;
+	private final Semaphore inFlight;
+	private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+	private final LatencyHistogram submitLatency = new LatencyHistogram();
+	private final LatencyHistogram commitLatency = new LatencyHistogram();
+	private final LongAdder committed = new LongAdder();
+	private final LongAdder failed = new LongAdder();
+	private final AtomicLong firstStartNanos = new AtomicLong(Long.MAX_VALUE);
+	private final AtomicLong lastEndNanos = new AtomicLong(Long.MIN_VALUE);
+
+	/**
+	 * @param contract Contract to which transactions are submitted.
+	 * @param maxInFlight Maximum number of transactions submitted but not yet committed.
+	 */
+	public ConcurrentSubmitter(final Contract contract, final int maxInFlight) {
+		if (maxInFlight < 1) {
+			throw new IllegalArgumentException("Maximum in-flight transactions must be at least 1");
+		}
+		this.contract = contract;
+		this.maxInFlight = maxInFlight;
+		inFlight = new Semaphore(maxInFlight);
+	}
+
+	/**
+	 * Submit a transaction with string arguments.
+	 * @see #submit(Proposal)
+	 */
+	public CompletableFuture<Status> submit(final String transactionName, final String... arguments) throws InterruptedException {
+		var proposal = contract.newProposal(transactionName)
+				.addArguments(arguments)
+				.build();
+		return submit(proposal);
+	}
+
+	/**
+	 * Submit a transaction on a virtual thread, blocking while the maximum number of transactions are in flight.
+	 * @param proposal Transaction proposal.
+	 * @return Commit status of the transaction. Completes exceptionally if endorsement, submit or retrieving the commit
+	 * status fails.
+	 * @throws InterruptedException if interrupted while waiting for an in-flight transaction to complete.
+	 */
+	public CompletableFuture<Status> submit(final Proposal proposal) throws InterruptedException {
+		inFlight.acquire();
+
+		var result = new CompletableFuture<Status>();
+		try {
+			executor.execute(() -> run(proposal, result));
+		} catch (RejectedExecutionException e) {
+			inFlight.release();
+			throw e;
+		}
+
+		return result;
+	}
+
+	private void run(final Proposal proposal, final CompletableFuture<Status> result) {
+		var start = System.nanoTime();
+		firstStartNanos.accumulateAndGet(start, Math::min);
+
+		try {
+			var commit = proposal.endorse().submitAsync();
+			submitLatency.record(System.nanoTime() - start);
+
+			var status = commit.getStatus();
+			commitLatency.record(System.nanoTime() - start);
+			(status.isSuccessful() ? committed : failed).increment();
+			result.complete(status);
+		} catch (Exception e) {
+			failed.increment();
+			result.completeExceptionally(e);
+		} finally {
+			lastEndNanos.accumulateAndGet(System.nanoTime(), Math::max);
+			inFlight.release();
+		}
+	}
+
+	/**
+	 * Wait until all submitted transactions have completed.
+	 * @throws InterruptedException if interrupted while waiting.
+	 */
+	public void awaitAll() throws InterruptedException {
+		inFlight.acquire(maxInFlight);
+		inFlight.release(maxInFlight);
+	}
+
+	public long getCommittedCount() {
+		return committed.sum();
+	}
+
+	public long getFailedCount() {
+		return failed.sum();
+	}
+
+	/**
+	 * Successfully committed transactions per second, between the start of the first transaction and the end of the
+	 * last completed transaction.
+	 */
+	public double getThroughput() {
+		var elapsedNanos = lastEndNanos.get() - firstStartNanos.get();
+		return elapsedNanos > 0 ? committed.sum() * 1e9 / elapsedNanos : 0;
+	}
+
+	public LatencyHistogram getSubmitLatency() {
+		return submitLatency;
+	}
+
+	public LatencyHistogram getCommitLatency() {
+		return commitLatency;
+	}
+
+	public void printReport(final PrintStream out) {
+		out.printf("*** %d committed, %d failed, %.1f transactions per second%n", getCommittedCount(), getFailedCount(), getThroughput());
+		out.println("*** Submit latency: " + submitLatency);
+		out.println("*** Commit latency: " + commitLatency);
+	}
+
+	/**
+	 * Waits for all submitted transactions to complete.
+	 */
+	@Override
+	public void close() {
+		executor.close();
+	}
+
+	/**
+	 * Latency histogram with buckets of roughly 6% width, recorded with microsecond resolution. Recording is lock-free
+	 * and safe from any thread.
+	 */
+	public static final class LatencyHistogram {
+		private static final int SUB_BUCKET_BITS = 4;
+		private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+
+		private final AtomicLongArray counts = new AtomicLongArray(64 * SUB_BUCKET_COUNT);
+		private final LongAdder count = new LongAdder();
+		private final AtomicLong maxMicros = new AtomicLong();
+
+		public void record(final long nanos) {
+			var micros = Math.max(0, TimeUnit.NANOSECONDS.toMicros(nanos));
+			counts.incrementAndGet(bucketIndex(micros));
+			count.increment();
+			maxMicros.accumulateAndGet(micros, Math::max);
+		}
+
+		public long getCount() {
+			return count.sum();
+		}
+
+		/**
+		 * @param percentile Percentile between 0 and 100.
+		 * @return Latency in microseconds at or below which the given percentage of recorded values fall.
+		 */
+		public long getPercentileMicros(final double percentile) {
+			var total = 0L;
+			for (int i = 0; i < counts.length(); i++) {
+				total += counts.get(i);
+			}
+			if (total == 0) {
+				return 0;
+			}
+
+			var target = Math.max(1, (long) Math.ceil(total * percentile / 100));
+			var cumulative = 0L;
+			for (int i = 0; i < counts.length(); i++) {
+				cumulative += counts.get(i);
+				if (cumulative >= target) {
+					return Math.min(bucketUpperBound(i), maxMicros.get());
+				}
+			}
+			return maxMicros.get();
+		}
+
+		public long getMaxMicros() {
+			return maxMicros.get();
+		}
+
+		@Override
+		public String toString() {
+			return String.format("count=%d, p50=%.1fms, p90=%.1fms, p99=%.1fms, max=%.1fms", getCount(),
+					getPercentileMicros(50) / 1000.0, getPercentileMicros(90) / 1000.0,
+					getPercentileMicros(99) / 1000.0, getMaxMicros() / 1000.0);
+		}
+
+		// Values below SUB_BUCKET_COUNT have their own bucket. Larger values are grouped by their highest set bit, and
+		// each group is split into SUB_BUCKET_COUNT linear buckets using the next SUB_BUCKET_BITS bits.
+		private static int bucketIndex(final long value) {
+			if (value < SUB_BUCKET_COUNT) {
+				return (int) value;
+			}
+			var shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+			var subBucket = (int) (value >>> shift) & (SUB_BUCKET_COUNT - 1);
+			return (shift + 1) * SUB_BUCKET_COUNT + subBucket;
+		}
+
+		private static long bucketUpperBound(final int index) {
+			var group = index / SUB_BUCKET_COUNT;
+			var subBucket = index % SUB_BUCKET_COUNT;
+			if (group == 0) {
+				return subBucket;
+			}
+			var shift = group - 1;
+			return ((long) (SUB_BUCKET_COUNT + subBucket + 1) << shift) - 1;
+		}
+	}
+}
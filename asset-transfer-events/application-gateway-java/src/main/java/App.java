@@ -8,23 +8,35 @@ import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import com.google.gson.JsonParser;
 import org.hyperledger.fabric.client.ChaincodeEvent;
-import org.hyperledger.fabric.client.CloseableIterator;
+import org.hyperledger.fabric.client.Checkpointer;
 import org.hyperledger.fabric.client.CommitException;
 import org.hyperledger.fabric.client.CommitStatusException;
 import org.hyperledger.fabric.client.Contract;
 import org.hyperledger.fabric.client.EndorseException;
+import org.hyperledger.fabric.client.FileCheckpointer;
 import org.hyperledger.fabric.client.Gateway;
 import org.hyperledger.fabric.client.Network;
+import org.hyperledger.fabric.client.Status;
 import org.hyperledger.fabric.client.SubmitException;
 
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.TimeUnit;
 
 public final class App {
 	private static final String channelName = "mychannel";
 	private static final String chaincodeName = "events";
+	// Checkpoint of handled events, so that event listening resumes from the last handled event on restart
+	private static final Path checkpointPath = Paths.get("checkpoint.json");
+	// Number of assets created concurrently, and the maximum number of those transactions in flight at any time
+	private static final int concurrentAssetCount = 10;
+	private static final int maxInFlight = 5;
 
 	private final Network network;
 	private final Contract contract;
@@ -54,32 +66,52 @@ public final class App {
 		contract = network.getContract(chaincodeName);
 	}
 
-	public void run() throws EndorseException, SubmitException, CommitStatusException, CommitException {
+	public void run() throws Exception {
 		// Listen for events emitted by subsequent transactions, stopping when the try-with-resources block exits
-		try (var eventSession = startChaincodeEventListening()) {
+		try (var checkpointer = new FileCheckpointer(checkpointPath);
+				var eventPipeline = startChaincodeEventListening(checkpointer)) {
 			var firstBlockNumber = createAsset();
 			updateAsset();
 			transferAsset();
-			deleteAsset();
+			var lastBlockNumber = deleteAsset();
+			createAssetsConcurrently();
 
 			// Replay events from the block containing the first transaction
 			replayChaincodeEvents(firstBlockNumber);
+
+			// Replay the same events again, reading segments of the block range in parallel
+			replayChaincodeEventsInParallel(firstBlockNumber, lastBlockNumber);
+
+			System.out.println("\n*** Event listening lag: " + eventPipeline.getLagBlocks() + " blocks, "
+					+ eventPipeline.getPendingCount() + " events pending");
+			eventPipeline.getFailure().ifPresent(e -> System.out.println("\n*** Event listening failed: " + e));
 		}
 	}
 
-	private CloseableIterator<ChaincodeEvent> startChaincodeEventListening() {
+	private EventPipeline startChaincodeEventListening(final Checkpointer checkpointer) {
 		System.out.println("\n*** Start chaincode event listening");
 
-		var eventIter = network.getChaincodeEvents(chaincodeName);
+		// Resumes after the last checkpointed event, or from the next block if there is no checkpoint
+		var eventIter = network.newChaincodeEventsRequest(chaincodeName)
+				.checkpoint(checkpointer)
+				.build()
+				.getEvents();
+
+		// Events are handled off the thread reading the event stream. Events for the same asset are handled in order.
+		var eventPipeline = EventPipeline.newBuilder(this::printEvent)
+				.key(event -> AssetEvent.decode(event.getPayload()).getAssetId())
+				.checkpointer(checkpointer)
+				.workers(4)
+				.queueCapacity(64)
+				.build();
+		eventPipeline.start(eventIter);
 
-		CompletableFuture.runAsync(() -> {
-			eventIter.forEachRemaining(event -> {
-				var payload = prettyJson(event.getPayload());
-				System.out.println("\n<-- Chaincode event received: " + event.getEventName() + " - " + payload);
-			});
-		});
+		return eventPipeline;
+	}
 
-		return eventIter;
+	private void printEvent(final ChaincodeEvent event) {
+		var payload = prettyJson(event.getPayload());
+		System.out.println("\n<-- Chaincode event received: " + event.getEventName() + " - " + payload);
 	}
 
 	private String prettyJson(final byte[] json) {
@@ -119,19 +151,78 @@ public final class App {
 	}
 
 	private void transferAsset() throws EndorseException, SubmitException, CommitStatusException, CommitException {
-		System.out.println("\n--> Submit transaction: TransferAsset, " + assetId + " to Mary");
+		System.out.println("\n--> Submit transaction: TransferAsset, " + assetId + " to Mary, with a delta event");
 
-		contract.submitTransaction("TransferAsset", assetId, "Mary");
+		// Opt in to a delta event payload carrying only the changed owner, see AssetEvent
+		contract.newProposal("TransferAsset")
+				.addArguments(assetId, "Mary")
+				.putTransient("event_format", "delta")
+				.build()
+				.endorse()
+				.submit();
 
 		System.out.println("\n*** TransferAsset committed successfully");
 	}
 
-	private void deleteAsset() throws EndorseException, SubmitException, CommitStatusException, CommitException {
+	private long deleteAsset() throws EndorseException, SubmitException, CommitStatusException {
 		System.out.println("\n--> Submit transaction: DeleteAsset, " + assetId);
 
-		contract.submitTransaction("DeleteAsset", assetId);
+		var commit = contract.newProposal("DeleteAsset")
+				.addArguments(assetId)
+				.build()
+				.endorse()
+				.submitAsync();
+
+		var status = commit.getStatus();
+		if (!status.isSuccessful()) {
+			throw new RuntimeException("failed to commit transaction with status code " + status.getCode());
+		}
 
 		System.out.println("\n*** DeleteAsset committed successfully");
+
+		return status.getBlockNumber();
+	}
+
+	private void createAssetsConcurrently() throws InterruptedException {
+		System.out.println("\n--> Submit transactions concurrently: CreateAsset, " + concurrentAssetCount + " assets with up to "
+				+ maxInFlight + " in flight");
+
+		// Each transaction runs on its own virtual thread, and its events are received by the event listener
+		try (var submitter = new ConcurrentSubmitter(contract, maxInFlight)) {
+			var results = new ArrayList<CompletableFuture<Status>>(concurrentAssetCount);
+			for (int i = 0; i < concurrentAssetCount; i++) {
+				results.add(submitter.submit("CreateAsset", assetId + "_" + i, "green", "5", "Sam", "100"));
+			}
+
+			submitter.awaitAll();
+			submitter.printReport(System.out);
+			checkCommitted(results);
+		}
+	}
+
+	/**
+	 * Join the results of concurrently submitted transactions, reporting each one that failed to endorse, submit or
+	 * commit.
+	 */
+	private static void checkCommitted(final List<CompletableFuture<Status>> results) {
+		var failures = 0;
+		for (var result : results) {
+			try {
+				var status = result.join();
+				if (!status.isSuccessful()) {
+					failures++;
+					System.out.println("*** Transaction " + status.getTransactionId()
+							+ " failed to commit with status code " + status.getCode());
+				}
+			} catch (CompletionException e) {
+				failures++;
+				System.out.println("*** Transaction failed: " + e.getCause());
+			}
+		}
+
+		if (failures > 0) {
+			throw new RuntimeException(failures + " of " + results.size() + " concurrent transactions failed");
+		}
 	}
 
 	private void replayChaincodeEvents(final long startBlock) {
@@ -154,4 +245,21 @@ public final class App {
 			}
 		}
 	}
+
+	private void replayChaincodeEventsInParallel(final long startBlock, final long endBlock) throws Exception {
+		System.out.println("\n*** Start parallel chaincode event replay of blocks " + startBlock + " to " + endBlock);
+
+		// Small segments so that even this short block range is split between several readers
+		var replay = ParallelEventReplay.newBuilder(network, chaincodeName)
+				.blockRange(startBlock, endBlock)
+				.segmentSize(1)
+				.parallelism(4)
+				.bufferSize(16)
+				.build();
+
+		replay.replay(event -> {
+			var payload = prettyJson(event.getPayload());
+			System.out.println("\n<-- Chaincode event replayed in parallel: " + event.getEventName() + " - " + payload);
+		});
+	}
 }
@@ -0,0 +1,111 @@
+/*
+ * Copyright IBM Corp. All Rights Reserved.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Decodes asset event payloads emitted by the asset-transfer-events chaincode. A payload is either
+ * the full asset JSON or, when the transaction opted in with event_format=delta in its transient
+ * data, a delta carrying only the changed fields:
+ * <pre>
+ * {"ID":"asset1","Version":"3","Changed":{"Owner":"Mary"}}
+ * </pre>
+ * Field values use the same names and string encoding as the full asset. A delta is applied on
+ * top of the asset state at the previous version.
+ */
+public final class AssetEvent {
+	private static final String ID = "ID";
+	private static final String VERSION = "Version";
+	private static final String CHANGED = "Changed";
+	// The chaincode reads an asset written before versioning as version 1, so that its first update is
+	// version 2; an event without a Version is read the same way
+	private static final long LEGACY_VERSION = 1;
+
+	private final String assetId;
+	private final long version;
+	private final boolean delta;
+	private final Map<String, String> fields;
+
+	private AssetEvent(final String assetId, final long version, final boolean delta, final Map<String, String> fields) {
+		this.assetId = assetId;
+		this.version = version;
+		this.delta = delta;
+		this.fields = Collections.unmodifiableMap(fields);
+	}
+
+	public static AssetEvent decode(final byte[] payload) {
+		var json = JsonParser.parseString(new String(payload, StandardCharsets.UTF_8)).getAsJsonObject();
+		var assetId = json.get(ID).getAsString();
+		var version = json.has(VERSION) ? json.get(VERSION).getAsLong() : LEGACY_VERSION;
+
+		var delta = json.has(CHANGED);
+		var source = delta ? json.getAsJsonObject(CHANGED) : json;
+		return new AssetEvent(assetId, version, delta, toFields(source));
+	}
+
+	private static Map<String, String> toFields(final JsonObject json) {
+		var fields = new HashMap<String, String>();
+		json.entrySet().forEach(entry -> {
+			var value = entry.getValue();
+			if (value.isJsonPrimitive()) {
+				fields.put(entry.getKey(), value.getAsString());
+			} else if (!value.isJsonNull()) {
+				fields.put(entry.getKey(), value.toString());
+			}
+		});
+		fields.remove(ID);
+		fields.remove(VERSION);
+		return fields;
+	}
+
+	public String getAssetId() {
+		return assetId;
+	}
+
+	public long getVersion() {
+		return version;
+	}
+
+	public boolean isDelta() {
+		return delta;
+	}
+
+	/**
+	 * Asset fields carried by the event, excluding ID and Version. For a delta these are only the
+	 * changed fields.
+	 */
+	public Map<String, String> getFields() {
+		return fields;
+	}
+
+	/**
+	 * Produces the asset state after this event.
+	 *
+	 * @param previous asset fields at the previous version, or null if not known. Ignored for a full event.
+	 * @param previousVersion version of the previous asset fields.
+	 * @return the asset fields after this event.
+	 * @throws IllegalStateException if this is a delta that does not directly follow the previous version.
+	 */
+	public Map<String, String> applyTo(final Map<String, String> previous, final long previousVersion) {
+		if (!delta) {
+			return fields;
+		}
+		if (previous == null || previousVersion + 1 != version) {
+			throw new IllegalStateException("Delta event for " + assetId + " at version " + version
+					+ " cannot be applied to version " + previousVersion);
+		}
+
+		var result = new HashMap<>(previous);
+		result.putAll(fields);
+		return Collections.unmodifiableMap(result);
+	}
+}
@@ -0,0 +1,301 @@
+/*
+ * Copyright IBM Corp. All Rights Reserved.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+import org.hyperledger.fabric.client.ChaincodeEvent;
+import org.hyperledger.fabric.client.Checkpointer;
+import org.hyperledger.fabric.client.CloseableIterator;
+import org.hyperledger.fabric.client.InMemoryCheckpointer;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+/**
+ * Handles chaincode events on a pool of worker threads, so that slow event handling does not stall the thread
+ * reading the event stream.
+ * <ul>
+ *     <li>Each worker has a bounded queue. When a queue is full, reading from the event stream blocks until there is
+ *     space, applying backpressure to the stream rather than buffering without limit.</li>
+ *     <li>Events with the same key are always handled by the same worker, in the order they were received.</li>
+ *     <li>The checkpointer is only advanced past an event once that event, and every event received before it, has
+ *     been handled. Listening resumed from the checkpoint does not miss events, and repeats at most the events that
+ *     were in flight.</li>
+ * </ul>
+ * If the handler throws, the pipeline stops reading events and the failure is available from {@link #getFailure()}.
+ */
+public final class EventPipeline implements AutoCloseable {
+	/**
+	 * Handles a single chaincode event.
+	 */
+	@FunctionalInterface
+	public interface Handler {
+		void handle(ChaincodeEvent event) throws Exception;
+	}
+
+	private static final Entry END = new Entry(-1, null);
+
+	private final Handler handler;
+	private final Function<ChaincodeEvent, ?> keyFunction;
+	private final Checkpointer checkpointer;
+	private final List<BlockingQueue<Entry>> queues;
+	private final ExecutorService workers;
+	private final AtomicReference<Throwable> failure = new AtomicReference<>();
+	private final AtomicInteger pendingCount = new AtomicInteger();
+
+	private CloseableIterator<ChaincodeEvent> eventIter;
+	private Thread reader;
+	private volatile boolean closed = false;
+
+	// Written only by the reader thread
+	private long nextSequence = 0;
+	private volatile long firstReceivedBlock = -1;
+	private volatile long lastReceivedBlock = -1;
+
+	// Guarded by this. Events handled out of order are held until all earlier events have also been handled.
+	private final Map<Long, ChaincodeEvent> handledAhead = new HashMap<>();
+	private long checkpointSequence = 0;
+	private volatile long checkpointedBlock = -1;
+
+	private EventPipeline(final Builder builder) {
+		handler = builder.handler;
+		keyFunction = builder.keyFunction;
+		checkpointer = builder.checkpointer;
+		queues = new ArrayList<>(builder.workerCount);
+		for (int i = 0; i < builder.workerCount; i++) {
+			queues.add(new ArrayBlockingQueue<>(builder.queueCapacity));
+		}
+		workers = Executors.newFixedThreadPool(builder.workerCount, runnable -> {
+			var thread = new Thread(runnable, "event-worker");
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	/**
+	 * Create a builder for a pipeline that passes events to the given handler.
+	 * @param handler Event handler, called on a worker thread.
+	 * @return A pipeline builder.
+	 */
+	public static Builder newBuilder(final Handler handler) {
+		return new Builder(handler);
+	}
+
+	/**
+	 * Start reading events from the iterator and handling them. The iterator is closed when the pipeline is closed.
+	 * @param events Chaincode events, typically obtained using the same checkpointer as this pipeline.
+	 */
+	public synchronized void start(final CloseableIterator<ChaincodeEvent> events) {
+		if (eventIter != null) {
+			throw new IllegalStateException("Pipeline already started");
+		}
+		eventIter = events;
+
+		queues.forEach(queue -> workers.execute(() -> work(queue)));
+		workers.shutdown(); // Workers run until the end of the event stream
+
+		reader = new Thread(this::read, "event-reader");
+		reader.setDaemon(true);
+		reader.start();
+	}
+
+	/**
+	 * Wait for all events to be handled, after the event stream ends or the pipeline fails.
+	 * @param timeout Maximum time to wait.
+	 * @param unit Time unit of the timeout.
+	 * @return true if all workers finished; false if the timeout elapsed.
+	 * @throws InterruptedException if interrupted while waiting.
+	 */
+	public boolean awaitCompletion(final long timeout, final TimeUnit unit) throws InterruptedException {
+		return workers.awaitTermination(timeout, unit);
+	}
+
+	/**
+	 * Number of blocks between the latest block received from the event stream and the block of the latest
+	 * checkpointed event. Zero when all received events have been handled.
+	 */
+	public long getLagBlocks() {
+		var received = lastReceivedBlock;
+		if (received < 0) {
+			return 0;
+		}
+
+		var checkpointed = checkpointedBlock;
+		return checkpointed < 0 ? received - firstReceivedBlock + 1 : received - checkpointed;
+	}
+
+	/**
+	 * Number of events received from the event stream that have not yet been handled.
+	 */
+	public int getPendingCount() {
+		return pendingCount.get();
+	}
+
+	public Optional<Throwable> getFailure() {
+		return Optional.ofNullable(failure.get());
+	}
+
+	/**
+	 * Stop reading events and stop the workers. Events that were not handled are not checkpointed, so are delivered
+	 * again when listening resumes from the checkpoint.
+	 */
+	@Override
+	public void close() {
+		closed = true;
+		synchronized (this) {
+			if (eventIter != null) {
+				eventIter.close();
+				reader.interrupt();
+			}
+		}
+		workers.shutdownNow();
+	}
+
+	private void read() {
+		try {
+			while (eventIter.hasNext()) {
+				var event = eventIter.next();
+				if (firstReceivedBlock < 0) {
+					firstReceivedBlock = event.getBlockNumber();
+				}
+				lastReceivedBlock = event.getBlockNumber();
+
+				pendingCount.incrementAndGet();
+				queueFor(event).put(new Entry(nextSequence++, event));
+			}
+
+			for (var queue : queues) {
+				queue.put(END);
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} catch (RuntimeException e) {
+			if (!closed) {
+				fail(e);
+			}
+		}
+	}
+
+	private BlockingQueue<Entry> queueFor(final ChaincodeEvent event) {
+		var key = keyFunction.apply(event);
+		return queues.get(Math.floorMod(Objects.hashCode(key), queues.size()));
+	}
+
+	private void work(final BlockingQueue<Entry> queue) {
+		try {
+			while (failure.get() == null) {
+				var entry = queue.take();
+				if (entry == END) {
+					return;
+				}
+
+				handler.handle(entry.event);
+				pendingCount.decrementAndGet();
+				handled(entry);
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} catch (Exception e) {
+			fail(e);
+		}
+	}
+
+	private synchronized void handled(final Entry entry) throws Exception {
+		handledAhead.put(entry.sequence, entry.event);
+
+		ChaincodeEvent last = null;
+		for (var next = handledAhead.remove(checkpointSequence); next != null; next = handledAhead.remove(checkpointSequence)) {
+			last = next;
+			checkpointSequence++;
+		}
+
+		if (last != null) {
+			checkpointer.checkpointChaincodeEvent(last);
+			checkpointedBlock = last.getBlockNumber();
+		}
+	}
+
+	private void fail(final Throwable e) {
+		if (!closed && failure.compareAndSet(null, e)) {
+			close();
+		}
+	}
+
+	private static final class Entry {
+		private final long sequence;
+		private final ChaincodeEvent event;
+
+		Entry(final long sequence, final ChaincodeEvent event) {
+			this.sequence = sequence;
+			this.event = event;
+		}
+	}
+
+	/**
+	 * Builder used to configure an event pipeline.
+	 */
+	public static final class Builder {
+		private final Handler handler;
+		private Function<ChaincodeEvent, ?> keyFunction = ChaincodeEvent::getTransactionId;
+		private Checkpointer checkpointer = new InMemoryCheckpointer();
+		private int workerCount = Runtime.getRuntime().availableProcessors();
+		private int queueCapacity = 256;
+
+		private Builder(final Handler handler) {
+			this.handler = Objects.requireNonNull(handler, "handler");
+		}
+
+		/**
+		 * Key used to order events. Events with equal keys are handled in the order they were received. The default
+		 * is the transaction ID, which imposes no ordering between events.
+		 */
+		public Builder key(final Function<ChaincodeEvent, ?> keyFunction) {
+			this.keyFunction = Objects.requireNonNull(keyFunction, "keyFunction");
+			return this;
+		}
+
+		/**
+		 * Checkpointer advanced as events are handled. The default is an in-memory checkpointer.
+		 */
+		public Builder checkpointer(final Checkpointer checkpointer) {
+			this.checkpointer = Objects.requireNonNull(checkpointer, "checkpointer");
+			return this;
+		}
+
+		public Builder workers(final int workerCount) {
+			if (workerCount < 1) {
+				throw new IllegalArgumentException("Worker count must be at least 1");
+			}
+			this.workerCount = workerCount;
+			return this;
+		}
+
+		/**
+		 * Maximum number of events queued for each worker before reading from the event stream blocks.
+		 */
+		public Builder queueCapacity(final int queueCapacity) {
+			if (queueCapacity < 1) {
+				throw new IllegalArgumentException("Queue capacity must be at least 1");
+			}
+			this.queueCapacity = queueCapacity;
+			return this;
+		}
+
+		public EventPipeline build() {
+			return new EventPipeline(this);
+		}
+	}
+}
@@ -0,0 +1,329 @@
+/*
+ * Copyright IBM Corp. All Rights Reserved.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+import com.google.protobuf.InvalidProtocolBufferException;
+import org.hyperledger.fabric.client.ChaincodeEvent;
+import org.hyperledger.fabric.client.CloseableIterator;
+import org.hyperledger.fabric.client.Network;
+import org.hyperledger.fabric.protos.common.Block;
+import org.hyperledger.fabric.protos.common.BlockMetadataIndex;
+import org.hyperledger.fabric.protos.common.ChannelHeader;
+import org.hyperledger.fabric.protos.common.Envelope;
+import org.hyperledger.fabric.protos.common.HeaderType;
+import org.hyperledger.fabric.protos.common.Payload;
+import org.hyperledger.fabric.protos.peer.ChaincodeAction;
+import org.hyperledger.fabric.protos.peer.ChaincodeActionPayload;
+import org.hyperledger.fabric.protos.peer.ProposalResponsePayload;
+import org.hyperledger.fabric.protos.peer.Transaction;
+import org.hyperledger.fabric.protos.peer.TxValidationCode;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Replays the chaincode events of a block range by reading several segments of the range in parallel, and passes them
+ * to a sink in ledger order: by block, then by transaction within a block.
+ * <p>
+ * The range is split into segments of consecutive blocks. Up to the configured parallelism, segments are read
+ * concurrently on virtual threads, each from its own block events request. Events are delivered to the sink from the
+ * earliest unfinished segment while later segments read ahead into bounded buffers, so at most
+ * parallelism &times; buffer size events are held in memory at any time.
+ * <p>
+ * Segments are read as block events rather than chaincode events so that each segment can stop exactly at its last
+ * block, even if that block contains no events for the chaincode. Only events from valid transactions are replayed, as
+ * for chaincode event listening.
+ */
+public final class ParallelEventReplay {
+	private static final Object END = new Object();
+
+	private final Network network;
+	private final String chaincodeName;
+	private final long startBlock;
+	private final long endBlock;
+	private final long segmentSize;
+	private final int parallelism;
+	private final int bufferSize;
+
+	private ParallelEventReplay(final Builder builder) {
+		network = builder.network;
+		chaincodeName = builder.chaincodeName;
+		startBlock = builder.startBlock;
+		endBlock = builder.endBlock;
+		segmentSize = builder.segmentSize;
+		parallelism = builder.parallelism;
+		bufferSize = builder.bufferSize;
+	}
+
+	/**
+	 * Create a builder for a replay of events emitted by the given chaincode.
+	 * @param network Network from which events are read.
+	 * @param chaincodeName Chaincode name.
+	 * @return A replay builder.
+	 */
+	public static Builder newBuilder(final Network network, final String chaincodeName) {
+		return new Builder(network, chaincodeName);
+	}
+
+	/**
+	 * Replay all events in the block range, returning once the last block of the range has been read and all events
+	 * passed to the sink. If the end block has not yet been committed, this waits for it.
+	 * @param sink Receives events in ledger order, one at a time, on the calling thread.
+	 * @throws Exception if reading a segment fails, or thrown by the sink. Reading of all segments is stopped.
+	 */
+	public void replay(final EventPipeline.Handler sink) throws Exception {
+		var active = new ArrayDeque<Segment>(parallelism);
+		var nextStart = startBlock;
+
+		try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+			try {
+				while (nextStart <= endBlock || !active.isEmpty()) {
+					while (active.size() < parallelism && nextStart <= endBlock) {
+						var segmentEnd = endBlock - nextStart < segmentSize ? endBlock : nextStart + segmentSize - 1;
+						var segment = new Segment(nextStart, segmentEnd);
+						executor.execute(segment::read);
+						active.add(segment);
+						nextStart = segmentEnd + 1;
+					}
+
+					var event = active.peek().take();
+					if (event == null) {
+						active.remove();
+					} else {
+						sink.handle(event);
+					}
+				}
+			} finally {
+				active.forEach(Segment::cancel);
+			}
+		}
+	}
+
+	private List<ChaincodeEvent> getChaincodeEvents(final Block block) throws InvalidProtocolBufferException {
+		var blockNumber = block.getHeader().getNumber();
+		var validationCodes = block.getMetadata().getMetadata(BlockMetadataIndex.TRANSACTIONS_FILTER.getNumber());
+		var envelopes = block.getData().getDataList();
+
+		var events = new ArrayList<ChaincodeEvent>();
+		for (int i = 0; i < envelopes.size(); i++) {
+			if (validationCodes.byteAt(i) != TxValidationCode.VALID.getNumber()) {
+				continue;
+			}
+
+			var payload = Payload.parseFrom(Envelope.parseFrom(envelopes.get(i)).getPayload());
+			var channelHeader = ChannelHeader.parseFrom(payload.getHeader().getChannelHeader());
+			if (channelHeader.getType() != HeaderType.ENDORSER_TRANSACTION.getNumber()) {
+				continue;
+			}
+
+			for (var action : Transaction.parseFrom(payload.getData()).getActionsList()) {
+				var actionPayload = ChaincodeActionPayload.parseFrom(action.getPayload());
+				var responsePayload = ProposalResponsePayload.parseFrom(actionPayload.getAction().getProposalResponsePayload());
+				var chaincodeAction = ChaincodeAction.parseFrom(responsePayload.getExtension());
+				var event = org.hyperledger.fabric.protos.peer.ChaincodeEvent.parseFrom(chaincodeAction.getEvents());
+
+				if (event.getChaincodeId().equals(chaincodeName) && !event.getEventName().isEmpty()) {
+					events.add(new ReplayedEvent(blockNumber, event));
+				}
+			}
+		}
+
+		return events;
+	}
+
+	/**
+	 * A range of blocks read on its own thread into a bounded buffer.
+	 */
+	private final class Segment {
+		private final long start;
+		private final long end;
+		private final BlockingQueue<Object> buffer = new ArrayBlockingQueue<>(bufferSize);
+		private final AtomicReference<Exception> failure = new AtomicReference<>();
+		private volatile Thread reader;
+		private volatile CloseableIterator<Block> blocks;
+		private volatile boolean cancelled = false;
+
+		Segment(final long start, final long end) {
+			this.start = start;
+			this.end = end;
+		}
+
+		void read() {
+			reader = Thread.currentThread();
+			try (var blockIter = network.newBlockEventsRequest().startBlock(start).build().getEvents()) {
+				blocks = blockIter;
+				while (!cancelled && blockIter.hasNext()) {
+					var block = blockIter.next();
+					var blockNumber = block.getHeader().getNumber();
+					if (blockNumber > end) {
+						break;
+					}
+
+					for (var event : getChaincodeEvents(block)) {
+						buffer.put(event);
+					}
+
+					if (blockNumber == end) {
+						break;
+					}
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return;
+			} catch (Exception e) {
+				if (cancelled) {
+					return;
+				}
+				failure.set(e);
+			}
+
+			try {
+				buffer.put(END);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+
+		/**
+		 * @return The next event in this segment, or null once all events have been returned.
+		 * @throws Exception if reading this segment failed.
+		 */
+		ChaincodeEvent take() throws Exception {
+			var next = buffer.take();
+			if (next != END) {
+				return (ChaincodeEvent) next;
+			}
+
+			var e = failure.get();
+			if (e != null) {
+				throw new Exception("Failed to read blocks " + start + " to " + end, e);
+			}
+			return null;
+		}
+
+		void cancel() {
+			cancelled = true;
+			var blockIter = blocks;
+			if (blockIter != null) {
+				blockIter.close();
+			}
+			var thread = reader;
+			if (thread != null) {
+				thread.interrupt();
+			}
+		}
+	}
+
+	private static final class ReplayedEvent implements ChaincodeEvent {
+		private final long blockNumber;
+		private final org.hyperledger.fabric.protos.peer.ChaincodeEvent event;
+
+		ReplayedEvent(final long blockNumber, final org.hyperledger.fabric.protos.peer.ChaincodeEvent event) {
+			this.blockNumber = blockNumber;
+			this.event = event;
+		}
+
+		@Override
+		public long getBlockNumber() {
+			return blockNumber;
+		}
+
+		@Override
+		public String getTransactionId() {
+			return event.getTxId();
+		}
+
+		@Override
+		public String getChaincodeName() {
+			return event.getChaincodeId();
+		}
+
+		@Override
+		public String getEventName() {
+			return event.getEventName();
+		}
+
+		@Override
+		public byte[] getPayload() {
+			return event.getPayload().toByteArray();
+		}
+	}
+
+	/**
+	 * Builder used to configure a parallel event replay.
+	 */
+	public static final class Builder {
+		private final Network network;
+		private final String chaincodeName;
+		private long startBlock = 0;
+		private long endBlock = -1;
+		private long segmentSize = 1000;
+		private int parallelism = 4;
+		private int bufferSize = 1000;
+
+		private Builder(final Network network, final String chaincodeName) {
+			this.network = Objects.requireNonNull(network, "network");
+			this.chaincodeName = Objects.requireNonNull(chaincodeName, "chaincodeName");
+		}
+
+		/**
+		 * Blocks to replay, inclusive of both the start and end block.
+		 */
+		public Builder blockRange(final long startBlock, final long endBlock) {
+			if (startBlock < 0 || endBlock < startBlock) {
+				throw new IllegalArgumentException("Invalid block range " + startBlock + " to " + endBlock);
+			}
+			this.startBlock = startBlock;
+			this.endBlock = endBlock;
+			return this;
+		}
+
+		/**
+		 * Number of blocks in each segment.
+		 */
+		public Builder segmentSize(final long segmentSize) {
+			if (segmentSize < 1) {
+				throw new IllegalArgumentException("Segment size must be at least 1");
+			}
+			this.segmentSize = segmentSize;
+			return this;
+		}
+
+		/**
+		 * Maximum number of segments read at the same time.
+		 */
+		public Builder parallelism(final int parallelism) {
+			if (parallelism < 1) {
+				throw new IllegalArgumentException("Parallelism must be at least 1");
+			}
+			this.parallelism = parallelism;
+			return this;
+		}
+
+		/**
+		 * Maximum number of events buffered by each segment that is read ahead of the sink.
+		 */
+		public Builder bufferSize(final int bufferSize) {
+			if (bufferSize < 1) {
+				throw new IllegalArgumentException("Buffer size must be at least 1");
+			}
+			this.bufferSize = bufferSize;
+			return this;
+		}
+
+		public ParallelEventReplay build() {
+			if (endBlock < 0) {
+				throw new IllegalStateException("Block range must be specified");
+			}
+			return new ParallelEventReplay(this);
+		}
+	}
+}
@@ -19,6 +19,10 @@ import org.json.JSONObject;
 @DataType()
 public final class Asset {
 
+    // Version read for an asset written before versioning was introduced. Its history is unknown, so
+    // it is taken to be a created asset, and its first update is version 2 rather than repeating 1
+    private static final int LEGACY_VERSION = 1;
+
     @Property()
     private final String assetID;
 
@@ -34,14 +38,28 @@ public final class Asset {
     @Property()
     private int appraisedValue;
 
+    @Property()
+    private int version;
+
     public Asset(final String assetID, final String color,
                  final int size, final String owner, final int value) {
+        this(assetID, color, size, owner, value, 0);
+    }
+
+    public Asset(final String assetID, final String color,
+                 final int size, final String owner, final int value, final int version) {
 
         this.assetID = assetID;
         this.color = color;
         this.size = size;
         this.owner = owner;
         this.appraisedValue = value;
+        this.version = version;
+    }
+
+    // Copy of the asset, used to work out which fields a transaction changed
+    public Asset copy() {
+        return new Asset(assetID, color, size, owner, appraisedValue, version);
     }
 
     public String getAssetID() {
@@ -80,6 +98,15 @@ public final class Asset {
         this.size = s;
     }
 
+    public int getVersion() {
+        return version;
+    }
+
+    // Increments the asset version, once per transaction that writes the asset
+    public void nextVersion() {
+        this.version++;
+    }
+
     // Serialize asset without private properties
     public byte[] serialize() {
         return serialize(null).getBytes(UTF_8);
@@ -92,12 +119,42 @@ public final class Asset {
         tMap.put("Owner",  owner);
         tMap.put("Size", Integer.toString(size));
         tMap.put("AppraisedValue", Integer.toString(appraisedValue));
+        tMap.put("Version", Integer.toString(version));
         if (privateProps != null && privateProps.length() > 0) {
             tMap.put("asset_properties", new JSONObject(privateProps));
         }
         return new JSONObject(tMap).toString();
     }
 
+    /**
+     * Serializes only the fields that differ from the previous state of the asset, for the delta
+     * event format: {"ID":"asset1","Version":"3","Changed":{"Owner":"Mary"}}
+     * Field names and value encoding are the same as in the full asset JSON.
+     *
+     * @param previous the asset as it was before the transaction
+     * @return delta event payload
+     */
+    public byte[] serializeDelta(final Asset previous) {
+        Map<String, Object> changed = new HashMap<>();
+        if (!Objects.equals(color, previous.getColor())) {
+            changed.put("Color", color);
+        }
+        if (!Objects.equals(owner, previous.getOwner())) {
+            changed.put("Owner", owner);
+        }
+        if (size != previous.getSize()) {
+            changed.put("Size", Integer.toString(size));
+        }
+        if (appraisedValue != previous.getAppraisedValue()) {
+            changed.put("AppraisedValue", Integer.toString(appraisedValue));
+        }
+        Map<String, Object> tMap = new HashMap<>();
+        tMap.put("ID", assetID);
+        tMap.put("Version", Integer.toString(version));
+        tMap.put("Changed", changed);
+        return new JSONObject(tMap).toString().getBytes(UTF_8);
+    }
+
     public static Asset deserialize(final byte[] assetJSON) {
         return deserialize(new String(assetJSON, UTF_8));
     }
@@ -112,13 +169,17 @@ public final class Asset {
         final String owner = (String) tMap.get("Owner");
         int size = 0;
         int appraisedValue = 0;
+        int version = LEGACY_VERSION;
         if (tMap.containsKey("Size")) {
             size = Integer.parseInt((String) tMap.get("Size"));
         }
         if (tMap.containsKey("AppraisedValue")) {
             appraisedValue = Integer.parseInt((String) tMap.get("AppraisedValue"));
         }
-        return new Asset(id, color, size, owner, appraisedValue);
+        if (tMap.containsKey("Version")) {
+            version = Integer.parseInt((String) tMap.get("Version"));
+        }
+        return new Asset(id, color, size, owner, appraisedValue, version);
 
     }
 
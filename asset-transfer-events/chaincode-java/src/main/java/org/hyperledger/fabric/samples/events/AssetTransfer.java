@@ -17,7 +17,8 @@ import org.hyperledger.fabric.contract.annotation.Transaction;
 import org.hyperledger.fabric.shim.ChaincodeException;
 import org.hyperledger.fabric.shim.ChaincodeStub;
 
-import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 /**
  * Main Chaincode class.
@@ -47,6 +48,17 @@ public final class AssetTransfer implements ContractInterface {
 
     static final String IMPLICIT_COLLECTION_NAME_PREFIX = "_implicit_org_";
     static final String PRIVATE_PROPS_KEY = "asset_properties";
+    static final String EVENT_FORMAT_KEY = "event_format";
+    static final String DELTA_EVENT_FORMAT = "delta";
+
+    // All per-transaction output goes through this logger: tracing at FINE, which is off by default,
+    // and rejected input at WARNING
+    private static final Logger LOGGER = Logger.getLogger(AssetTransfer.class.getName());
+
+    @Override
+    public Context createContext(final ChaincodeStub stub) {
+        return new AssetTransferContext(stub);
+    }
 
     /**
      * Retrieves the asset details with the specified ID
@@ -56,8 +68,8 @@ public final class AssetTransfer implements ContractInterface {
      * @return the asset found on the ledger. Returns error if asset is not found
      */
     @Transaction(intent = Transaction.TYPE.EVALUATE)
-    public String ReadAsset(final Context ctx, final String assetID) {
-        System.out.printf("ReadAsset: ID %s\n", assetID);
+    public String ReadAsset(final AssetTransferContext ctx, final String assetID) {
+        LOGGER.log(Level.FINE, "ReadAsset: ID {0}", assetID);
 
         Asset asset = getState(ctx, assetID);
         String privData = readPrivateData(ctx, assetID);
@@ -77,7 +89,7 @@ public final class AssetTransfer implements ContractInterface {
      * @return the created asset
      */
     @Transaction(intent = Transaction.TYPE.SUBMIT)
-    public Asset CreateAsset(final Context ctx, final String assetID, final String color, final int size, final String owner, final int appraisedValue) {
+    public Asset CreateAsset(final AssetTransferContext ctx, final String assetID, final String color, final int size, final String owner, final int appraisedValue) {
         ChaincodeStub stub = ctx.getStub();
         //input validations
         String errorMessage = null;
@@ -89,22 +101,24 @@ public final class AssetTransfer implements ContractInterface {
         }
 
         if (errorMessage != null) {
-            System.err.println(errorMessage);
+            LOGGER.warning(errorMessage);
             throw new ChaincodeException(errorMessage, AssetTransferErrors.INCOMPLETE_INPUT.toString());
         }
         // Check if asset already exists
         byte[] assetJSON = ctx.getStub().getState(assetID);
         if (assetJSON != null && assetJSON.length > 0) {
             errorMessage = String.format("Asset %s already exists", assetID);
-            System.err.println(errorMessage);
+            LOGGER.warning(errorMessage);
             throw new ChaincodeException(errorMessage, AssetTransferErrors.ASSET_ALREADY_EXISTS.toString());
         }
 
-        Asset asset = new Asset(assetID, color, size, owner, appraisedValue);
+        Asset asset = new Asset(assetID, color, size, owner, appraisedValue, 1);
 
         savePrivateData(ctx, assetID);
         assetJSON = asset.serialize();
-        System.out.printf("CreateAsset Put: ID %s Data %s\n", assetID, new String(assetJSON));
+        if (LOGGER.isLoggable(Level.FINE)) {
+            LOGGER.log(Level.FINE, "CreateAsset Put: ID {0} Data {1}", new Object[]{assetID, new String(assetJSON, UTF_8)});
+        }
 
         stub.putState(assetID, assetJSON);
         // add Event data to the transaction data. Event will be published after the block containing
@@ -124,7 +138,7 @@ public final class AssetTransfer implements ContractInterface {
      * @return none
      */
     @Transaction(intent = Transaction.TYPE.SUBMIT)
-    public void TransferAsset(final Context ctx, final String assetID, final String newOwner) {
+    public void TransferAsset(final AssetTransferContext ctx, final String assetID, final String newOwner) {
         ChaincodeStub stub = ctx.getStub();
         String errorMessage = null;
 
@@ -135,20 +149,22 @@ public final class AssetTransfer implements ContractInterface {
             errorMessage = "Empty input: newOwner";
         }
         if (errorMessage != null) {
-            System.err.println(errorMessage);
+            LOGGER.warning(errorMessage);
             throw new ChaincodeException(errorMessage, AssetTransferErrors.INCOMPLETE_INPUT.toString());
         }
-        System.out.printf("TransferAsset: verify asset %s exists\n", assetID);
+        LOGGER.log(Level.FINE, "TransferAsset: verify asset {0} exists", assetID);
         Asset thisAsset = getState(ctx, assetID);
+        Asset previous = thisAsset.copy();
         // Transfer asset to new owner
         thisAsset.setOwner(newOwner);
+        thisAsset.nextVersion();
 
-        System.out.printf(" Transfer Asset: ID %s to owner %s\n", assetID, newOwner);
+        LOGGER.log(Level.FINE, "TransferAsset: ID {0} to owner {1}", new Object[]{assetID, newOwner});
         savePrivateData(ctx, assetID); // save private data if any
         byte[] assetJSON = thisAsset.serialize();
 
         stub.putState(assetID, assetJSON);
-        stub.setEvent("TransferAsset", assetJSON); //publish Event
+        stub.setEvent("TransferAsset", eventPayload(ctx, thisAsset, previous, assetJSON)); //publish Event
     }
 
     /**
@@ -165,7 +181,7 @@ public final class AssetTransfer implements ContractInterface {
      * @return the created asset
      */
     @Transaction(intent = Transaction.TYPE.SUBMIT)
-    public Asset UpdateAsset(final Context ctx, final String assetID, final String color, final int size, final String owner, final int appraisedValue) {
+    public Asset UpdateAsset(final AssetTransferContext ctx, final String assetID, final String color, final int size, final String owner, final int appraisedValue) {
         ChaincodeStub stub = ctx.getStub();
         //input validations
         String errorMessage = null;
@@ -174,11 +190,12 @@ public final class AssetTransfer implements ContractInterface {
         }
 
         if (errorMessage != null) {
-            System.err.println(errorMessage);
+            LOGGER.warning(errorMessage);
             throw new ChaincodeException(errorMessage, AssetTransferErrors.INCOMPLETE_INPUT.toString());
         }
         // reads from the Statedb. Check if asset already exists
         Asset asset = getState(ctx, assetID);
+        Asset previous = asset.copy();
 
         if (owner != null) {
             asset.setOwner(owner);
@@ -192,12 +209,15 @@ public final class AssetTransfer implements ContractInterface {
         if (appraisedValue > 0) {
             asset.setAppraisedValue(appraisedValue);
         }
+        asset.nextVersion();
 
         savePrivateData(ctx, assetID);
         byte[] assetJSON = asset.serialize();
-        System.out.printf("UpdateAsset Put: ID %s Data %s\n", assetID, new String(assetJSON));
+        if (LOGGER.isLoggable(Level.FINE)) {
+            LOGGER.log(Level.FINE, "UpdateAsset Put: ID {0} Data {1}", new Object[]{assetID, new String(assetJSON, UTF_8)});
+        }
         stub.putState(assetID, assetJSON);
-        stub.setEvent("UpdateAsset", assetJSON); //publish Event
+        stub.setEvent("UpdateAsset", eventPayload(ctx, asset, previous, assetJSON)); //publish Event
         return asset;
     }
 
@@ -208,23 +228,37 @@ public final class AssetTransfer implements ContractInterface {
      * @param assetID asset to delete
      */
     @Transaction(intent = Transaction.TYPE.SUBMIT)
-    public void DeleteAsset(final Context ctx, final String assetID) {
+    public void DeleteAsset(final AssetTransferContext ctx, final String assetID) {
         ChaincodeStub stub = ctx.getStub();
-        System.out.printf("DeleteAsset: verify asset %s exists\n", assetID);
-        Asset asset = getState(ctx, assetID);
+        LOGGER.log(Level.FINE, "DeleteAsset: verify asset {0} exists", assetID);
+        // the stored asset JSON is published as is, so it is not deserialized and serialized again
+        byte[] assetJSON = stub.getState(assetID);
+        if (assetJSON == null || assetJSON.length == 0) {
+            String errorMessage = String.format("Asset %s does not exist", assetID);
+            LOGGER.warning(errorMessage);
+            throw new ChaincodeException(errorMessage, AssetTransferErrors.ASSET_NOT_FOUND.toString());
+        }
 
-        System.out.printf(" DeleteAsset:  ID %s\n", assetID);
+        LOGGER.log(Level.FINE, "DeleteAsset: ID {0}", assetID);
         // delete private details of asset
         removePrivateData(ctx, assetID);
         stub.delState(assetID);         // delete the key from Statedb
-        stub.setEvent("DeleteAsset", asset.serialize()); //publish Event
+        stub.setEvent("DeleteAsset", assetJSON); //publish Event
+    }
+
+    // Full asset JSON by default, or only the changed fields if the client opted in to delta events
+    private byte[] eventPayload(final AssetTransferContext ctx, final Asset asset, final Asset previous, final byte[] assetJSON) {
+        if (ctx.isDeltaEventFormat()) {
+            return asset.serializeDelta(previous);
+        }
+        return assetJSON;
     }
 
     private Asset getState(final Context ctx, final String assetID) {
         byte[] assetJSON = ctx.getStub().getState(assetID);
         if (assetJSON == null || assetJSON.length == 0) {
             String errorMessage = String.format("Asset %s does not exist", assetID);
-            System.err.println(errorMessage);
+            LOGGER.warning(errorMessage);
             throw new ChaincodeException(errorMessage, AssetTransferErrors.ASSET_NOT_FOUND.toString());
         }
 
@@ -236,14 +270,12 @@ public final class AssetTransfer implements ContractInterface {
         }
     }
 
-    private String readPrivateData(final Context ctx, final String assetKey) {
-        String peerMSPID = ctx.getStub().getMspId();
-        String clientMSPID = ctx.getClientIdentity().getMSPID();
-        String implicitCollectionName = getCollectionName(ctx);
+    private String readPrivateData(final AssetTransferContext ctx, final String assetKey) {
         String privData = null;
         //only if ClientOrgMatchesPeerOrg
-        if (peerMSPID.equals(clientMSPID)) {
-            System.out.printf(" ReadPrivateData from collection %s, ID %s\n", implicitCollectionName, assetKey);
+        if (ctx.isClientOrgPeerOrg()) {
+            String implicitCollectionName = ctx.getImplicitCollectionName();
+            LOGGER.log(Level.FINE, "ReadPrivateData from collection {0}, ID {1}", new Object[]{implicitCollectionName, assetKey});
             byte[] propJSON = ctx.getStub().getPrivateData(implicitCollectionName, assetKey);
 
             if (propJSON != null && propJSON.length > 0) {
@@ -253,41 +285,25 @@ public final class AssetTransfer implements ContractInterface {
         return privData;
     }
 
-    private void savePrivateData(final Context ctx, final String assetKey) {
-        String peerMSPID = ctx.getStub().getMspId();
-        String clientMSPID = ctx.getClientIdentity().getMSPID();
-        String implicitCollectionName = getCollectionName(ctx);
-
-        if (peerMSPID.equals(clientMSPID)) {
-            Map<String, byte[]> transientMap = ctx.getStub().getTransient();
-            if (transientMap != null && transientMap.containsKey(PRIVATE_PROPS_KEY)) {
-                byte[] transientAssetJSON = transientMap.get(PRIVATE_PROPS_KEY);
-
-                System.out.printf("Asset's PrivateData Put in collection %s, ID %s\n", implicitCollectionName, assetKey);
+    private void savePrivateData(final AssetTransferContext ctx, final String assetKey) {
+        if (ctx.isClientOrgPeerOrg()) {
+            byte[] transientAssetJSON = ctx.getPrivateProperties();
+            if (transientAssetJSON != null) {
+                String implicitCollectionName = ctx.getImplicitCollectionName();
+                LOGGER.log(Level.FINE, "PrivateData Put in collection {0}, ID {1}", new Object[]{implicitCollectionName, assetKey});
                 ctx.getStub().putPrivateData(implicitCollectionName, assetKey, transientAssetJSON);
             }
         }
     }
 
-    private void removePrivateData(final Context ctx, final String assetKey) {
-        String peerMSPID = ctx.getStub().getMspId();
-        String clientMSPID = ctx.getClientIdentity().getMSPID();
-        String implicitCollectionName = getCollectionName(ctx);
-
-        if (peerMSPID.equals(clientMSPID)) {
-            System.out.printf("PrivateData Delete from collection %s, ID %s\n", implicitCollectionName, assetKey);
+    private void removePrivateData(final AssetTransferContext ctx, final String assetKey) {
+        if (ctx.isClientOrgPeerOrg()) {
+            String implicitCollectionName = ctx.getImplicitCollectionName();
+            LOGGER.log(Level.FINE, "PrivateData Delete from collection {0}, ID {1}", new Object[]{implicitCollectionName, assetKey});
             ctx.getStub().delPrivateData(implicitCollectionName, assetKey);
         }
     }
 
-    // Return the implicit collection name, to use for private property persistance
-    private String getCollectionName(final Context ctx) {
-        // Get the MSP ID of submitting client identity
-        String clientMSPID = ctx.getClientIdentity().getMSPID();
-        String collectionName = IMPLICIT_COLLECTION_NAME_PREFIX + clientMSPID;
-        return collectionName;
-    }
-
     private enum AssetTransferErrors {
         INCOMPLETE_INPUT,
         INVALID_ACCESS,
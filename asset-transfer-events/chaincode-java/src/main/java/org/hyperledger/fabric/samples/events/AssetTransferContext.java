@@ -0,0 +1,93 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.hyperledger.fabric.samples.events;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.util.Map;
+
+import org.hyperledger.fabric.contract.Context;
+import org.hyperledger.fabric.shim.ChaincodeStub;
+
+/**
+ * Transaction context for the asset transfer events contract. The client and peer MSP IDs, the
+ * implicit collection name, the private asset properties and the event format are resolved once
+ * per transaction, on first use.
+ */
+public final class AssetTransferContext extends Context {
+
+    private String clientMSPID;
+    private String peerMSPID;
+    private String implicitCollectionName;
+    private byte[] privateProperties;
+    private boolean privatePropertiesResolved;
+    private Boolean deltaEventFormat;
+
+    public AssetTransferContext(final ChaincodeStub stub) {
+        super(stub);
+    }
+
+    public String getClientMSPID() {
+        if (clientMSPID == null) {
+            clientMSPID = getClientIdentity().getMSPID();
+        }
+        return clientMSPID;
+    }
+
+    public String getPeerMSPID() {
+        if (peerMSPID == null) {
+            peerMSPID = getStub().getMspId();
+        }
+        return peerMSPID;
+    }
+
+    /**
+     * Private data is only read and written when the client submits to a peer of its own org.
+     *
+     * @return true if the client and the peer belong to the same org
+     */
+    public boolean isClientOrgPeerOrg() {
+        return getPeerMSPID().equals(getClientMSPID());
+    }
+
+    /**
+     * @return the implicit collection name of the client org, used for private properties
+     */
+    public String getImplicitCollectionName() {
+        if (implicitCollectionName == null) {
+            implicitCollectionName = AssetTransfer.IMPLICIT_COLLECTION_NAME_PREFIX + getClientMSPID();
+        }
+        return implicitCollectionName;
+    }
+
+    /**
+     * Clients opt in to delta event payloads per transaction, by passing event_format=delta in the
+     * transient map.
+     *
+     * @return true if UpdateAsset and TransferAsset should emit delta events
+     */
+    public boolean isDeltaEventFormat() {
+        if (deltaEventFormat == null) {
+            Map<String, byte[]> transientMap = getStub().getTransient();
+            deltaEventFormat = transientMap != null && transientMap.containsKey(AssetTransfer.EVENT_FORMAT_KEY)
+                    && AssetTransfer.DELTA_EVENT_FORMAT.equals(new String(transientMap.get(AssetTransfer.EVENT_FORMAT_KEY), UTF_8));
+        }
+        return deltaEventFormat;
+    }
+
+    /**
+     * @return the asset properties passed in the transient map, or null if there are none
+     */
+    public byte[] getPrivateProperties() {
+        if (!privatePropertiesResolved) {
+            Map<String, byte[]> transientMap = getStub().getTransient();
+            if (transientMap != null) {
+                privateProperties = transientMap.get(AssetTransfer.PRIVATE_PROPS_KEY);
+            }
+            privatePropertiesResolved = true;
+        }
+        return privateProperties;
+    }
+}
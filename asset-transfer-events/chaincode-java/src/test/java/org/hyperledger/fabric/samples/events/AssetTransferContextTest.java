@@ -0,0 +1,54 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.hyperledger.fabric.samples.events;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hyperledger.fabric.samples.events.TestStubs.mockStub;
+import static org.hyperledger.fabric.samples.events.TestStubs.transientMap;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import org.hyperledger.fabric.shim.ChaincodeStub;
+import org.junit.jupiter.api.Test;
+
+public final class AssetTransferContextTest {
+
+    @Test
+    public void resolvesPeerOrgAndPrivatePropertiesOnce() {
+        ChaincodeStub stub = mockStub("Org1MSP", transientMap(AssetTransfer.PRIVATE_PROPS_KEY, "{}"));
+        AssetTransferContext ctx = new AssetTransferContext(stub);
+
+        assertThat(ctx.isClientOrgPeerOrg()).isTrue();
+        assertThat(ctx.isClientOrgPeerOrg()).isTrue();
+        assertThat(ctx.getImplicitCollectionName()).isEqualTo("_implicit_org_Org1MSP");
+        assertThat(ctx.getPrivateProperties()).isEqualTo("{}".getBytes());
+        assertThat(ctx.getPrivateProperties()).isEqualTo("{}".getBytes());
+
+        verify(stub, times(1)).getMspId();
+        verify(stub, times(1)).getTransient();
+    }
+
+    @Test
+    public void missingPrivatePropertiesAreResolvedOnce() {
+        ChaincodeStub stub = mockStub("Org2MSP", null);
+        AssetTransferContext ctx = new AssetTransferContext(stub);
+
+        assertThat(ctx.isClientOrgPeerOrg()).isFalse();
+        assertThat(ctx.getPrivateProperties()).isNull();
+        assertThat(ctx.getPrivateProperties()).isNull();
+        assertThat(ctx.isDeltaEventFormat()).isFalse();
+    }
+
+    @Test
+    public void resolvesEventFormatOnce() {
+        ChaincodeStub stub = mockStub("Org1MSP", transientMap(AssetTransfer.EVENT_FORMAT_KEY, AssetTransfer.DELTA_EVENT_FORMAT));
+        AssetTransferContext ctx = new AssetTransferContext(stub);
+
+        assertThat(ctx.isDeltaEventFormat()).isTrue();
+        assertThat(ctx.isDeltaEventFormat()).isTrue();
+
+        verify(stub, times(1)).getTransient();
+    }
+}
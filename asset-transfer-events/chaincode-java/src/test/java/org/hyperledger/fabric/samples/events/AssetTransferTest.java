@@ -0,0 +1,185 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.hyperledger.fabric.samples.events;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.ThrowableAssert.catchThrowable;
+import static org.hyperledger.fabric.samples.events.TestStubs.mockStub;
+import static org.hyperledger.fabric.samples.events.TestStubs.transientMap;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.hyperledger.fabric.shim.ChaincodeException;
+import org.hyperledger.fabric.shim.ChaincodeStub;
+import org.json.JSONObject;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+public final class AssetTransferTest {
+
+    private static final String ORG1_MSP = "Org1MSP";
+    private static final String ORG1_COLLECTION = AssetTransfer.IMPLICIT_COLLECTION_NAME_PREFIX + ORG1_MSP;
+    private static final String ASSET1_JSON =
+            "{\"ID\":\"asset1\",\"Color\":\"blue\",\"Owner\":\"Tom\",\"Size\":\"5\",\"AppraisedValue\":\"300\",\"Version\":\"2\"}";
+    private static final String PRIVATE_PROPS = "{\"asset_properties\":{\"salt\":\"a94a8fe5\"}}";
+
+    @Nested
+    class InvokeWriteTransaction {
+
+        @Test
+        public void createAssetPutsStateAndPrivateDataAndPublishesAsset() {
+            AssetTransfer contract = new AssetTransfer();
+            ChaincodeStub stub = mockStub(ORG1_MSP, transientMap(AssetTransfer.PRIVATE_PROPS_KEY, PRIVATE_PROPS));
+            AssetTransferContext ctx = new AssetTransferContext(stub);
+
+            Asset created = contract.CreateAsset(ctx, "asset1", "blue", 5, "Tom", 300);
+
+            assertThat(created.getVersion()).isEqualTo(1);
+            byte[] assetJSON = created.serialize();
+            verify(stub).putState("asset1", assetJSON);
+            verify(stub).setEvent("CreateAsset", assetJSON);
+            verify(stub).putPrivateData(ORG1_COLLECTION, "asset1", PRIVATE_PROPS.getBytes(UTF_8));
+        }
+
+        @Test
+        public void createAssetSkipsPrivateDataOnAnotherOrgsPeer() {
+            AssetTransfer contract = new AssetTransfer();
+            ChaincodeStub stub = mockStub("Org2MSP", transientMap(AssetTransfer.PRIVATE_PROPS_KEY, PRIVATE_PROPS));
+            AssetTransferContext ctx = new AssetTransferContext(stub);
+
+            contract.CreateAsset(ctx, "asset1", "blue", 5, "Tom", 300);
+
+            verify(stub, never()).putPrivateData(anyString(), anyString(), any(byte[].class));
+        }
+
+        @Test
+        public void createAssetWhenAssetExists() {
+            AssetTransfer contract = new AssetTransfer();
+            ChaincodeStub stub = mockStub(ORG1_MSP, transientMap());
+            when(stub.getState("asset1")).thenReturn(ASSET1_JSON.getBytes(UTF_8));
+            AssetTransferContext ctx = new AssetTransferContext(stub);
+
+            Throwable thrown = catchThrowable(() -> {
+                contract.CreateAsset(ctx, "asset1", "blue", 5, "Tom", 300);
+            });
+
+            assertThat(thrown).isInstanceOf(ChaincodeException.class).hasNoCause()
+                    .hasMessage("Asset asset1 already exists");
+            verify(stub, never()).putState(anyString(), any(byte[].class));
+        }
+
+        @Test
+        public void transferAssetPublishesFullAssetByDefault() {
+            AssetTransfer contract = new AssetTransfer();
+            ChaincodeStub stub = mockStub(ORG1_MSP, transientMap());
+            when(stub.getState("asset1")).thenReturn(ASSET1_JSON.getBytes(UTF_8));
+            AssetTransferContext ctx = new AssetTransferContext(stub);
+
+            contract.TransferAsset(ctx, "asset1", "Mary");
+
+            Asset expected = new Asset("asset1", "blue", 5, "Mary", 300, 3);
+            verify(stub).putState("asset1", expected.serialize());
+            verify(stub).setEvent("TransferAsset", expected.serialize());
+        }
+
+        @Test
+        public void transferAssetPublishesDeltaWhenRequested() {
+            AssetTransfer contract = new AssetTransfer();
+            ChaincodeStub stub = mockStub(ORG1_MSP,
+                    transientMap(AssetTransfer.EVENT_FORMAT_KEY, AssetTransfer.DELTA_EVENT_FORMAT));
+            when(stub.getState("asset1")).thenReturn(ASSET1_JSON.getBytes(UTF_8));
+            AssetTransferContext ctx = new AssetTransferContext(stub);
+
+            contract.TransferAsset(ctx, "asset1", "Mary");
+
+            verify(stub).putState("asset1", new Asset("asset1", "blue", 5, "Mary", 300, 3).serialize());
+            JSONObject event = new JSONObject("{\"ID\":\"asset1\",\"Version\":\"3\",\"Changed\":{\"Owner\":\"Mary\"}}");
+            verify(stub).setEvent("TransferAsset", event.toString().getBytes(UTF_8));
+        }
+
+        @Test
+        public void updateAssetChangesOnlyGivenFieldsAndPublishesDelta() {
+            AssetTransfer contract = new AssetTransfer();
+            ChaincodeStub stub = mockStub(ORG1_MSP,
+                    transientMap(AssetTransfer.EVENT_FORMAT_KEY, AssetTransfer.DELTA_EVENT_FORMAT));
+            when(stub.getState("asset1")).thenReturn(ASSET1_JSON.getBytes(UTF_8));
+            AssetTransferContext ctx = new AssetTransferContext(stub);
+
+            Asset updated = contract.UpdateAsset(ctx, "asset1", "red", 0, null, 0);
+
+            assertThat(updated).isEqualTo(new Asset("asset1", "red", 5, "Tom", 300));
+            assertThat(updated.getVersion()).isEqualTo(3);
+            JSONObject event = new JSONObject("{\"ID\":\"asset1\",\"Version\":\"3\",\"Changed\":{\"Color\":\"red\"}}");
+            verify(stub).setEvent("UpdateAsset", event.toString().getBytes(UTF_8));
+        }
+
+        @Test
+        public void transferAssetWhenAssetDoesNotExist() {
+            AssetTransfer contract = new AssetTransfer();
+            ChaincodeStub stub = mockStub(ORG1_MSP, transientMap());
+            AssetTransferContext ctx = new AssetTransferContext(stub);
+
+            Throwable thrown = catchThrowable(() -> {
+                contract.TransferAsset(ctx, "asset1", "Mary");
+            });
+
+            assertThat(thrown).isInstanceOf(ChaincodeException.class).hasNoCause()
+                    .hasMessage("Asset asset1 does not exist");
+            assertThat(((ChaincodeException) thrown).getPayload()).isEqualTo("ASSET_NOT_FOUND".getBytes(UTF_8));
+        }
+
+        @Test
+        public void deleteAssetPublishesStoredBytes() {
+            AssetTransfer contract = new AssetTransfer();
+            ChaincodeStub stub = mockStub(ORG1_MSP, transientMap());
+            byte[] stored = ASSET1_JSON.getBytes(UTF_8);
+            when(stub.getState("asset1")).thenReturn(stored);
+            AssetTransferContext ctx = new AssetTransferContext(stub);
+
+            contract.DeleteAsset(ctx, "asset1");
+
+            verify(stub).delPrivateData(ORG1_COLLECTION, "asset1");
+            verify(stub).delState("asset1");
+            verify(stub).setEvent("DeleteAsset", stored);
+        }
+    }
+
+    @Nested
+    class QueryReadAssetTransaction {
+
+        @Test
+        public void readAssetIncludesPrivatePropertiesOnOwnOrgsPeer() {
+            AssetTransfer contract = new AssetTransfer();
+            ChaincodeStub stub = mockStub(ORG1_MSP, transientMap());
+            when(stub.getState("asset1")).thenReturn(ASSET1_JSON.getBytes(UTF_8));
+            when(stub.getPrivateData(ORG1_COLLECTION, "asset1")).thenReturn(PRIVATE_PROPS.getBytes(UTF_8));
+            AssetTransferContext ctx = new AssetTransferContext(stub);
+
+            JSONObject asset = new JSONObject(contract.ReadAsset(ctx, "asset1"));
+
+            assertThat(asset.getString("Owner")).isEqualTo("Tom");
+            assertThat(asset.getJSONObject("asset_properties").similar(new JSONObject(PRIVATE_PROPS))).isTrue();
+        }
+
+        @Test
+        public void readAssetWithoutVersionIsVersionOne() {
+            AssetTransfer contract = new AssetTransfer();
+            ChaincodeStub stub = mockStub("Org2MSP", transientMap());
+            when(stub.getState("asset1"))
+                    .thenReturn("{\"ID\":\"asset1\",\"Color\":\"blue\",\"Owner\":\"Tom\",\"Size\":\"5\",\"AppraisedValue\":\"300\"}".getBytes(UTF_8));
+            AssetTransferContext ctx = new AssetTransferContext(stub);
+
+            JSONObject asset = new JSONObject(contract.ReadAsset(ctx, "asset1"));
+
+            assertThat(asset.getString("Version")).isEqualTo("1");
+            assertThat(asset.has("asset_properties")).isFalse();
+            verify(stub, never()).getPrivateData(anyString(), anyString());
+        }
+    }
+}
@@ -0,0 +1,61 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.hyperledger.fabric.samples.events;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.hyperledger.fabric.protos.msp.Identities.SerializedIdentity;
+import org.hyperledger.fabric.shim.ChaincodeStub;
+
+import com.google.protobuf.ByteString;
+
+final class TestStubs {
+
+    // Self-signed client certificate, so that a real transaction context can be built
+    private static final String CLIENT_CERT =
+            "-----BEGIN CERTIFICATE-----\n"
+            + "MIIB6jCCAY+gAwIBAgIUasJZ/soYZOVfDM4OWky4vm4BRrkwCgYIKoZIzj0EAwIw\n"
+            + "STELMAkGA1UEBhMCVVMxGTAXBgNVBAoMEG9yZzEuZXhhbXBsZS5jb20xDzANBgNV\n"
+            + "BAsMBmNsaWVudDEOMAwGA1UEAwwFQWxpY2UwIBcNMjYxMDE5MDgwNTM5WhgPMjEy\n"
+            + "NjA5MjUwODA1MzlaMEkxCzAJBgNVBAYTAlVTMRkwFwYDVQQKDBBvcmcxLmV4YW1w\n"
+            + "bGUuY29tMQ8wDQYDVQQLDAZjbGllbnQxDjAMBgNVBAMMBUFsaWNlMFkwEwYHKoZI\n"
+            + "zj0CAQYIKoZIzj0DAQcDQgAEb0j6InrRpdnWAotGEzgKqNHuKbF8rpvTzF41DPFS\n"
+            + "PUxQi49LhDJxWKeHANNCQT+k+InrQ2z5MaXRtO1mj1sQXqNTMFEwHQYDVR0OBBYE\n"
+            + "FPoOTKxiaV/5+K6Arz9LsLqSJ93jMB8GA1UdIwQYMBaAFPoOTKxiaV/5+K6Arz9L\n"
+            + "sLqSJ93jMA8GA1UdEwEB/wQFMAMBAf8wCgYIKoZIzj0EAwIDSQAwRgIhAMPb8GJy\n"
+            + "uklpxz1b9o0IRqR828ztJbUO3F72VMmHlurlAiEAztttN8meb1dC0oemTkmkLtuc\n"
+            + "3FgUKIFF0CbYidChacw=\n"
+            + "-----END CERTIFICATE-----\n";
+
+    private TestStubs() {
+    }
+
+    // Mock stub whose creator is a serialized identity of CLIENT_CERT in Org1MSP, as Context reads
+    // the client identity when it is constructed
+    static ChaincodeStub mockStub(final String peerMSPID, final Map<String, byte[]> transientMap) {
+        ChaincodeStub stub = mock(ChaincodeStub.class);
+        when(stub.getCreator()).thenReturn(SerializedIdentity.newBuilder()
+                .setMspid("Org1MSP")
+                .setIdBytes(ByteString.copyFromUtf8(CLIENT_CERT))
+                .build()
+                .toByteArray());
+        when(stub.getMspId()).thenReturn(peerMSPID);
+        when(stub.getTransient()).thenReturn(transientMap);
+        return stub;
+    }
+
+    static Map<String, byte[]> transientMap(final String... keysAndValues) {
+        Map<String, byte[]> transientMap = new HashMap<>();
+        for (int i = 0; i < keysAndValues.length; i += 2) {
+            transientMap.put(keysAndValues[i], keysAndValues[i + 1].getBytes(UTF_8));
+        }
+        return transientMap;
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.hyperledger.fabric.samples.privatedata;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.util.concurrent.TimeUnit;
+
+import org.json.JSONObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Compares the reflective org.json serialization previously used by Asset and AssetPrivateDetails
+ * with AssetCodec. Run with ./gradlew jmh
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class AssetCodecBenchmark {
+
+    private final Asset asset = new Asset("testasset", "asset1", "blue", 5,
+            "x509::CN=appUser, OU=client + OU=org1 + OU=department1::CN=ca.org1.example.com, O=org1.example.com");
+    private final AssetPrivateDetails assetPriv = new AssetPrivateDetails("asset1", 300);
+    private final byte[] assetJSON = asset.serialize();
+    private final byte[] assetPrivJSON = assetPriv.serialize();
+
+    /**
+     * @return the asset serialized with new JSONObject(asset)
+     */
+    @Benchmark
+    public byte[] serializeAssetJSONObject() {
+        return new JSONObject(asset).toString().getBytes(UTF_8);
+    }
+
+    /**
+     * @return the asset serialized with AssetCodec
+     */
+    @Benchmark
+    public byte[] serializeAssetCodec() {
+        return asset.serialize();
+    }
+
+    /**
+     * @return the asset deserialized through JSONObject
+     */
+    @Benchmark
+    public Asset deserializeAssetJSONObject() {
+        JSONObject json = new JSONObject(new String(assetJSON, UTF_8));
+        return new Asset(json.getString("objectType"), json.getString("assetID"), json.getString("color"),
+                json.getInt("size"), json.getString("owner"));
+    }
+
+    /**
+     * @return the asset deserialized with AssetCodec
+     */
+    @Benchmark
+    public Asset deserializeAssetCodec() {
+        return Asset.deserialize(assetJSON);
+    }
+
+    /**
+     * @return the private details serialized with new JSONObject(assetPriv)
+     */
+    @Benchmark
+    public byte[] serializeAssetPrivateDetailsJSONObject() {
+        return new JSONObject(assetPriv).toString().getBytes(UTF_8);
+    }
+
+    /**
+     * @return the private details serialized with AssetCodec
+     */
+    @Benchmark
+    public byte[] serializeAssetPrivateDetailsCodec() {
+        return assetPriv.serialize();
+    }
+
+    /**
+     * @return the private details deserialized through JSONObject
+     */
+    @Benchmark
+    public AssetPrivateDetails deserializeAssetPrivateDetailsJSONObject() {
+        JSONObject json = new JSONObject(new String(assetPrivJSON, UTF_8));
+        return new AssetPrivateDetails(json.getString("assetID"), json.getInt("appraisedValue"));
+    }
+
+    /**
+     * @return the private details deserialized with AssetCodec
+     */
+    @Benchmark
+    public AssetPrivateDetails deserializeAssetPrivateDetailsCodec() {
+        return AssetPrivateDetails.deserialize(assetPrivJSON);
+    }
+}
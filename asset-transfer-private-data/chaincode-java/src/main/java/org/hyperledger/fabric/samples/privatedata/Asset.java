@@ -12,7 +12,6 @@ import org.hyperledger.fabric.contract.annotation.DataType;
 import org.hyperledger.fabric.contract.annotation.Property;
 
 import org.hyperledger.fabric.shim.ChaincodeException;
-import org.json.JSONObject;
 
 @DataType()
 public final class Asset {
@@ -67,8 +66,7 @@ public final class Asset {
     }
 
     public byte[] serialize() {
-        String jsonStr = new JSONObject(this).toString();
-        return jsonStr.getBytes(UTF_8);
+        return AssetCodec.serialize(this);
     }
 
     public static Asset deserialize(final byte[] assetJSON) {
@@ -77,13 +75,7 @@ public final class Asset {
 
     public static Asset deserialize(final String assetJSON) {
         try {
-            JSONObject json = new JSONObject(assetJSON);
-            final String id = json.getString("assetID");
-            final String type = json.getString("objectType");
-            final String color = json.getString("color");
-            final String owner = json.getString("owner");
-            final int size = json.getInt("size");
-            return new Asset(type, id, color, size, owner);
+            return AssetCodec.deserializeAsset(new JsonReader(assetJSON));
         } catch (Exception e) {
             throw new ChaincodeException("Deserialize error: " + e.getMessage(), "DATA_ERROR");
         }
@@ -0,0 +1,204 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.hyperledger.fabric.samples.privatedata;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Hand-written JSON codec for the states stored by this contract. It writes the same fields that
+ * the reflective JSONObject serialization did and reads them back with {@link JsonReader}, so
+ * neither direction uses reflection or an intermediate object tree. Fields with a null value are
+ * omitted, and unknown fields are skipped when reading.
+ *
+ * The output is byte for byte what new JSONObject(state).toString() wrote with org.json 20180813,
+ * the version AssetCodecTest is pinned to, with the fields in the iteration order of the HashMap
+ * that JSONObject filled from the getters. Private data hashes of
+ * states written before the codec was introduced are compared with hashes of states written by
+ * it, for example when a transfer is verified, so the field order must not change.
+ */
+final class AssetCodec {
+
+    private AssetCodec() {
+    }
+
+    static byte[] serialize(final Asset asset) {
+        StringBuilder json = new StringBuilder(128).append('{');
+        boolean first = appendField(json, true, "owner", asset.getOwner());
+        first = appendField(json, first, "size", asset.getSize());
+        first = appendField(json, first, "color", asset.getColor());
+        first = appendField(json, first, "assetID", asset.getAssetID());
+        appendField(json, first, "objectType", asset.getObjectType());
+        return json.append('}').toString().getBytes(UTF_8);
+    }
+
+    static Asset deserializeAsset(final JsonReader reader) {
+        String assetID = null;
+        String type = null;
+        String color = null;
+        String owner = null;
+        Integer size = null;
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "assetID":
+                    assetID = reader.nextString();
+                    break;
+                case "objectType":
+                    type = reader.nextString();
+                    break;
+                case "color":
+                    color = reader.nextString();
+                    break;
+                case "owner":
+                    owner = reader.nextString();
+                    break;
+                case "size":
+                    size = reader.nextInt();
+                    break;
+                default:
+                    reader.skipValue();
+                    break;
+            }
+        }
+        reader.endObject();
+        return new Asset(required(type, "objectType"), required(assetID, "assetID"), required(color, "color"),
+                required(size, "size"), required(owner, "owner"));
+    }
+
+    static byte[] serialize(final AssetPrivateDetails assetPriv) {
+        StringBuilder json = new StringBuilder(64).append('{');
+        boolean first = appendField(json, true, "appraisedValue", assetPriv.getAppraisedValue());
+        appendField(json, first, "assetID", assetPriv.getAssetID());
+        return json.append('}').toString().getBytes(UTF_8);
+    }
+
+    static AssetPrivateDetails deserializeAssetPrivateDetails(final JsonReader reader) {
+        String assetID = null;
+        Integer appraisedValue = null;
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "assetID":
+                    assetID = reader.nextString();
+                    break;
+                case "appraisedValue":
+                    appraisedValue = reader.nextInt();
+                    break;
+                default:
+                    reader.skipValue();
+                    break;
+            }
+        }
+        reader.endObject();
+        return new AssetPrivateDetails(required(assetID, "assetID"), required(appraisedValue, "appraisedValue"));
+    }
+
+    static byte[] serialize(final TransferAgreement agreement) {
+        StringBuilder json = new StringBuilder(64).append('{');
+        boolean first = appendField(json, true, "assetID", agreement.getAssetID());
+        appendField(json, first, "buyerID", agreement.getBuyerID());
+        return json.append('}').toString().getBytes(UTF_8);
+    }
+
+    static TransferAgreement deserializeTransferAgreement(final JsonReader reader) {
+        String assetID = null;
+        String buyerID = null;
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "assetID":
+                    assetID = reader.nextString();
+                    break;
+                case "buyerID":
+                    buyerID = reader.nextString();
+                    break;
+                default:
+                    reader.skipValue();
+                    break;
+            }
+        }
+        reader.endObject();
+        return new TransferAgreement(required(assetID, "assetID"), required(buyerID, "buyerID"));
+    }
+
+    /**
+     * Appends a JSON string literal for value, escaped as JSONObject.quote() does: quotes,
+     * backslashes, "</" and control characters are escaped, as are the ranges U+0080 to U+009F and
+     * U+2000 to U+20FF.
+     */
+    static StringBuilder quote(final StringBuilder json, final String value) {
+        json.append('"');
+        if (value == null) {
+            return json.append('"');
+        }
+        char previous = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '\\':
+                case '"':
+                    json.append('\\').append(c);
+                    break;
+                case '/':
+                    if (previous == '<') {
+                        json.append('\\');
+                    }
+                    json.append(c);
+                    break;
+                case '\b':
+                    json.append("\\b");
+                    break;
+                case '\t':
+                    json.append("\\t");
+                    break;
+                case '\n':
+                    json.append("\\n");
+                    break;
+                case '\f':
+                    json.append("\\f");
+                    break;
+                case '\r':
+                    json.append("\\r");
+                    break;
+                default:
+                    if (c < ' ' || (c >= '\u0080' && c < '\u00a0') || (c >= '\u2000' && c < '\u2100')) {
+                        json.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        json.append(c);
+                    }
+                    break;
+            }
+            previous = c;
+        }
+        return json.append('"');
+    }
+
+    private static boolean appendField(final StringBuilder json, final boolean first, final String name, final String value) {
+        if (value == null) {
+            return first;
+        }
+        if (!first) {
+            json.append(',');
+        }
+        quote(json, name).append(':');
+        quote(json, value);
+        return false;
+    }
+
+    private static boolean appendField(final StringBuilder json, final boolean first, final String name, final int value) {
+        if (!first) {
+            json.append(',');
+        }
+        quote(json, name).append(':').append(value);
+        return false;
+    }
+
+    private static <T> T required(final T value, final String name) {
+        if (value == null) {
+            throw new IllegalArgumentException("Missing field " + name);
+        }
+        return value;
+    }
+}
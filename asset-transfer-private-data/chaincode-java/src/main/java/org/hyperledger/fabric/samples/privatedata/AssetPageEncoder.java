@@ -0,0 +1,38 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.hyperledger.fabric.samples.privatedata;
+
+/**
+ * Builds a page of query results as a single JSON document while the results are being iterated.
+ * Stored asset JSON is copied through as is, so no record is deserialized or serialized again.
+ *
+ * The encoded page has the form
+ * {"records":[...],"fetchedRecordsCount":n,"bookmark":"..."}
+ * where an empty bookmark means there are no more results.
+ */
+final class AssetPageEncoder {
+
+    private final StringBuilder json = new StringBuilder("{\"records\":[");
+    private int count = 0;
+
+    void addRecord(final String assetJSON) {
+        if (count > 0) {
+            json.append(',');
+        }
+        json.append(assetJSON);
+        count++;
+    }
+
+    int getCount() {
+        return count;
+    }
+
+    String finish(final String bookmark) {
+        json.append("],\"fetchedRecordsCount\":").append(count)
+                .append(",\"bookmark\":");
+        AssetCodec.quote(json, bookmark).append('}');
+        return json.toString();
+    }
+}
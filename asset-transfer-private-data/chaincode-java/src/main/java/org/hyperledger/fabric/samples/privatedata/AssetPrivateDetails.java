@@ -4,9 +4,6 @@ import org.hyperledger.fabric.contract.annotation.DataType;
 import org.hyperledger.fabric.contract.annotation.Property;
 
 import org.hyperledger.fabric.shim.ChaincodeException;
-import org.json.JSONObject;
-
-import static java.nio.charset.StandardCharsets.UTF_8;
 
 @DataType()
 public final class AssetPrivateDetails {
@@ -32,16 +29,12 @@ public final class AssetPrivateDetails {
     }
 
     public byte[] serialize() {
-        String jsonStr = new JSONObject(this).toString();
-        return jsonStr.getBytes(UTF_8);
+        return AssetCodec.serialize(this);
     }
 
     public static AssetPrivateDetails deserialize(final byte[] assetJSON) {
         try {
-            JSONObject json = new JSONObject(new String(assetJSON, UTF_8));
-            final String id = json.getString("assetID");
-            final int appraisedValue = json.getInt("appraisedValue");
-            return new AssetPrivateDetails(id, appraisedValue);
+            return AssetCodec.deserializeAssetPrivateDetails(new JsonReader(assetJSON));
         } catch (Exception e) {
             throw new ChaincodeException("Deserialize error: " + e.getMessage(), "DATA_ERROR");
         }
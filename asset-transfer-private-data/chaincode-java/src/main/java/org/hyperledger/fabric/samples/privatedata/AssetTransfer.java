@@ -20,12 +20,15 @@ import org.hyperledger.fabric.shim.ledger.CompositeKey;
 
 import org.hyperledger.fabric.shim.ledger.KeyValue;
 import org.hyperledger.fabric.shim.ledger.QueryResultsIterator;
-import org.json.JSONObject;
 
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * Main Chaincode class. A ContractInterface gets converted to Chaincode internally.
@@ -62,6 +65,11 @@ public final class AssetTransfer implements ContractInterface {
 
     static final String ASSET_COLLECTION_NAME = "assetCollection";
     static final String AGREEMENT_KEYPREFIX = "transferAgreement";
+    static final int DEFAULT_PAGE_SIZE = 100;
+    static final int MAX_PAGE_SIZE = 1000;
+    static final String CREATED_INDEX = "created";
+    static final String CREATED_BUCKET_KEYPREFIX = "createdBucket";
+    static final DateTimeFormatter CREATED_BUCKET_FORMAT = DateTimeFormatter.ofPattern("yyyyMMddHH").withZone(ZoneOffset.UTC);
 
     private enum AssetTransferErrors {
         INCOMPLETE_INPUT,
@@ -172,6 +180,43 @@ public final class AssetTransfer implements ContractInterface {
         return queryResults.toArray(new Asset[0]);
     }
 
+    /**
+     * GetAssetByRangeWithPagination performs a range query based on the start and end keys provided
+     * and returns a single page of results. The returned bookmark is the first key of the next page;
+     * passing it back in continues the query from there. An empty bookmark starts from startKey.
+     *
+     * @param ctx      the transaction context
+     * @param startKey for ID range of the asset
+     * @param endKey   for ID range of the asset
+     * @param pageSize the maximum number of assets to return, DEFAULT_PAGE_SIZE if not positive
+     * @param bookmark the bookmark returned by the previous page, or empty for the first page
+     * @return the page of assets as JSON, with fetchedRecordsCount and the next bookmark
+     */
+    @Transaction(intent = Transaction.TYPE.EVALUATE)
+    public String GetAssetByRangeWithPagination(final Context ctx, final String startKey, final String endKey,
+                                                final int pageSize, final String bookmark) throws Exception {
+        ChaincodeStub stub = ctx.getStub();
+        final int limit = resolvePageSize(pageSize);
+        final String pageStartKey = (bookmark == null || bookmark.isEmpty()) ? startKey : bookmark;
+
+        AssetPageEncoder page = new AssetPageEncoder();
+        String nextBookmark = "";
+        try (QueryResultsIterator<KeyValue> results = stub.getPrivateDataByRange(ASSET_COLLECTION_NAME, pageStartKey, endKey)) {
+            for (KeyValue result : results) {
+                String assetJSON = result.getStringValue();
+                if (assetJSON == null || assetJSON.length() == 0) {
+                    continue;
+                }
+                if (page.getCount() == limit) {
+                    nextBookmark = result.getKey();
+                    break;
+                }
+                page.addRecord(assetJSON);
+            }
+        }
+        return page.finish(nextBookmark);
+    }
+
     // =======Rich queries =========================================================================
     // Two examples of rich queries are provided below (parameterized query and ad hoc query).
     // Rich queries pass a query string to the state database.
@@ -215,6 +260,41 @@ public final class AssetTransfer implements ContractInterface {
         return getQueryResult(ctx, queryString);
     }
 
+    /**
+     * QueryAssetByOwnerWithPagination is the paginated variant of QueryAssetByOwner.
+     *
+     * @param ctx       the transaction context
+     * @param assetType type to query for
+     * @param owner     asset owner to query for
+     * @param pageSize  the maximum number of assets to return, DEFAULT_PAGE_SIZE if not positive
+     * @param bookmark  the bookmark returned by the previous page, or empty for the first page
+     * @return the page of assets as JSON, with fetchedRecordsCount and the next bookmark
+     */
+    @Transaction(intent = Transaction.TYPE.EVALUATE)
+    public String QueryAssetByOwnerWithPagination(final Context ctx, final String assetType, final String owner,
+                                                  final int pageSize, final String bookmark) throws Exception {
+        String queryString = String.format("{\"selector\":{\"objectType\":\"%s\",\"owner\":\"%s\"}}", assetType, owner);
+        return getQueryResultPage(ctx, queryString, pageSize, bookmark);
+    }
+
+    /**
+     * QueryAssetsWithPagination is the paginated variant of QueryAssets.
+     * Private data rich queries do not support state database bookmarks, so the bookmark returned
+     * here is the number of assets already returned, and earlier results are skipped without being
+     * parsed.
+     *
+     * @param ctx         the transaction context
+     * @param queryString query string matching state database syntax
+     * @param pageSize    the maximum number of assets to return, DEFAULT_PAGE_SIZE if not positive
+     * @param bookmark    the bookmark returned by the previous page, or empty for the first page
+     * @return the page of assets as JSON, with fetchedRecordsCount and the next bookmark
+     */
+    @Transaction(intent = Transaction.TYPE.EVALUATE)
+    public String QueryAssetsWithPagination(final Context ctx, final String queryString,
+                                            final int pageSize, final String bookmark) throws Exception {
+        return getQueryResultPage(ctx, queryString, pageSize, bookmark);
+    }
+
     private Asset[] getQueryResult(final Context ctx, final String queryString) throws Exception {
         ChaincodeStub stub = ctx.getStub();
         System.out.printf("QueryAssets: %s\n", queryString);
@@ -235,6 +315,52 @@ public final class AssetTransfer implements ContractInterface {
         return queryResults.toArray(new Asset[0]);
     }
 
+    private String getQueryResultPage(final Context ctx, final String queryString,
+                                      final int pageSize, final String bookmark) throws Exception {
+        ChaincodeStub stub = ctx.getStub();
+        final int limit = resolvePageSize(pageSize);
+        int offset;
+        try {
+            offset = (bookmark == null || bookmark.isEmpty()) ? 0 : Integer.parseInt(bookmark);
+        } catch (NumberFormatException err) {
+            offset = -1;
+        }
+        if (offset < 0) {
+            String errorMessage = String.format("Invalid bookmark: %s", bookmark);
+            System.err.println(errorMessage);
+            throw new ChaincodeException(errorMessage, AssetTransferErrors.INCOMPLETE_INPUT.toString());
+        }
+
+        AssetPageEncoder page = new AssetPageEncoder();
+        String nextBookmark = "";
+        int skipped = 0;
+        try (QueryResultsIterator<KeyValue> results = stub.getPrivateDataQueryResult(ASSET_COLLECTION_NAME, queryString)) {
+            for (KeyValue result : results) {
+                String assetJSON = result.getStringValue();
+                if (assetJSON == null || assetJSON.length() == 0) {
+                    continue;
+                }
+                if (skipped < offset) {
+                    skipped++;
+                    continue;
+                }
+                if (page.getCount() == limit) {
+                    nextBookmark = Integer.toString(offset + limit);
+                    break;
+                }
+                page.addRecord(assetJSON);
+            }
+        }
+        return page.finish(nextBookmark);
+    }
+
+    private static int resolvePageSize(final int pageSize) {
+        if (pageSize <= 0) {
+            return DEFAULT_PAGE_SIZE;
+        }
+        return Math.min(pageSize, MAX_PAGE_SIZE);
+    }
+
 
     /**
      * Creates a new asset on the ledger from asset properties passed in as transient map.
@@ -258,21 +384,15 @@ public final class AssetTransfer implements ContractInterface {
         final String assetID;
         final String type;
         final String color;
-        int appraisedValue = 0;
-        int size = 0;
+        final int appraisedValue;
+        final int size;
         try {
-            JSONObject json = new JSONObject(new String(transientAssetJSON, UTF_8));
-            Map<String, Object> tMap = json.toMap();
-
-            type = (String) tMap.get("objectType");
-            assetID = (String) tMap.get("assetID");
-            color = (String) tMap.get("color");
-            if (tMap.containsKey("size")) {
-                size = (Integer) tMap.get("size");
-            }
-            if (tMap.containsKey("appraisedValue")) {
-                appraisedValue = (Integer) tMap.get("appraisedValue");
-            }
+            AssetProperties properties = AssetProperties.read(new JsonReader(transientAssetJSON));
+            type = properties.type;
+            assetID = properties.assetID;
+            color = properties.color;
+            size = properties.size;
+            appraisedValue = properties.appraisedValue;
         } catch (Exception err) {
             String errorMessage = String.format("TransientMap deserialized error: %s ", err);
             System.err.println(errorMessage);
@@ -280,23 +400,7 @@ public final class AssetTransfer implements ContractInterface {
         }
 
         //input validations
-        String errorMessage = null;
-        if (assetID.equals("")) {
-            errorMessage = String.format("Empty input in Transient map: assetID");
-        }
-        if (type.equals("")) {
-            errorMessage = String.format("Empty input in Transient map: objectType");
-        }
-        if (color.equals("")) {
-            errorMessage = String.format("Empty input in Transient map: color");
-        }
-        if (size <= 0) {
-            errorMessage = String.format("Empty input in Transient map: size");
-        }
-        if (appraisedValue <= 0) {
-            errorMessage = String.format("Empty input in Transient map: appraisedValue");
-        }
-
+        String errorMessage = validateAssetProperties(assetID, type, color, size, appraisedValue);
         if (errorMessage != null) {
             System.err.println(errorMessage);
             throw new ChaincodeException(errorMessage, AssetTransferErrors.INCOMPLETE_INPUT.toString());
@@ -332,10 +436,86 @@ public final class AssetTransfer implements ContractInterface {
         AssetPrivateDetails assetPriv = new AssetPrivateDetails(assetID, appraisedValue);
         System.out.printf("Put AssetPrivateDetails: collection %s, ID %s\n", orgCollectionName, assetID);
         stub.putPrivateData(orgCollectionName, assetID, assetPriv.serialize());
+        putCreatedIndex(stub, assetID, orgCollectionName);
 
         return asset;
     }
 
+    /**
+     * Creates many new assets in one transaction from a JSON array of asset properties passed in
+     * the transient map. The array is streamed one element at a time and every element is validated
+     * as in CreateAsset. Either all assets are created or, on the first invalid or existing asset,
+     * none are.
+     *
+     * @param ctx the transaction context
+     *            Transient map with asset_properties_batch key with a JSON array of assets as value
+     * @return the created assets
+     */
+    @Transaction(intent = Transaction.TYPE.SUBMIT)
+    public Asset[] CreateAssetsBatch(final Context ctx) {
+        ChaincodeStub stub = ctx.getStub();
+        Map<String, byte[]> transientMap = stub.getTransient();
+        if (!transientMap.containsKey("asset_properties_batch")) {
+            String errorMessage = "CreateAssetsBatch call must specify asset_properties_batch in Transient map input";
+            System.err.println(errorMessage);
+            throw new ChaincodeException(errorMessage, AssetTransferErrors.INCOMPLETE_INPUT.toString());
+        }
+
+        List<Asset> assets = new ArrayList<>();
+        List<AssetPrivateDetails> assetPrivs = new ArrayList<>();
+        Set<String> assetIDs = new HashSet<>();
+        try {
+            JsonReader reader = new JsonReader(transientMap.get("asset_properties_batch"));
+            reader.beginArray();
+            while (reader.hasNext()) {
+                AssetProperties properties = AssetProperties.read(reader);
+                String errorMessage = validateAssetProperties(properties.assetID, properties.type, properties.color,
+                        properties.size, properties.appraisedValue);
+                if (errorMessage == null && !assetIDs.add(properties.assetID)) {
+                    errorMessage = String.format("Duplicate assetID in Transient map: %s", properties.assetID);
+                }
+                if (errorMessage != null) {
+                    System.err.println(errorMessage);
+                    throw new ChaincodeException(errorMessage, AssetTransferErrors.INCOMPLETE_INPUT.toString());
+                }
+                assets.add(new Asset(properties.type, properties.assetID, properties.color, properties.size, ""));
+                assetPrivs.add(new AssetPrivateDetails(properties.assetID, properties.appraisedValue));
+            }
+            reader.endArray();
+        } catch (IllegalArgumentException err) {
+            String errorMessage = String.format("TransientMap deserialized error: %s ", err);
+            System.err.println(errorMessage);
+            throw new ChaincodeException(errorMessage, AssetTransferErrors.INCOMPLETE_INPUT.toString());
+        }
+
+        // Check that none of the assets already exists
+        for (Asset asset : assets) {
+            byte[] assetJSON = stub.getPrivateData(ASSET_COLLECTION_NAME, asset.getAssetID());
+            if (assetJSON != null && assetJSON.length > 0) {
+                String errorMessage = String.format("Asset %s already exists", asset.getAssetID());
+                System.err.println(errorMessage);
+                throw new ChaincodeException(errorMessage, AssetTransferErrors.ASSET_ALREADY_EXISTS.toString());
+            }
+        }
+
+        // Client identity and collection are resolved once for the whole batch
+        String clientID = ctx.getClientIdentity().getId();
+        verifyClientOrgMatchesPeerOrg(ctx);
+        String orgCollectionName = getCollectionName(ctx);
+
+        System.out.printf("CreateAssetsBatch Put: collections %s and %s, %d assets\n",
+                ASSET_COLLECTION_NAME, orgCollectionName, assets.size());
+        for (int i = 0; i < assets.size(); i++) {
+            Asset asset = assets.get(i);
+            asset.setOwner(clientID);
+            stub.putPrivateData(ASSET_COLLECTION_NAME, asset.getAssetID(), asset.serialize());
+            stub.putPrivateData(orgCollectionName, asset.getAssetID(), assetPrivs.get(i).serialize());
+            putCreatedIndex(stub, asset.getAssetID(), orgCollectionName);
+        }
+
+        return assets.toArray(new Asset[0]);
+    }
+
     /**
      * AgreeToTransfer is used by the potential buyer of the asset to agree to the
      * asset value. The agreed to appraisal value is stored in the buying orgs
@@ -359,11 +539,8 @@ public final class AssetTransfer implements ContractInterface {
         AssetPrivateDetails assetPriv;
         String assetID;
         try {
-            JSONObject json = new JSONObject(new String(transientAssetJSON, UTF_8));
-            assetID = json.getString("assetID");
-            final int appraisedValue = json.getInt("appraisedValue");
-
-            assetPriv = new AssetPrivateDetails(assetID, appraisedValue);
+            assetPriv = AssetCodec.deserializeAssetPrivateDetails(new JsonReader(transientAssetJSON));
+            assetID = assetPriv.getAssetID();
         } catch (Exception err) {
             String errorMessage = String.format("TransientMap deserialized error %s ", err);
             System.err.println(errorMessage);
@@ -381,8 +558,7 @@ public final class AssetTransfer implements ContractInterface {
             throw new ChaincodeException(errorMessage, AssetTransferErrors.INCOMPLETE_INPUT.toString());
         }
         System.out.printf("AgreeToTransfer: verify asset %s exists\n", assetID);
-        Asset existing = ReadAsset(ctx, assetID);
-        if (existing == null) {
+        if (!privateDataExists(stub, ASSET_COLLECTION_NAME, assetID)) {
             String errorMessage = String.format("Asset does not exist in the collection: ", assetID);
             System.err.println(errorMessage);
             throw new ChaincodeException(errorMessage, AssetTransferErrors.INCOMPLETE_INPUT.toString());
@@ -424,10 +600,9 @@ public final class AssetTransfer implements ContractInterface {
         final String assetID;
         final String buyerMSP;
         try {
-            JSONObject json = new JSONObject(new String(transientAssetJSON, UTF_8));
-            assetID = json.getString("assetID");
-            buyerMSP = json.getString("buyerMSP");
-
+            String[] values = readStringFields(transientAssetJSON, "assetID", "buyerMSP");
+            assetID = values[0];
+            buyerMSP = values[1];
         } catch (Exception err) {
             String errorMessage = String.format("TransientMap deserialized error %s ", err);
             System.err.println(errorMessage);
@@ -456,8 +631,9 @@ public final class AssetTransfer implements ContractInterface {
 
         verifyClientOrgMatchesPeerOrg(ctx);
         Asset thisAsset = Asset.deserialize(assetJSON);
+        String ownersCollectionName = getCollectionName(ctx);
         // Verify transfer details and transfer owner
-        verifyAgreement(ctx, assetID, thisAsset.getOwner(), buyerMSP);
+        verifyAgreement(ctx, assetID, thisAsset.getOwner(), ownersCollectionName, buyerMSP);
 
         TransferAgreement transferAgreement = ReadTransferAgreement(ctx, assetID);
         if (transferAgreement == null) {
@@ -475,8 +651,8 @@ public final class AssetTransfer implements ContractInterface {
         stub.putPrivateData(ASSET_COLLECTION_NAME, assetID, thisAsset.serialize());
 
         // delete the key from owners collection
-        String ownersCollectionName = getCollectionName(ctx);
         stub.delPrivateData(ownersCollectionName, assetID);
+        updateCreatedIndex(stub, assetID, buyerMSP + "PrivateCollection");
 
         //Delete the transfer agreement from the asset collection
         CompositeKey aggKey = stub.createCompositeKey(AGREEMENT_KEYPREFIX, assetID);
@@ -504,27 +680,22 @@ public final class AssetTransfer implements ContractInterface {
         final String assetID;
 
         try {
-            JSONObject json = new JSONObject(new String(transientAssetJSON, UTF_8));
-            assetID = json.getString("assetID");
-
+            assetID = readStringFields(transientAssetJSON, "assetID")[0];
         } catch (Exception err) {
             String errorMessage = String.format("TransientMap deserialized error: %s ", err);
             System.err.println(errorMessage);
             throw new ChaincodeException(errorMessage, AssetTransferErrors.INCOMPLETE_INPUT.toString());
         }
 
+        // Existence is all that is needed here, so only the hashes are read
         System.out.printf("DeleteAsset: verify asset %s exists\n", assetID);
-        byte[] assetJSON = stub.getPrivateData(ASSET_COLLECTION_NAME, assetID);
-
-        if (assetJSON == null || assetJSON.length == 0) {
+        if (!privateDataExists(stub, ASSET_COLLECTION_NAME, assetID)) {
             String errorMessage = String.format("Asset %s does not exist", assetID);
             System.err.println(errorMessage);
             throw new ChaincodeException(errorMessage, AssetTransferErrors.ASSET_NOT_FOUND.toString());
         }
         String ownersCollectionName = getCollectionName(ctx);
-        byte[] apdJSON = stub.getPrivateData(ownersCollectionName, assetID);
-
-        if (apdJSON == null || apdJSON.length == 0) {
+        if (!privateDataExists(stub, ownersCollectionName, assetID)) {
             String errorMessage = String.format("Failed to read asset from owner's Collection %s", ownersCollectionName);
             System.err.println(errorMessage);
             throw new ChaincodeException(errorMessage, AssetTransferErrors.ASSET_NOT_FOUND.toString());
@@ -537,11 +708,125 @@ public final class AssetTransfer implements ContractInterface {
 
         // Finally, delete private details of asset
         stub.delPrivateData(ownersCollectionName, assetID);
+        updateCreatedIndex(stub, assetID, null);
+    }
+
+    /**
+     * QueryAssetsCreatedBefore lists the oldest entries of the created~yyyyMMddHH~assetID index kept in
+     * the asset collection, up to the first entry whose hour bucket is not before the given bucket.
+     * Only entries whose value is the caller org's collection are listed, since PurgeOlderThan skips
+     * assets held by other orgs; those are scanned past without counting towards the limit, so they
+     * cannot keep the caller's own entries out of the result. Index entries are returned in bucket
+     * order, and the scan stops at the cutoff bucket. The result is the input for PurgeOlderThan.
+     *
+     * @param ctx    the transaction context
+     * @param bucket hour bucket in yyyyMMddHH format (UTC); only entries created before it are listed
+     * @param limit  the maximum number of entries to return, DEFAULT_PAGE_SIZE if not positive
+     * @return JSON array of {"assetID":...,"bucket":...} entries
+     */
+    @Transaction(intent = Transaction.TYPE.EVALUATE)
+    public String QueryAssetsCreatedBefore(final Context ctx, final String bucket, final int limit) throws Exception {
+        ChaincodeStub stub = ctx.getStub();
+        verifyBucket(bucket);
+        final int maxEntries = resolvePageSize(limit);
+        String orgCollectionName = getCollectionName(ctx);
+
+        StringBuilder json = new StringBuilder("[");
+        int count = 0;
+        try (QueryResultsIterator<KeyValue> results = stub.getPrivateDataByPartialCompositeKey(ASSET_COLLECTION_NAME, new CompositeKey(CREATED_INDEX))) {
+            for (KeyValue result : results) {
+                List<String> attributes = stub.splitCompositeKey(result.getKey()).getAttributes();
+                if (count == maxEntries || attributes.get(0).compareTo(bucket) >= 0) {
+                    break;
+                }
+                if (!orgCollectionName.equals(result.getStringValue())) {
+                    continue;
+                }
+                if (count > 0) {
+                    json.append(',');
+                }
+                json.append("{\"assetID\":");
+                AssetCodec.quote(json, attributes.get(1)).append(",\"bucket\":");
+                AssetCodec.quote(json, attributes.get(0)).append('}');
+                count++;
+            }
+        }
+        return json.append(']').toString();
+    }
+
+    /**
+     * PurgeOlderThan deletes assets created before the given hour bucket, together with their transfer
+     * agreement, the caller org's private details and their created index entry. As in DeleteAsset, an
+     * asset is only deleted by the org whose collection holds its private details; entries for assets
+     * held by other orgs are skipped and left in the index. Assets that were already deleted only have
+     * their agreement and index entry removed.
+     *
+     * Fabric does not allow a transaction to both query and write private data, so the entries to
+     * purge are passed in the transient map as returned by QueryAssetsCreatedBefore. Each entry is
+     * verified against the index by key before it is deleted, and at most limit entries are purged, so
+     * every purge transaction stays bounded.
+     *
+     * @param ctx    the transaction context
+     *               Transient map with asset_purge key with the JSON array from QueryAssetsCreatedBefore
+     * @param bucket hour bucket in yyyyMMddHH format (UTC); only entries created before it are purged
+     * @param limit  the maximum number of entries to purge, DEFAULT_PAGE_SIZE if not positive
+     * @return the number of index entries purged
+     */
+    @Transaction(intent = Transaction.TYPE.SUBMIT)
+    public int PurgeOlderThan(final Context ctx, final String bucket, final int limit) {
+        ChaincodeStub stub = ctx.getStub();
+        Map<String, byte[]> transientMap = stub.getTransient();
+        if (!transientMap.containsKey("asset_purge")) {
+            String errorMessage = "PurgeOlderThan call must specify asset_purge in Transient map input";
+            System.err.println(errorMessage);
+            throw new ChaincodeException(errorMessage, AssetTransferErrors.INCOMPLETE_INPUT.toString());
+        }
+        verifyBucket(bucket);
+        final int maxEntries = resolvePageSize(limit);
+        verifyClientOrgMatchesPeerOrg(ctx);
+        String orgCollectionName = getCollectionName(ctx);
+
+        int purged = 0;
+        try {
+            JsonReader reader = new JsonReader(transientMap.get("asset_purge"));
+            reader.beginArray();
+            while (purged < maxEntries && reader.hasNext()) {
+                String[] entry = readIndexEntry(reader);
+                String assetID = entry[0];
+                String entryBucket = entry[1];
+                String indexKey = new CompositeKey(CREATED_INDEX, entryBucket, assetID).toString();
+                if (entryBucket.compareTo(bucket) >= 0 || !privateDataExists(stub, ASSET_COLLECTION_NAME, indexKey)) {
+                    continue;
+                }
+                // As in DeleteAsset, only the org holding the private details may delete the asset
+                boolean assetExists = privateDataExists(stub, ASSET_COLLECTION_NAME, assetID);
+                if (assetExists && !privateDataExists(stub, orgCollectionName, assetID)) {
+                    System.out.printf("PurgeOlderThan: skip asset %s, not in collection %s\n", assetID, orgCollectionName);
+                    continue;
+                }
+                if (assetExists) {
+                    stub.delPrivateData(ASSET_COLLECTION_NAME, assetID);
+                    stub.delPrivateData(orgCollectionName, assetID);
+                }
+                stub.delPrivateData(ASSET_COLLECTION_NAME, stub.createCompositeKey(AGREEMENT_KEYPREFIX, assetID).toString());
+                stub.delPrivateData(ASSET_COLLECTION_NAME, indexKey);
+                stub.delPrivateData(ASSET_COLLECTION_NAME, new CompositeKey(CREATED_BUCKET_KEYPREFIX, assetID).toString());
+                purged++;
+            }
+        } catch (IllegalArgumentException err) {
+            String errorMessage = String.format("TransientMap deserialized error: %s ", err);
+            System.err.println(errorMessage);
+            throw new ChaincodeException(errorMessage, AssetTransferErrors.INCOMPLETE_INPUT.toString());
+        }
+        System.out.printf("PurgeOlderThan: bucket %s, purged %d\n", bucket, purged);
+        return purged;
     }
 
     // Used by TransferAsset to verify that the transfer is being initiated by the owner and that
-    // the buyer has agreed to the same appraisal value as the owner
-    private void verifyAgreement(final Context ctx, final String assetID, final String owner, final String buyerMSP) {
+    // the buyer has agreed to the same appraisal value as the owner. The appraised values are only
+    // compared by hash, so neither private payload is read or parsed
+    private void verifyAgreement(final Context ctx, final String assetID, final String owner,
+                                 final String collectionOwner, final String buyerMSP) {
         String clienID = ctx.getClientIdentity().getId();
 
         // Check 1: verify that the transfer is being initiatied by the owner
@@ -550,7 +835,6 @@ public final class AssetTransfer implements ContractInterface {
         }
 
         // Check 2: verify that the buyer has agreed to the appraised value
-        String collectionOwner = getCollectionName(ctx); // get owner collection from caller identity
         String collectionBuyer = buyerMSP + "PrivateCollection";
 
         // Get hash of owners agreed to value
@@ -571,6 +855,121 @@ public final class AssetTransfer implements ContractInterface {
         }
     }
 
+    // Reads the named string fields of a transient map JSON object, in the order given. Other fields
+    // are skipped, and a missing field is an error
+    private static String[] readStringFields(final byte[] transientJSON, final String... names) {
+        String[] values = new String[names.length];
+        JsonReader reader = new JsonReader(transientJSON);
+        reader.beginObject();
+        while (reader.hasNext()) {
+            int index = Arrays.asList(names).indexOf(reader.nextName());
+            if (index < 0) {
+                reader.skipValue();
+            } else {
+                values[index] = reader.nextString();
+            }
+        }
+        reader.endObject();
+        for (int i = 0; i < names.length; i++) {
+            if (values[i] == null) {
+                throw new IllegalArgumentException("Missing field " + names[i]);
+            }
+        }
+        return values;
+    }
+
+    // Records the creation hour of an asset in the created~yyyyMMddHH~assetID index. The value is the
+    // collection that holds the asset's private details. The bucket is also kept under
+    // createdBucket~assetID, so that TransferAsset and DeleteAsset can find the index entry by key:
+    // Fabric does not allow a transaction that writes private data to query it
+    private static void putCreatedIndex(final ChaincodeStub stub, final String assetID, final String orgCollectionName) {
+        String bucket = CREATED_BUCKET_FORMAT.format(stub.getTxTimestamp());
+        CompositeKey indexKey = new CompositeKey(CREATED_INDEX, bucket, assetID);
+        stub.putPrivateData(ASSET_COLLECTION_NAME, indexKey.toString(), orgCollectionName);
+        stub.putPrivateData(ASSET_COLLECTION_NAME, new CompositeKey(CREATED_BUCKET_KEYPREFIX, assetID).toString(), bucket);
+    }
+
+    // Points the created index entry of an asset at its new owner's collection, or removes the entry
+    // when orgCollectionName is null. Assets created before the createdBucket key existed are left
+    // as they are
+    private static void updateCreatedIndex(final ChaincodeStub stub, final String assetID, final String orgCollectionName) {
+        String bucketKey = new CompositeKey(CREATED_BUCKET_KEYPREFIX, assetID).toString();
+        byte[] bucketBytes = stub.getPrivateData(ASSET_COLLECTION_NAME, bucketKey);
+        if (bucketBytes == null || bucketBytes.length == 0) {
+            return;
+        }
+        String bucket = new String(bucketBytes, UTF_8);
+        String indexKey = new CompositeKey(CREATED_INDEX, bucket, assetID).toString();
+        if (orgCollectionName == null) {
+            stub.delPrivateData(ASSET_COLLECTION_NAME, indexKey);
+            stub.delPrivateData(ASSET_COLLECTION_NAME, bucketKey);
+        } else {
+            stub.putPrivateData(ASSET_COLLECTION_NAME, indexKey, orgCollectionName);
+        }
+    }
+
+    // Reads one {"assetID":...,"bucket":...} entry of the asset_purge transient input
+    private static String[] readIndexEntry(final JsonReader reader) {
+        String assetID = null;
+        String bucket = null;
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "assetID":
+                    assetID = reader.nextString();
+                    break;
+                case "bucket":
+                    bucket = reader.nextString();
+                    break;
+                default:
+                    reader.skipValue();
+                    break;
+            }
+        }
+        reader.endObject();
+        if (assetID == null || bucket == null) {
+            throw new IllegalArgumentException("Index entry must specify assetID and bucket");
+        }
+        return new String[]{assetID, bucket};
+    }
+
+    private static void verifyBucket(final String bucket) {
+        if (bucket == null || !bucket.matches("\\d{10}")) {
+            String errorMessage = String.format("Invalid bucket %s, expected yyyyMMddHH", bucket);
+            System.err.println(errorMessage);
+            throw new ChaincodeException(errorMessage, AssetTransferErrors.INCOMPLETE_INPUT.toString());
+        }
+    }
+
+    // Checks that a key exists in a collection using its hash, without reading the private payload
+    private static boolean privateDataExists(final ChaincodeStub stub, final String collection, final String key) {
+        byte[] hash = stub.getPrivateDataHash(collection, key);
+        return hash != null && hash.length > 0;
+    }
+
+    // Used by CreateAsset and CreateAssetsBatch to validate asset properties from the transient map.
+    // Returns the error message for the last invalid field, or null if all fields are valid
+    private static String validateAssetProperties(final String assetID, final String type, final String color,
+                                                  final int size, final int appraisedValue) {
+        String errorMessage = null;
+        if (assetID.equals("")) {
+            errorMessage = String.format("Empty input in Transient map: assetID");
+        }
+        if (type.equals("")) {
+            errorMessage = String.format("Empty input in Transient map: objectType");
+        }
+        if (color.equals("")) {
+            errorMessage = String.format("Empty input in Transient map: color");
+        }
+        if (size <= 0) {
+            errorMessage = String.format("Empty input in Transient map: size");
+        }
+        if (appraisedValue <= 0) {
+            errorMessage = String.format("Empty input in Transient map: appraisedValue");
+        }
+        return errorMessage;
+    }
+
     private void verifyClientOrgMatchesPeerOrg(final Context ctx) {
         String clientMSPID = ctx.getClientIdentity().getMSPID();
         String peerMSPID = ctx.getStub().getMspId();
@@ -590,4 +989,42 @@ public final class AssetTransfer implements ContractInterface {
         return clientMSPID + "PrivateCollection";
     }
 
+    // Asset properties passed in the transient map by CreateAsset and CreateAssetsBatch. Missing
+    // fields are left empty or zero so that validateAssetProperties reports them
+    private static final class AssetProperties {
+        private String assetID = "";
+        private String type = "";
+        private String color = "";
+        private int size = 0;
+        private int appraisedValue = 0;
+
+        static AssetProperties read(final JsonReader reader) {
+            AssetProperties properties = new AssetProperties();
+            reader.beginObject();
+            while (reader.hasNext()) {
+                switch (reader.nextName()) {
+                    case "assetID":
+                        properties.assetID = reader.nextString();
+                        break;
+                    case "objectType":
+                        properties.type = reader.nextString();
+                        break;
+                    case "color":
+                        properties.color = reader.nextString();
+                        break;
+                    case "size":
+                        properties.size = reader.nextInt();
+                        break;
+                    case "appraisedValue":
+                        properties.appraisedValue = reader.nextInt();
+                        break;
+                    default:
+                        reader.skipValue();
+                        break;
+                }
+            }
+            reader.endObject();
+            return properties;
+        }
+    }
 }
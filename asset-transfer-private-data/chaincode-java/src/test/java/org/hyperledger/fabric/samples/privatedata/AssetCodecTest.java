@@ -0,0 +1,97 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.hyperledger.fabric.samples.privatedata;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.ThrowableAssert.catchThrowable;
+
+import org.hyperledger.fabric.shim.ChaincodeException;
+import org.json.JSONObject;
+import org.junit.jupiter.api.Test;
+
+public final class AssetCodecTest {
+
+    @Test
+    public void assetRoundTripsWithEscapedCharacters() {
+        Asset asset = new Asset("test\"asset", "asset1", "blue\\green\n", 5, "owner\u00e9");
+
+        Asset decoded = Asset.deserialize(asset.serialize());
+
+        assertThat(decoded).isEqualTo(asset);
+        assertThat(decoded.getObjectType()).isEqualTo("test\"asset");
+    }
+
+    @Test
+    public void assetMatchesReflectiveJSONObjectBytes() {
+        Asset asset = new Asset("testasset", "asset1", "blue", 5, "testOrg1User");
+
+        assertThat(new String(asset.serialize(), UTF_8)).isEqualTo(new JSONObject(asset).toString());
+    }
+
+    @Test
+    public void escapedCharactersMatchReflectiveJSONObjectBytes() {
+        Asset asset = new Asset("a\"b\\c</d", "asset1", "\b\t\n\f\r\u0001", 5, "\u0085\u00e9\u2028");
+
+        assertThat(new String(asset.serialize(), UTF_8)).isEqualTo(new JSONObject(asset).toString());
+    }
+
+    @Test
+    public void assetPrivateDetailsMatchesReflectiveJSONObjectBytes() {
+        AssetPrivateDetails assetPriv = new AssetPrivateDetails("asset1", 300);
+
+        assertThat(new String(assetPriv.serialize(), UTF_8)).isEqualTo(new JSONObject(assetPriv).toString());
+        assertThat(AssetPrivateDetails.deserialize(assetPriv.serialize()).getAppraisedValue()).isEqualTo(300);
+    }
+
+    @Test
+    public void transferAgreementMatchesReflectiveJSONObjectBytes() {
+        TransferAgreement agreement = new TransferAgreement("asset1", "x509::CN=buyer");
+
+        assertThat(new String(agreement.serialize(), UTF_8)).isEqualTo(new JSONObject(agreement).toString());
+    }
+
+    @Test
+    public void unknownFieldsAreSkipped() {
+        Asset asset = Asset.deserialize("{ \"extra\": { \"list\": [1, 2.5, null, true] }, \"objectType\": \"testasset\", "
+                + "\"assetID\": \"asset1\", \"color\": \"blue\", \"size\": 5, \"owner\": \"testOrg1User\" }");
+
+        assertThat(asset).isEqualTo(new Asset("testasset", "asset1", "blue", 5, "testOrg1User"));
+    }
+
+    @Test
+    public void nullStringIsReadAsMissing() {
+        Asset asset = Asset.deserialize("{ \"extra\": null, \"objectType\": \"testasset\", \"assetID\": \"asset1\", "
+                + "\"color\": \"blue\", \"size\": 5, \"owner\": \"testOrg1User\" }");
+
+        assertThat(asset).isEqualTo(new Asset("testasset", "asset1", "blue", 5, "testOrg1User"));
+
+        Throwable thrown = catchThrowable(() -> {
+            Asset.deserialize("{ \"objectType\": null, \"assetID\": \"asset1\" }");
+        });
+
+        assertThat(thrown).isInstanceOf(ChaincodeException.class)
+                .hasMessage("Deserialize error: Missing field objectType");
+    }
+
+    @Test
+    public void missingFieldIsADeserializeError() {
+        Throwable thrown = catchThrowable(() -> {
+            Asset.deserialize("{ \"assetID\": \"asset1\" }");
+        });
+
+        assertThat(thrown).isInstanceOf(ChaincodeException.class)
+                .hasMessage("Deserialize error: Missing field objectType");
+    }
+
+    @Test
+    public void malformedInputIsADeserializeError() {
+        Throwable thrown = catchThrowable(() -> {
+            AssetPrivateDetails.deserialize("{ \"assetID\": \"asset1\" \"appraisedValue\": 1 }".getBytes(UTF_8));
+        });
+
+        assertThat(thrown).isInstanceOf(ChaincodeException.class);
+    }
+}
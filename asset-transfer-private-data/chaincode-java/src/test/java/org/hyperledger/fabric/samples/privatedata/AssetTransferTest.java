@@ -9,21 +9,32 @@ import static org.assertj.core.api.ThrowableAssert.catchThrowable;
 import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.hyperledger.fabric.samples.privatedata.AssetTransfer.AGREEMENT_KEYPREFIX;
 import static org.hyperledger.fabric.samples.privatedata.AssetTransfer.ASSET_COLLECTION_NAME;
+import static org.hyperledger.fabric.samples.privatedata.AssetTransfer.CREATED_BUCKET_KEYPREFIX;
+import static org.hyperledger.fabric.samples.privatedata.AssetTransfer.CREATED_INDEX;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyZeroInteractions;
 import static org.mockito.Mockito.when;
 
 import java.io.IOException;
 import java.security.cert.CertificateException;
+import java.time.Instant;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import org.hyperledger.fabric.contract.ClientIdentity;
 import org.hyperledger.fabric.contract.Context;
 import org.hyperledger.fabric.shim.ChaincodeException;
 import org.hyperledger.fabric.shim.ChaincodeStub;
 import org.hyperledger.fabric.shim.ledger.CompositeKey;
+import org.hyperledger.fabric.shim.ledger.KeyValue;
+import org.hyperledger.fabric.shim.ledger.QueryResultsIterator;
+import org.json.JSONObject;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 
@@ -71,11 +82,61 @@ public final class AssetTransferTest {
 
             when(stub.getPrivateData(ASSET_COLLECTION_NAME, testAsset1ID))
                     .thenReturn(new byte[0]);
+            when(stub.getTxTimestamp()).thenReturn(testTxTimestamp);
 
             Asset created = contract.CreateAsset(ctx);
             assertThat(created).isEqualTo(testAsset1);
 
             verify(stub).putPrivateData(ASSET_COLLECTION_NAME, testAsset1ID, created.serialize());
+            verify(stub).putPrivateData(ASSET_COLLECTION_NAME,
+                    new CompositeKey(CREATED_INDEX, "2021070913", testAsset1ID).toString(), testOrgOneMSP + "PrivateCollection");
+            verify(stub).putPrivateData(ASSET_COLLECTION_NAME,
+                    new CompositeKey(CREATED_BUCKET_KEYPREFIX, testAsset1ID).toString(), "2021070913");
+        }
+
+        @Test
+        public void createAssetsBatchWhenNewAssetsAreCreated() throws CertificateException, IOException {
+            AssetTransfer contract = new AssetTransfer();
+            Context ctx = mock(Context.class);
+            ChaincodeStub stub = mock(ChaincodeStub.class);
+            when(ctx.getStub()).thenReturn(stub);
+            when(stub.getMspId()).thenReturn(testOrgOneMSP);
+            ClientIdentity ci = mock(ClientIdentity.class);
+            when(ci.getId()).thenReturn(testOrg1Client);
+            when(ci.getMSPID()).thenReturn(testOrgOneMSP);
+            when(ctx.getClientIdentity()).thenReturn(ci);
+
+            Map<String, byte[]> m = new HashMap<String, byte[]>();
+            m.put("asset_properties_batch", ("[ " + new String(dataAsset1Bytes, UTF_8) + ", "
+                    + "{ \"objectType\": \"testasset\", \"assetID\": \"asset2\", \"color\": \"red\", \"size\": 7, \"appraisedValue\": 400 } ]").getBytes(UTF_8));
+            when(stub.getTransient()).thenReturn(m);
+            when(stub.getTxTimestamp()).thenReturn(testTxTimestamp);
+
+            Asset[] created = contract.CreateAssetsBatch(ctx);
+
+            assertThat(created).containsExactly(testAsset1, new Asset("testasset", "asset2", "red", 7, testOrg1Client));
+            String collectionOwner = testOrgOneMSP + "PrivateCollection";
+            verify(stub).putPrivateData(ASSET_COLLECTION_NAME, testAsset1ID, testAsset1.serialize());
+            verify(stub).putPrivateData(collectionOwner, "asset2", new AssetPrivateDetails("asset2", 400).serialize());
+        }
+
+        @Test
+        public void createAssetsBatchWhenAssetIsDuplicated() {
+            AssetTransfer contract = new AssetTransfer();
+            Context ctx = mock(Context.class);
+            ChaincodeStub stub = mock(ChaincodeStub.class);
+            when(ctx.getStub()).thenReturn(stub);
+            Map<String, byte[]> m = new HashMap<String, byte[]>();
+            String assetJSON = new String(dataAsset1Bytes, UTF_8);
+            m.put("asset_properties_batch", ("[" + assetJSON + "," + assetJSON + "]").getBytes(UTF_8));
+            when(stub.getTransient()).thenReturn(m);
+
+            Throwable thrown = catchThrowable(() -> {
+                contract.CreateAssetsBatch(ctx);
+            });
+
+            assertThat(thrown).isInstanceOf(ChaincodeException.class).hasNoCause()
+                    .hasMessage("Duplicate assetID in Transient map: asset1");
         }
 
         @Test
@@ -111,6 +172,221 @@ public final class AssetTransferTest {
             verify(stub).delPrivateData(collectionOwner, testAsset1ID);
             verify(stub).delPrivateData(ASSET_COLLECTION_NAME, AGREEMENT_KEYPREFIX + testAsset1ID);
         }
+
+        @Test
+        public void transferAssetMovesCreatedIndexEntryToBuyerCollection() throws CertificateException, IOException {
+            AssetTransfer contract = new AssetTransfer();
+            Context ctx = mock(Context.class);
+            ChaincodeStub stub = mock(ChaincodeStub.class);
+            when(ctx.getStub()).thenReturn(stub);
+            when(stub.getMspId()).thenReturn(testOrgOneMSP);
+            ClientIdentity ci = mock(ClientIdentity.class);
+            when(ci.getId()).thenReturn(testOrg1Client);
+            when(ctx.getClientIdentity()).thenReturn(ci);
+            when(ci.getMSPID()).thenReturn(testOrgOneMSP);
+            Map<String, byte[]> m = new HashMap<String, byte[]>();
+            m.put("asset_owner", ("{ \"buyerMSP\": \"TestOrg2\", \"assetID\": \"" + testAsset1ID + "\" }").getBytes(UTF_8));
+            when(stub.getTransient()).thenReturn(m);
+
+            when(stub.getPrivateDataHash(anyString(), anyString())).thenReturn("TestHashValue".getBytes());
+            when(stub.getPrivateData(ASSET_COLLECTION_NAME, testAsset1ID)).thenReturn(dataAsset1Bytes);
+            CompositeKey ck = mock(CompositeKey.class);
+            when(ck.toString()).thenReturn(AGREEMENT_KEYPREFIX + testAsset1ID);
+            when(stub.createCompositeKey(AGREEMENT_KEYPREFIX, testAsset1ID)).thenReturn(ck);
+            when(stub.getPrivateData(ASSET_COLLECTION_NAME, AGREEMENT_KEYPREFIX + testAsset1ID)).thenReturn("TestOrg2User".getBytes(UTF_8));
+            when(stub.getPrivateData(ASSET_COLLECTION_NAME, new CompositeKey(CREATED_BUCKET_KEYPREFIX, testAsset1ID).toString()))
+                    .thenReturn("2021070913".getBytes(UTF_8));
+
+            contract.TransferAsset(ctx);
+
+            verify(stub).putPrivateData(ASSET_COLLECTION_NAME,
+                    new CompositeKey(CREATED_INDEX, "2021070913", testAsset1ID).toString(), "TestOrg2PrivateCollection");
+        }
+    }
+
+    @Nested
+    class InvokeDeleteTransaction {
+
+        @Test
+        public void deleteAssetChecksExistenceByHashOnly() throws CertificateException, IOException {
+            AssetTransfer contract = new AssetTransfer();
+            Context ctx = mock(Context.class);
+            ChaincodeStub stub = mock(ChaincodeStub.class);
+            when(ctx.getStub()).thenReturn(stub);
+            when(stub.getMspId()).thenReturn(testOrgOneMSP);
+            ClientIdentity ci = mock(ClientIdentity.class);
+            when(ci.getMSPID()).thenReturn(testOrgOneMSP);
+            when(ctx.getClientIdentity()).thenReturn(ci);
+            Map<String, byte[]> m = new HashMap<String, byte[]>();
+            m.put("asset_delete", ("{ \"assetID\": \"" + testAsset1ID + "\" }").getBytes(UTF_8));
+            when(stub.getTransient()).thenReturn(m);
+            when(stub.getPrivateDataHash(anyString(), anyString())).thenReturn("TestHashValue".getBytes());
+
+            contract.DeleteAsset(ctx);
+
+            String collectionOwner = testOrgOneMSP + "PrivateCollection";
+            verify(stub, never()).getPrivateData(anyString(), eq(testAsset1ID));
+            verify(stub).delPrivateData(ASSET_COLLECTION_NAME, testAsset1ID);
+            verify(stub).delPrivateData(collectionOwner, testAsset1ID);
+        }
+
+        @Test
+        public void deleteAssetRemovesCreatedIndexEntry() throws CertificateException, IOException {
+            AssetTransfer contract = new AssetTransfer();
+            Context ctx = mock(Context.class);
+            ChaincodeStub stub = mock(ChaincodeStub.class);
+            when(ctx.getStub()).thenReturn(stub);
+            when(stub.getMspId()).thenReturn(testOrgOneMSP);
+            ClientIdentity ci = mock(ClientIdentity.class);
+            when(ci.getMSPID()).thenReturn(testOrgOneMSP);
+            when(ctx.getClientIdentity()).thenReturn(ci);
+            Map<String, byte[]> m = new HashMap<String, byte[]>();
+            m.put("asset_delete", ("{ \"assetID\": \"" + testAsset1ID + "\" }").getBytes(UTF_8));
+            when(stub.getTransient()).thenReturn(m);
+            when(stub.getPrivateDataHash(anyString(), anyString())).thenReturn("TestHashValue".getBytes());
+            String bucketKey = new CompositeKey(CREATED_BUCKET_KEYPREFIX, testAsset1ID).toString();
+            when(stub.getPrivateData(ASSET_COLLECTION_NAME, bucketKey)).thenReturn("2021070913".getBytes(UTF_8));
+
+            contract.DeleteAsset(ctx);
+
+            verify(stub).delPrivateData(ASSET_COLLECTION_NAME, new CompositeKey(CREATED_INDEX, "2021070913", testAsset1ID).toString());
+            verify(stub).delPrivateData(ASSET_COLLECTION_NAME, bucketKey);
+        }
+
+        @Test
+        public void deleteAssetWhenAssetDoesNotExist() {
+            AssetTransfer contract = new AssetTransfer();
+            Context ctx = mock(Context.class);
+            ChaincodeStub stub = mock(ChaincodeStub.class);
+            when(ctx.getStub()).thenReturn(stub);
+            Map<String, byte[]> m = new HashMap<String, byte[]>();
+            m.put("asset_delete", ("{ \"assetID\": \"" + testAsset1ID + "\" }").getBytes(UTF_8));
+            when(stub.getTransient()).thenReturn(m);
+            when(stub.getPrivateDataHash(ASSET_COLLECTION_NAME, testAsset1ID)).thenReturn(new byte[0]);
+
+            Throwable thrown = catchThrowable(() -> {
+                contract.DeleteAsset(ctx);
+            });
+
+            assertThat(thrown).isInstanceOf(ChaincodeException.class).hasNoCause()
+                    .hasMessage("Asset asset1 does not exist");
+        }
+    }
+
+    @Nested
+    class InvokePurgeTransaction {
+
+        @Test
+        public void purgeOlderThanDeletesIndexedAssetsBeforeBucket() throws CertificateException, IOException {
+            AssetTransfer contract = new AssetTransfer();
+            Context ctx = mock(Context.class);
+            ChaincodeStub stub = mock(ChaincodeStub.class);
+            when(ctx.getStub()).thenReturn(stub);
+            when(stub.getMspId()).thenReturn(testOrgOneMSP);
+            ClientIdentity ci = mock(ClientIdentity.class);
+            when(ci.getMSPID()).thenReturn(testOrgOneMSP);
+            when(ctx.getClientIdentity()).thenReturn(ci);
+            Map<String, byte[]> m = new HashMap<String, byte[]>();
+            m.put("asset_purge", ("[{\"assetID\":\"asset1\",\"bucket\":\"2021070913\"},"
+                    + "{\"assetID\":\"asset2\",\"bucket\":\"2021070914\"}]").getBytes(UTF_8));
+            when(stub.getTransient()).thenReturn(m);
+            when(stub.getPrivateDataHash(anyString(), anyString())).thenReturn("TestHashValue".getBytes());
+            CompositeKey ck = mock(CompositeKey.class);
+            when(ck.toString()).thenReturn(AGREEMENT_KEYPREFIX + testAsset1ID);
+            when(stub.createCompositeKey(AGREEMENT_KEYPREFIX, testAsset1ID)).thenReturn(ck);
+
+            int purged = contract.PurgeOlderThan(ctx, "2021070914", 10);
+
+            assertThat(purged).isEqualTo(1);
+            String collectionOwner = testOrgOneMSP + "PrivateCollection";
+            verify(stub).delPrivateData(ASSET_COLLECTION_NAME, testAsset1ID);
+            verify(stub).delPrivateData(ASSET_COLLECTION_NAME, AGREEMENT_KEYPREFIX + testAsset1ID);
+            verify(stub).delPrivateData(collectionOwner, testAsset1ID);
+            verify(stub).delPrivateData(ASSET_COLLECTION_NAME, new CompositeKey(CREATED_INDEX, "2021070913", testAsset1ID).toString());
+            verify(stub).delPrivateData(ASSET_COLLECTION_NAME, new CompositeKey(CREATED_BUCKET_KEYPREFIX, testAsset1ID).toString());
+            verify(stub, never()).delPrivateData(ASSET_COLLECTION_NAME, "asset2");
+        }
+
+        @Test
+        public void queryAssetsCreatedBeforeListsOnlyCallersCollection() throws Exception {
+            AssetTransfer contract = new AssetTransfer();
+            Context ctx = mock(Context.class);
+            ChaincodeStub stub = mock(ChaincodeStub.class);
+            when(ctx.getStub()).thenReturn(stub);
+            ClientIdentity ci = mock(ClientIdentity.class);
+            when(ci.getMSPID()).thenReturn(testOrgOneMSP);
+            when(ctx.getClientIdentity()).thenReturn(ci);
+            String ownCollection = testOrgOneMSP + "PrivateCollection";
+            QueryResultsIterator<KeyValue> results = mockIndexEntries(
+                    new String[]{"2021070911", "asset0", "TestOrg2PrivateCollection"},
+                    new String[]{"2021070912", "asset1", ownCollection},
+                    new String[]{"2021070912", "asset2", "TestOrg2PrivateCollection"},
+                    new String[]{"2021070913", "asset3", ownCollection},
+                    new String[]{"2021070913", "asset4", ownCollection},
+                    new String[]{"2021070914", "asset5", ownCollection});
+            when(stub.getPrivateDataByPartialCompositeKey(eq(ASSET_COLLECTION_NAME), any(CompositeKey.class))).thenReturn(results);
+            when(stub.splitCompositeKey(anyString())).thenAnswer(invocation -> CompositeKey.parseCompositeKey(invocation.getArgument(0)));
+
+            String json = contract.QueryAssetsCreatedBefore(ctx, "2021070914", 2);
+
+            assertThat(json).isEqualTo("[{\"assetID\":\"asset1\",\"bucket\":\"2021070912\"},"
+                    + "{\"assetID\":\"asset3\",\"bucket\":\"2021070913\"}]");
+        }
+
+        @SuppressWarnings("unchecked")
+        private QueryResultsIterator<KeyValue> mockIndexEntries(final String[]... entries) {
+            List<KeyValue> values = new ArrayList<>();
+            for (String[] entry : entries) {
+                KeyValue kv = mock(KeyValue.class);
+                when(kv.getKey()).thenReturn(new CompositeKey(CREATED_INDEX, entry[0], entry[1]).toString());
+                when(kv.getStringValue()).thenReturn(entry[2]);
+                values.add(kv);
+            }
+            QueryResultsIterator<KeyValue> results = mock(QueryResultsIterator.class);
+            when(results.iterator()).thenReturn(values.iterator());
+            return results;
+        }
+
+        @Test
+        public void purgeOlderThanSkipsAssetsHeldByAnotherOrg() throws CertificateException, IOException {
+            AssetTransfer contract = new AssetTransfer();
+            Context ctx = mock(Context.class);
+            ChaincodeStub stub = mock(ChaincodeStub.class);
+            when(ctx.getStub()).thenReturn(stub);
+            when(stub.getMspId()).thenReturn(testOrgOneMSP);
+            ClientIdentity ci = mock(ClientIdentity.class);
+            when(ci.getMSPID()).thenReturn(testOrgOneMSP);
+            when(ctx.getClientIdentity()).thenReturn(ci);
+            Map<String, byte[]> m = new HashMap<String, byte[]>();
+            m.put("asset_purge", "[{\"assetID\":\"asset1\",\"bucket\":\"2021070913\"}]".getBytes(UTF_8));
+            when(stub.getTransient()).thenReturn(m);
+            String indexKey = new CompositeKey(CREATED_INDEX, "2021070913", testAsset1ID).toString();
+            when(stub.getPrivateDataHash(ASSET_COLLECTION_NAME, indexKey)).thenReturn("TestHashValue".getBytes());
+            when(stub.getPrivateDataHash(ASSET_COLLECTION_NAME, testAsset1ID)).thenReturn("TestHashValue".getBytes());
+
+            int purged = contract.PurgeOlderThan(ctx, "2021070914", 10);
+
+            assertThat(purged).isEqualTo(0);
+            verify(stub, never()).delPrivateData(anyString(), anyString());
+        }
+
+        @Test
+        public void purgeOlderThanRejectsInvalidBucket() {
+            AssetTransfer contract = new AssetTransfer();
+            Context ctx = mock(Context.class);
+            ChaincodeStub stub = mock(ChaincodeStub.class);
+            when(ctx.getStub()).thenReturn(stub);
+            Map<String, byte[]> m = new HashMap<String, byte[]>();
+            m.put("asset_purge", "[]".getBytes(UTF_8));
+            when(stub.getTransient()).thenReturn(m);
+
+            Throwable thrown = catchThrowable(() -> {
+                contract.PurgeOlderThan(ctx, "2021-07-09", 10);
+            });
+
+            assertThat(thrown).isInstanceOf(ChaincodeException.class).hasNoCause()
+                    .hasMessage("Invalid bucket 2021-07-09, expected yyyyMMddHH");
+        }
     }
 
     @Nested
@@ -160,10 +436,83 @@ public final class AssetTransferTest {
 
     }
 
+    @Nested
+    class QueryPaginatedTransaction {
+
+        @Test
+        public void rangeQueryReturnsPageAndNextKeyAsBookmark() throws Exception {
+            AssetTransfer contract = new AssetTransfer();
+            Context ctx = mock(Context.class);
+            ChaincodeStub stub = mock(ChaincodeStub.class);
+            when(ctx.getStub()).thenReturn(stub);
+            QueryResultsIterator<KeyValue> results = mockResults("asset1", "asset2", "asset3");
+            when(stub.getPrivateDataByRange(ASSET_COLLECTION_NAME, "asset1", "asset9")).thenReturn(results);
+
+            String page = contract.GetAssetByRangeWithPagination(ctx, "asset1", "asset9", 2, "");
+
+            JSONObject json = new JSONObject(page);
+            assertThat(json.getJSONArray("records").length()).isEqualTo(2);
+            assertThat(json.getJSONArray("records").getJSONObject(1).getString("assetID")).isEqualTo("asset2");
+            assertThat(json.getInt("fetchedRecordsCount")).isEqualTo(2);
+            assertThat(json.getString("bookmark")).isEqualTo("asset3");
+        }
+
+        @Test
+        public void richQuerySkipsToBookmarkOffset() throws Exception {
+            AssetTransfer contract = new AssetTransfer();
+            Context ctx = mock(Context.class);
+            ChaincodeStub stub = mock(ChaincodeStub.class);
+            when(ctx.getStub()).thenReturn(stub);
+            QueryResultsIterator<KeyValue> results = mockResults("asset1", "asset2", "asset3");
+            when(stub.getPrivateDataQueryResult(ASSET_COLLECTION_NAME, "{}")).thenReturn(results);
+
+            String page = contract.QueryAssetsWithPagination(ctx, "{}", 2, "2");
+
+            JSONObject json = new JSONObject(page);
+            assertThat(json.getJSONArray("records").length()).isEqualTo(1);
+            assertThat(json.getJSONArray("records").getJSONObject(0).getString("assetID")).isEqualTo("asset3");
+            assertThat(json.getString("bookmark")).isEmpty();
+        }
+
+        @Test
+        public void richQueryRejectsNegativeOrNonNumericBookmark() {
+            AssetTransfer contract = new AssetTransfer();
+            Context ctx = mock(Context.class);
+            ChaincodeStub stub = mock(ChaincodeStub.class);
+            when(ctx.getStub()).thenReturn(stub);
+
+            for (String bookmark : new String[]{"-2", "asset2"}) {
+                Throwable thrown = catchThrowable(() -> {
+                    contract.QueryAssetsWithPagination(ctx, "{}", 2, bookmark);
+                });
+
+                assertThat(thrown).isInstanceOf(ChaincodeException.class).hasNoCause()
+                        .hasMessage("Invalid bookmark: " + bookmark);
+            }
+            verifyZeroInteractions(stub);
+        }
+
+        @SuppressWarnings("unchecked")
+        private QueryResultsIterator<KeyValue> mockResults(final String... assetIDs) {
+            List<KeyValue> values = new ArrayList<>();
+            for (String assetID : assetIDs) {
+                KeyValue kv = mock(KeyValue.class);
+                when(kv.getKey()).thenReturn(assetID);
+                when(kv.getStringValue()).thenReturn(new String(
+                        new Asset("testasset", assetID, "blue", 5, testOrg1Client).serialize(), UTF_8));
+                values.add(kv);
+            }
+            QueryResultsIterator<KeyValue> results = mock(QueryResultsIterator.class);
+            when(results.iterator()).thenReturn(values.iterator());
+            return results;
+        }
+    }
+
     private static String testOrgOneMSP = "TestOrg1";
     private static String testOrg1Client = "testOrg1User";
 
     private static String testAsset1ID = "asset1";
+    private static Instant testTxTimestamp = Instant.parse("2021-07-09T13:45:00Z");
     private static Asset testAsset1 = new Asset("testasset", "asset1", "blue", 5, testOrg1Client);
     private static byte[] dataAsset1Bytes = "{ \"objectType\": \"testasset\", \"assetID\": \"asset1\", \"color\": \"blue\", \"size\": 5, \"owner\": \"testOrg1User\", \"appraisedValue\": 300 }".getBytes();
 
@@ -0,0 +1,119 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.hyperledger.fabric.samples.sbe;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * World state access recorded by {@link InstrumentedContext}, accumulated over all transactions endorsed by the
+ * chaincode process. For each key it counts the transactions that read or wrote its value or its endorsement policy,
+ * and how many of them both read and wrote the value, which exposes the transaction to MVCC read conflicts.
+ *
+ * Keys whose endorsement policy is both read and written are reported separately: a policy update invalidates other
+ * transactions on the same key in the same block, so reading the policy of such a key is a likely source of
+ * endorsement policy failures that only show up at commit.
+ *
+ * At most {@link #MAX_KEYS} keys are tracked; access to further keys is only counted per transaction function.
+ */
+final class AccessStats {
+
+    static final int MAX_KEYS = 10000;
+
+    private final Map<String, long[]> functions = new TreeMap<>();
+    private final Map<String, KeyStats> keys = new TreeMap<>();
+    private long untrackedKeys = 0;
+
+    private static final class KeyStats {
+        private long transactions;
+        private long reads;
+        private long writes;
+        private long readWrites;
+        private long policyReads;
+        private long policyWrites;
+        private int maxPolicySize;
+    }
+
+    /**
+     * Merges the access recorded by a completed transaction.
+     *
+     * @param function the name of the transaction function
+     * @param ctx the instrumented context of the transaction
+     */
+    synchronized void record(final String function, final InstrumentedContext ctx) {
+        // transactions, keys read, keys written, range queries
+        long[] counts = functions.computeIfAbsent(function, name -> new long[4]);
+        counts[0]++;
+        counts[3] += ctx.getRangeQueries();
+
+        for (Map.Entry<String, InstrumentedContext.KeyAccess> entry : ctx.getKeys().entrySet()) {
+            InstrumentedContext.KeyAccess access = entry.getValue();
+            counts[1] += access.isRead() ? 1 : 0;
+            counts[2] += access.isWritten() ? 1 : 0;
+
+            KeyStats stats = keys.get(entry.getKey());
+            if (stats == null) {
+                if (keys.size() >= MAX_KEYS) {
+                    untrackedKeys++;
+                    continue;
+                }
+                stats = new KeyStats();
+                keys.put(entry.getKey(), stats);
+            }
+
+            stats.transactions++;
+            stats.reads += access.isRead() ? 1 : 0;
+            stats.writes += access.isWritten() ? 1 : 0;
+            stats.readWrites += access.isRead() && access.isWritten() ? 1 : 0;
+            stats.policyReads += access.isPolicyRead() ? 1 : 0;
+            stats.policyWrites += access.isPolicyWritten() ? 1 : 0;
+            stats.maxPolicySize = Math.max(stats.maxPolicySize, access.getPolicySize());
+        }
+    }
+
+    /**
+     * @return the accumulated access, as a structure of maps and lists suitable for JSON serialization
+     */
+    synchronized Map<String, Object> report() {
+        Map<String, Object> functionReport = new TreeMap<>();
+        for (Map.Entry<String, long[]> entry : functions.entrySet()) {
+            long[] counts = entry.getValue();
+            Map<String, Object> function = new TreeMap<>();
+            function.put("transactions", counts[0]);
+            function.put("keysRead", counts[1]);
+            function.put("keysWritten", counts[2]);
+            function.put("rangeQueries", counts[3]);
+            functionReport.put(entry.getKey(), function);
+        }
+
+        Map<String, Object> keyReport = new TreeMap<>();
+        List<String> policyReadWriteKeys = new ArrayList<>();
+        for (Map.Entry<String, KeyStats> entry : keys.entrySet()) {
+            KeyStats stats = entry.getValue();
+            Map<String, Object> key = new TreeMap<>();
+            key.put("transactions", stats.transactions);
+            key.put("reads", stats.reads);
+            key.put("writes", stats.writes);
+            key.put("readWrites", stats.readWrites);
+            key.put("policyReads", stats.policyReads);
+            key.put("policyWrites", stats.policyWrites);
+            key.put("maxPolicySize", stats.maxPolicySize);
+            keyReport.put(entry.getKey(), key);
+
+            if (stats.policyReads > 0 && stats.policyWrites > 0) {
+                policyReadWriteKeys.add(entry.getKey());
+            }
+        }
+
+        Map<String, Object> report = new TreeMap<>();
+        report.put("functions", functionReport);
+        report.put("keys", keyReport);
+        report.put("policyReadWriteKeys", policyReadWriteKeys);
+        report.put("untrackedKeys", untrackedKeys);
+        return report;
+    }
+}
@@ -11,19 +11,19 @@ import org.hyperledger.fabric.contract.annotation.Default;
 import org.hyperledger.fabric.contract.annotation.Info;
 import org.hyperledger.fabric.contract.annotation.License;
 import org.hyperledger.fabric.contract.annotation.Transaction;
-import org.hyperledger.fabric.protos.common.MspPrincipal;
-import org.hyperledger.fabric.protos.common.Policies;
 import org.hyperledger.fabric.shim.ChaincodeException;
 import org.hyperledger.fabric.shim.ChaincodeStub;
-import org.hyperledger.fabric.shim.ext.sbe.StateBasedEndorsement;
-import org.hyperledger.fabric.shim.ext.sbe.impl.StateBasedEndorsementFactory;
+import org.hyperledger.fabric.shim.ledger.KeyValue;
+import org.hyperledger.fabric.shim.ledger.QueryResultsIteratorWithMetadata;
 
 import com.owlike.genson.Genson;
 
 import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @Contract(
         name = "sbe",
@@ -37,11 +37,52 @@ import java.util.List;
 @Default
 public final class AssetContract implements ContractInterface {
 
+    /**
+     * Maximum number of assets in a single TransferAssetsBatch transaction.
+     */
+    static final int MAX_BATCH_SIZE = 1000;
+
+    /**
+     * Maximum number of distinct endorsement policies cached by the chaincode process.
+     */
+    static final int POLICY_CACHE_CAPACITY = 256;
+
+    /**
+     * Page size used by GetAssetsByOwnerOrg when none is specified.
+     */
+    static final int DEFAULT_PAGE_SIZE = 100;
+
+    /**
+     * Largest page size allowed by GetAssetsByOwnerOrg.
+     */
+    static final int MAX_PAGE_SIZE = 1000;
+
+    /**
+     * Design document and name of the CouchDB index on the OwnerOrg field, used by GetAssetsByOwnerOrg.
+     */
+    static final String OWNER_ORG_INDEX_DDOC = "_design/indexOwnerOrgDoc";
+    static final String OWNER_ORG_INDEX_NAME = "indexOwnerOrg";
+
+    /**
+     * Environment variable that enables the instrumented mode, in which the world state access of every transaction is
+     * recorded and reported by GetAccessReport.
+     */
+    static final String INSTRUMENTATION_ENV = "SBE_INSTRUMENTATION";
+
+    private static final boolean INSTRUMENTED = Boolean.parseBoolean(System.getenv(INSTRUMENTATION_ENV));
+    private static final AccessStats ACCESS_STATS = new AccessStats();
+
+    // Shared by all transactions, so policies for the same Orgs are only built once per chaincode process
+    private static final PolicyCache POLICY_CACHE = new PolicyCache(POLICY_CACHE_CAPACITY);
+
     private final Genson genson = new Genson();
 
     private enum AssetTransferErrors {
         ASSET_NOT_FOUND,
-        ASSET_ALREADY_EXISTS
+        ASSET_ALREADY_EXISTS,
+        INVALID_BATCH,
+        OWNER_ORG_MISMATCH,
+        INSTRUMENTATION_DISABLED
     }
 
     /**
@@ -122,6 +163,44 @@ public final class AssetContract implements ContractInterface {
         return asset;
     }
 
+    /**
+     * Updates the value of an existing asset without reading it, so that the transaction has no read set and cannot fail
+     * MVCC validation because of a concurrent update of the same asset. The last committed update wins.
+     * Needs an endorsement of current owner Org Peer.
+     *
+     * Neither the asset nor its endorsement policy is read, as reading the policy would add the key to the read set just
+     * the same. The owner Org is instead checked by state-based endorsement validation at commit: the update is only
+     * endorsed by peers of ownerOrg, so it fails validation if the key policy requires another Org, or if the key does
+     * not exist and so falls under the chaincode endorsement policy. Such an update is rejected at commit rather than at
+     * endorsement.
+     * The owner is taken from the arguments instead of the ledger, so it is only accepted from a client of the owner Org,
+     * which could set the owner through TransferAsset just the same.
+     *
+     * @param ctx the transaction context
+     * @param assetId the id of the asset being updated
+     * @param newValue the value of the asset being updated
+     * @param owner the current owner
+     * @param ownerOrg the current owner Org MSPID
+     * @return the updated asset
+     */
+    @Transaction(intent = Transaction.TYPE.SUBMIT)
+    public Asset UpdateAssetBlind(final Context ctx, final String assetId, final int newValue, final String owner,
+            final String ownerOrg) {
+        ChaincodeStub stub = ctx.getStub();
+
+        if (!ownerOrg.equals(stub.getMspId()) || !ownerOrg.equals(getClientOrgId(ctx))) {
+            String errorMessage = String.format("Asset %s owner Org %s must be updated by its own clients and peers, not %s and %s",
+                    assetId, ownerOrg, getClientOrgId(ctx), stub.getMspId());
+            System.out.println(errorMessage);
+            throw new ChaincodeException(errorMessage, AssetTransferErrors.OWNER_ORG_MISMATCH.toString());
+        }
+
+        Asset asset = new Asset(assetId, newValue, owner, ownerOrg);
+        stub.putStringState(assetId, genson.serialize(asset));
+
+        return asset;
+    }
+
     /**
      * Deletes the given asset.
      * Needs an endorsement of current owner Org Peer.
@@ -146,6 +225,7 @@ public final class AssetContract implements ContractInterface {
      * Updates the owner & ownerOrg field of asset with given assetId, ownerOrg must be a valid Org MSP Id.
      * Needs an endorsement of current owner Org Peer.
      * Re-sets the endorsement policy of the assetId Key, such that new owner Org Peer is required to endorse future updates.
+     * The endorsement policy is left untouched if the owner Org does not change.
      *
      * @param ctx the transaction context
      * @param assetId the id of the asset being transferred
@@ -159,13 +239,18 @@ public final class AssetContract implements ContractInterface {
 
         String assetString = ReadAsset(ctx, assetId);
         Asset asset = genson.deserialize(assetString, Asset.class);
+        boolean ownerOrgChanged = !newOwnerOrg.equals(asset.getOwnerOrg());
         asset.setOwner(newOwner);
         asset.setOwnerOrg(newOwnerOrg);
         String updatedAssetJSON = genson.serialize(asset);
         stub.putStringState(assetId, updatedAssetJSON);
 
-        // Re-Set the endorsement policy of the assetId Key, such that a new owner Org Peer is required to endorse future updates
-        setStateBasedEndorsement(ctx, assetId, new String[]{newOwnerOrg});
+        // Re-Set the endorsement policy of the assetId Key, such that a new owner Org Peer is required to endorse future updates.
+        // The policy already requires the owner Org if it is unchanged, and a policy update invalidates any other transaction
+        // on this key in the same block, so it is only written when the owner Org changes.
+        if (ownerOrgChanged) {
+            setStateBasedEndorsement(ctx, assetId, new String[]{newOwnerOrg});
+        }
 
         // Optionally, set the endorsement policy of the assetId Key, such that any 1 Org (N) out of the specified Orgs can endorse future updates
         // setStateBasedEndorsementNOutOf(ctx, assetId, 1, new String[]{"Org1MSP", "Org2MSP"});
@@ -173,6 +258,155 @@ public final class AssetContract implements ContractInterface {
         return asset;
     }
 
+    /**
+     * Transfers a batch of assets to a new owner and owner Org in one transaction, ownerOrg must be a valid Org MSP Id.
+     * Needs an endorsement of the current owner Org Peer of every asset in the batch.
+     * Re-sets the endorsement policy of every assetId Key whose owner Org changes, such that new owner Org Peer is required to endorse future updates.
+     * The endorsement policy is built and serialized once, and the same policy bytes are set on every key.
+     *
+     * @param ctx the transaction context
+     * @param assetIds JSON array of the ids of the assets being transferred
+     * @param newOwner the new owner
+     * @param newOwnerOrg the new owner Org MSPID
+     * @return the number of assets transferred
+     */
+    @Transaction(intent = Transaction.TYPE.SUBMIT)
+    public int TransferAssetsBatch(final Context ctx, final String assetIds, final String newOwner, final String newOwnerOrg) {
+        ChaincodeStub stub = ctx.getStub();
+
+        String[] ids = readAssetIds(assetIds);
+        byte[] policy = POLICY_CACHE.memberPolicy(new String[]{newOwnerOrg});
+
+        for (String assetId : ids) {
+            String assetString = ReadAsset(ctx, assetId);
+            Asset asset = genson.deserialize(assetString, Asset.class);
+            boolean ownerOrgChanged = !newOwnerOrg.equals(asset.getOwnerOrg());
+            asset.setOwner(newOwner);
+            asset.setOwnerOrg(newOwnerOrg);
+            stub.putStringState(assetId, genson.serialize(asset));
+            if (ownerOrgChanged) {
+                stub.setStateValidationParameter(assetId, policy);
+            }
+        }
+
+        return ids.length;
+    }
+
+    private String[] readAssetIds(final String assetIds) {
+        String[] ids;
+        try {
+            ids = genson.deserialize(assetIds, String[].class);
+        } catch (RuntimeException e) {
+            String errorMessage = String.format("Asset ids must be a JSON array of strings: %s", e.getMessage());
+            System.out.println(errorMessage);
+            throw new ChaincodeException(errorMessage, AssetTransferErrors.INVALID_BATCH.toString());
+        }
+
+        if (ids == null || ids.length == 0 || ids.length > MAX_BATCH_SIZE) {
+            String errorMessage = String.format("Batch must contain between 1 and %d asset ids", MAX_BATCH_SIZE);
+            System.out.println(errorMessage);
+            throw new ChaincodeException(errorMessage, AssetTransferErrors.INVALID_BATCH.toString());
+        }
+
+        Set<String> unique = new HashSet<>();
+        for (String assetId : ids) {
+            if (assetId == null || assetId.isEmpty() || !unique.add(assetId)) {
+                String errorMessage = String.format("Batch contains an empty or duplicate asset id: %s", assetId);
+                System.out.println(errorMessage);
+                throw new ChaincodeException(errorMessage, AssetTransferErrors.INVALID_BATCH.toString());
+            }
+        }
+
+        return ids;
+    }
+
+    @Override
+    public Context createContext(final ChaincodeStub stub) {
+        return INSTRUMENTED ? new InstrumentedContext(stub) : new Context(stub);
+    }
+
+    @Override
+    public void afterTransaction(final Context ctx, final Object result) {
+        if (ctx instanceof InstrumentedContext) {
+            ACCESS_STATS.record(ctx.getStub().getFunction(), (InstrumentedContext) ctx);
+        }
+    }
+
+    /**
+     * Retrieves the world state access recorded in instrumented mode by the chaincode process of the endorsing peer:
+     * for each transaction function, and for each key, the reads and writes of the key value and of its endorsement
+     * policy, and the largest policy set. Keys whose endorsement policy is both read and written are listed as
+     * policyReadWriteKeys.
+     *
+     * @param ctx the transaction context
+     * @return the access report, as JSON
+     */
+    @Transaction(intent = Transaction.TYPE.EVALUATE)
+    public String GetAccessReport(final Context ctx) {
+        if (!INSTRUMENTED) {
+            String errorMessage = String.format("Instrumented mode is not enabled, set %s=true", INSTRUMENTATION_ENV);
+            System.out.println(errorMessage);
+            throw new ChaincodeException(errorMessage, AssetTransferErrors.INSTRUMENTATION_DISABLED.toString());
+        }
+        return genson.serialize(ACCESS_STATS.report());
+    }
+
+    /**
+     * Retrieves a page of the assets owned by an Org, and so endorsed by it, using the CouchDB index on the OwnerOrg field
+     * rather than reading every asset in the namespace. Needs CouchDB as the state database.
+     *
+     * The index is kept by CouchDB rather than in composite key entries, because a transfer would have to write an
+     * entry under a key the new owner Org has never endorsed, and new keys fall under the chaincode endorsement policy
+     * rather than the state-based endorsement policy of the owner Org.
+     *
+     * @param ctx the transaction context
+     * @param ownerOrg the owner Org MSPID
+     * @param pageSize the maximum number of assets to return; the default page size if zero or less
+     * @param bookmark the bookmark returned with the previous page, or empty for the first page
+     * @return JSON object with the assets as "records", their "fetchedRecordsCount", and the "bookmark" of the next page
+     */
+    @Transaction(intent = Transaction.TYPE.EVALUATE)
+    public String GetAssetsByOwnerOrg(final Context ctx, final String ownerOrg, final int pageSize, final String bookmark)
+            throws Exception {
+        ChaincodeStub stub = ctx.getStub();
+
+        final int limit = pageSize <= 0 ? DEFAULT_PAGE_SIZE : Math.min(pageSize, MAX_PAGE_SIZE);
+        Map<String, Object> query = new LinkedHashMap<>();
+        query.put("selector", Map.of("OwnerOrg", ownerOrg));
+        query.put("use_index", new String[]{OWNER_ORG_INDEX_DDOC, OWNER_ORG_INDEX_NAME});
+
+        List<Asset> records = new ArrayList<>();
+        String nextBookmark;
+        try (QueryResultsIteratorWithMetadata<KeyValue> results =
+                     stub.getQueryResultWithPagination(genson.serialize(query), limit, bookmark)) {
+            for (KeyValue result : results) {
+                records.add(genson.deserialize(result.getStringValue(), Asset.class));
+            }
+            nextBookmark = results.getMetadata().getBookmark();
+        }
+
+        Map<String, Object> page = new LinkedHashMap<>();
+        page.put("records", records);
+        page.put("fetchedRecordsCount", records.size());
+        page.put("bookmark", nextBookmark);
+        return genson.serialize(page);
+    }
+
+    /**
+     * Retrieves statistics for the endorsement policy cache of the chaincode process on the endorsing peer.
+     *
+     * @param ctx the transaction context
+     * @return the cache hits, misses and current number of cached policies, as JSON
+     */
+    @Transaction(intent = Transaction.TYPE.EVALUATE)
+    public String GetPolicyCacheStats(final Context ctx) {
+        Map<String, Long> stats = new LinkedHashMap<>();
+        stats.put("hits", POLICY_CACHE.getHits());
+        stats.put("misses", POLICY_CACHE.getMisses());
+        stats.put("size", (long) POLICY_CACHE.size());
+        return genson.serialize(stats);
+    }
+
     /**
      * Checks the existence of the asset.
      *
@@ -206,9 +440,7 @@ public final class AssetContract implements ContractInterface {
      * @param ownerOrgs the list of Owner Org MSPID's
      */
     private static void setStateBasedEndorsement(final Context ctx, final String assetId, final String[] ownerOrgs) {
-        StateBasedEndorsement stateBasedEndorsement = StateBasedEndorsementFactory.getInstance().newStateBasedEndorsement(null);
-        stateBasedEndorsement.addOrgs(StateBasedEndorsement.RoleType.RoleTypeMember, ownerOrgs);
-        ctx.getStub().setStateValidationParameter(assetId, stateBasedEndorsement.policy());
+        ctx.getStub().setStateValidationParameter(assetId, POLICY_CACHE.memberPolicy(ownerOrgs));
     }
 
     /**
@@ -221,35 +453,6 @@ public final class AssetContract implements ContractInterface {
      * @param ownerOrgs the list of Owner Org MSPID's
      */
     private static void setStateBasedEndorsementNOutOf(final Context ctx, final String assetId, final int nOrgs, final String[] ownerOrgs) {
-        ctx.getStub().setStateValidationParameter(assetId, policy(nOrgs, Arrays.asList(ownerOrgs)));
-    }
-
-    /**
-     * Create a policy that requires a given number (N) of Org principals signatures out of the provided list of Orgs
-     *
-     * @param nOrgs the number of Org principals signatures required to endorse (out of the provided list of Orgs)
-     * @param mspids the list of Owner Org MSPID's
-     */
-    private static byte[] policy(final int nOrgs, final List<String> mspids) {
-        mspids.sort(Comparator.naturalOrder());
-        final List<MspPrincipal.MSPPrincipal> principals = new ArrayList<>();
-        final List<Policies.SignaturePolicy> signPolicy = new ArrayList<>();
-        for (int i = 0; i < mspids.size(); i++) {
-            final String mspid = mspids.get(i);
-            principals.add(MspPrincipal.MSPPrincipal.newBuilder().setPrincipalClassification(MspPrincipal.MSPPrincipal.Classification.ROLE)
-                    .setPrincipal(MspPrincipal.MSPRole.newBuilder().setMspIdentifier(mspid).setRole(MspPrincipal.MSPRole.MSPRoleType.MEMBER).build().toByteString()).build());
-            signPolicy.add(signedBy(i));
-        }
-        // Create the policy such that it requires any N signature's from all of the principals provided
-        return Policies.SignaturePolicyEnvelope.newBuilder().setVersion(0).setRule(nOutOf(nOrgs, signPolicy))
-                .addAllIdentities(principals).build().toByteArray();
-    }
-
-    private static Policies.SignaturePolicy signedBy(final int index) {
-        return Policies.SignaturePolicy.newBuilder().setSignedBy(index).build();
-    }
-
-    private static Policies.SignaturePolicy nOutOf(final int n, final List<Policies.SignaturePolicy> policies) {
-        return Policies.SignaturePolicy.newBuilder().setNOutOf(Policies.SignaturePolicy.NOutOf.newBuilder().setN(n).addAllRules(policies).build()).build();
+        ctx.getStub().setStateValidationParameter(assetId, POLICY_CACHE.nOutOfPolicy(nOrgs, ownerOrgs));
     }
 }
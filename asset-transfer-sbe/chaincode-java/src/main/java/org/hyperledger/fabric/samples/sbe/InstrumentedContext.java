@@ -0,0 +1,126 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.hyperledger.fabric.samples.sbe;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.hyperledger.fabric.contract.Context;
+import org.hyperledger.fabric.shim.ChaincodeStub;
+
+/**
+ * Transaction context that records how the transaction accesses the world state. The stub returned by
+ * {@link #getStub()} passes every call through to the real stub, noting for each key whether its value was read or
+ * written, whether its endorsement policy (validation parameter) was read or written, and the size of any policy set.
+ * Reading the policy also counts as a read of the key, as it adds the key to the read set.
+ * Range and partial composite key queries are counted.
+ *
+ * The recorded access is the read/write set shape of the transaction, as produced by this contract; it is merged into
+ * the process-wide {@link AccessStats} once the transaction function completes.
+ */
+public final class InstrumentedContext extends Context {
+
+    private final ChaincodeStub recordingStub;
+    private final Map<String, KeyAccess> keys = new LinkedHashMap<>();
+    private int rangeQueries = 0;
+
+    /**
+     * Access to a single key within one transaction.
+     */
+    static final class KeyAccess {
+        private boolean read;
+        private boolean written;
+        private boolean policyRead;
+        private boolean policyWritten;
+        private int policySize;
+
+        boolean isRead() {
+            return read;
+        }
+
+        boolean isWritten() {
+            return written;
+        }
+
+        boolean isPolicyRead() {
+            return policyRead;
+        }
+
+        boolean isPolicyWritten() {
+            return policyWritten;
+        }
+
+        int getPolicySize() {
+            return policySize;
+        }
+    }
+
+    /**
+     * @param stub the chaincode stub of the transaction
+     */
+    public InstrumentedContext(final ChaincodeStub stub) {
+        super(stub);
+        recordingStub = (ChaincodeStub) Proxy.newProxyInstance(ChaincodeStub.class.getClassLoader(),
+                new Class<?>[]{ChaincodeStub.class}, (proxy, method, args) -> {
+                    record(method, args);
+                    try {
+                        return method.invoke(stub, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+    }
+
+    @Override
+    public ChaincodeStub getStub() {
+        return recordingStub;
+    }
+
+    Map<String, KeyAccess> getKeys() {
+        return keys;
+    }
+
+    int getRangeQueries() {
+        return rangeQueries;
+    }
+
+    private synchronized void record(final Method method, final Object[] args) {
+        String name = method.getName();
+        switch (name) {
+            case "getState":
+            case "getStringState":
+                access(args).read = true;
+                break;
+            case "putState":
+            case "putStringState":
+            case "delState":
+                access(args).written = true;
+                break;
+            case "getStateValidationParameter":
+                // The policy is read through the key metadata, which adds the key to the read set like a value read
+                KeyAccess policyAccess = access(args);
+                policyAccess.read = true;
+                policyAccess.policyRead = true;
+                break;
+            case "setStateValidationParameter":
+                KeyAccess keyAccess = access(args);
+                keyAccess.policyWritten = true;
+                keyAccess.policySize = args[1] == null ? 0 : ((byte[]) args[1]).length;
+                break;
+            default:
+                if (name.startsWith("getStateByRange") || name.startsWith("getStateByPartialCompositeKey")) {
+                    rangeQueries++;
+                }
+                break;
+        }
+    }
+
+    private KeyAccess access(final Object[] args) {
+        return keys.computeIfAbsent(String.valueOf(args[0]), key -> new KeyAccess());
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.hyperledger.fabric.samples.sbe;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.function.Supplier;
+
+import org.hyperledger.fabric.protos.common.MspPrincipal;
+import org.hyperledger.fabric.protos.common.Policies;
+import org.hyperledger.fabric.shim.ext.sbe.StateBasedEndorsement;
+import org.hyperledger.fabric.shim.ext.sbe.impl.StateBasedEndorsementFactory;
+
+import com.google.protobuf.ByteString;
+
+/**
+ * Least recently used cache of serialized state-based endorsement policies, shared by all transactions in the chaincode
+ * process. Policies are keyed by their kind and the normalized (sorted, de-duplicated) list of Org MSPID's, so the same
+ * Orgs given in any order share one entry and produce the same policy bytes.
+ *
+ * Cached policies are held as immutable ByteStrings; each caller receives its own copy of the bytes.
+ */
+final class PolicyCache {
+
+    private final LruMap policies;
+    private long hits = 0;
+    private long misses = 0;
+
+    /**
+     * @param capacity the maximum number of policies held in the cache
+     */
+    PolicyCache(final int capacity) {
+        policies = new LruMap(capacity);
+    }
+
+    /**
+     * Returns a policy that requires a member of each of the provided Orgs to endorse.
+     *
+     * @param orgs the list of Org MSPID's
+     * @return the serialized policy
+     */
+    byte[] memberPolicy(final String[] orgs) {
+        List<String> mspids = normalize(orgs);
+        return get("member:" + String.join(",", mspids), () -> buildMemberPolicy(mspids));
+    }
+
+    /**
+     * Returns a policy that requires a member of a given number (N) of the provided Orgs to endorse.
+     *
+     * @param nOrgs the number of Orgs required to endorse
+     * @param orgs the list of Org MSPID's
+     * @return the serialized policy
+     */
+    byte[] nOutOfPolicy(final int nOrgs, final String[] orgs) {
+        List<String> mspids = normalize(orgs);
+        return get("nOutOf:" + nOrgs + ":" + String.join(",", mspids), () -> buildNOutOfPolicy(nOrgs, mspids));
+    }
+
+    synchronized long getHits() {
+        return hits;
+    }
+
+    synchronized long getMisses() {
+        return misses;
+    }
+
+    synchronized int size() {
+        return policies.size();
+    }
+
+    private synchronized byte[] get(final String key, final Supplier<byte[]> builder) {
+        ByteString policy = policies.get(key);
+        if (policy != null) {
+            hits++;
+        } else {
+            misses++;
+            policy = ByteString.copyFrom(builder.get());
+            policies.put(key, policy);
+        }
+        return policy.toByteArray();
+    }
+
+    private static List<String> normalize(final String[] orgs) {
+        return new ArrayList<>(new TreeSet<>(List.of(orgs)));
+    }
+
+    private static byte[] buildMemberPolicy(final List<String> mspids) {
+        StateBasedEndorsement stateBasedEndorsement = StateBasedEndorsementFactory.getInstance().newStateBasedEndorsement(null);
+        stateBasedEndorsement.addOrgs(StateBasedEndorsement.RoleType.RoleTypeMember, mspids.toArray(new String[0]));
+        return stateBasedEndorsement.policy();
+    }
+
+    /**
+     * Create a policy that requires a given number (N) of Org principals signatures out of the provided list of Orgs
+     *
+     * @param nOrgs the number of Org principals signatures required to endorse (out of the provided list of Orgs)
+     * @param mspids the sorted list of Owner Org MSPID's
+     */
+    private static byte[] buildNOutOfPolicy(final int nOrgs, final List<String> mspids) {
+        final List<MspPrincipal.MSPPrincipal> principals = new ArrayList<>();
+        final List<Policies.SignaturePolicy> signPolicy = new ArrayList<>();
+        for (int i = 0; i < mspids.size(); i++) {
+            final String mspid = mspids.get(i);
+            principals.add(MspPrincipal.MSPPrincipal.newBuilder().setPrincipalClassification(MspPrincipal.MSPPrincipal.Classification.ROLE)
+                    .setPrincipal(MspPrincipal.MSPRole.newBuilder().setMspIdentifier(mspid).setRole(MspPrincipal.MSPRole.MSPRoleType.MEMBER).build().toByteString()).build());
+            signPolicy.add(signedBy(i));
+        }
+        // Create the policy such that it requires any N signature's from all of the principals provided
+        return Policies.SignaturePolicyEnvelope.newBuilder().setVersion(0).setRule(nOutOf(nOrgs, signPolicy))
+                .addAllIdentities(principals).build().toByteArray();
+    }
+
+    private static Policies.SignaturePolicy signedBy(final int index) {
+        return Policies.SignaturePolicy.newBuilder().setSignedBy(index).build();
+    }
+
+    private static Policies.SignaturePolicy nOutOf(final int n, final List<Policies.SignaturePolicy> policies) {
+        return Policies.SignaturePolicy.newBuilder().setNOutOf(Policies.SignaturePolicy.NOutOf.newBuilder().setN(n).addAllRules(policies).build()).build();
+    }
+
+    private static final class LruMap extends LinkedHashMap<String, ByteString> {
+        private static final long serialVersionUID = 1L;
+
+        private final int capacity;
+
+        LruMap(final int capacity) {
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(final Map.Entry<String, ByteString> eldest) {
+            return size() > capacity;
+        }
+    }
+}
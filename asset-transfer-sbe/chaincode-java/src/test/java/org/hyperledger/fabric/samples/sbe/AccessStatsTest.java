@@ -0,0 +1,103 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.hyperledger.fabric.samples.sbe;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hyperledger.fabric.samples.sbe.InstrumentedContextTest.mockStub;
+
+import java.util.List;
+import java.util.Map;
+
+import org.hyperledger.fabric.shim.ChaincodeStub;
+import org.junit.jupiter.api.Test;
+
+public final class AccessStatsTest {
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> section(final Map<String, Object> report, final String name, final String key) {
+        return (Map<String, Object>) ((Map<String, Object>) report.get(name)).get(key);
+    }
+
+    @Test
+    public void accumulatesAccessPerFunctionAndKey() {
+        AccessStats stats = new AccessStats();
+
+        InstrumentedContext update = new InstrumentedContext(mockStub());
+        ChaincodeStub stub = update.getStub();
+        stub.getStringState("asset1");
+        stub.putStringState("asset1", "{}");
+        stats.record("UpdateAsset", update);
+
+        InstrumentedContext transfer = new InstrumentedContext(mockStub());
+        stub = transfer.getStub();
+        stub.getStringState("asset1");
+        stub.putStringState("asset1", "{}");
+        stub.setStateValidationParameter("asset1", new byte[]{1, 2, 3, 4});
+        stub.getStringState("asset2");
+        stub.getStateByRange("asset1", "asset3");
+        stats.record("TransferAsset", transfer);
+
+        InstrumentedContext blind = new InstrumentedContext(mockStub());
+        blind.getStub().putStringState("asset1", "{}");
+        stats.record("UpdateAsset", blind);
+
+        Map<String, Object> report = stats.report();
+
+        Map<String, Object> updateAsset = section(report, "functions", "UpdateAsset");
+        assertThat(updateAsset).containsEntry("transactions", 2L).containsEntry("keysRead", 1L)
+                .containsEntry("keysWritten", 2L).containsEntry("rangeQueries", 0L);
+        Map<String, Object> transferAsset = section(report, "functions", "TransferAsset");
+        assertThat(transferAsset).containsEntry("transactions", 1L).containsEntry("keysRead", 2L)
+                .containsEntry("keysWritten", 1L).containsEntry("rangeQueries", 1L);
+
+        Map<String, Object> asset1 = section(report, "keys", "asset1");
+        assertThat(asset1).containsEntry("transactions", 3L).containsEntry("reads", 2L).containsEntry("writes", 3L)
+                .containsEntry("readWrites", 2L).containsEntry("policyReads", 0L).containsEntry("policyWrites", 1L)
+                .containsEntry("maxPolicySize", 4);
+        Map<String, Object> asset2 = section(report, "keys", "asset2");
+        assertThat(asset2).containsEntry("reads", 1L).containsEntry("writes", 0L).containsEntry("readWrites", 0L);
+
+        assertThat((List<String>) report.get("policyReadWriteKeys")).isEmpty();
+        assertThat(report).containsEntry("untrackedKeys", 0L);
+    }
+
+    @Test
+    public void reportsKeysWhosePolicyIsReadAndWritten() {
+        AccessStats stats = new AccessStats();
+
+        InstrumentedContext read = new InstrumentedContext(mockStub());
+        read.getStub().getStateValidationParameter("asset1");
+        read.getStub().putStringState("asset1", "{}");
+        stats.record("UpdateAssetBlind", read);
+
+        InstrumentedContext write = new InstrumentedContext(mockStub());
+        write.getStub().setStateValidationParameter("asset1", new byte[]{1});
+        stats.record("TransferAsset", write);
+
+        Map<String, Object> report = stats.report();
+
+        // The policy read adds the key to the read set, so it counts as a read of the key as well
+        assertThat(section(report, "keys", "asset1")).containsEntry("reads", 1L).containsEntry("readWrites", 1L)
+                .containsEntry("policyReads", 1L).containsEntry("policyWrites", 1L);
+        assertThat(section(report, "functions", "UpdateAssetBlind")).containsEntry("keysRead", 1L);
+        assertThat((List<String>) report.get("policyReadWriteKeys")).containsExactly("asset1");
+    }
+
+    @Test
+    public void countsKeysBeyondTheTrackedLimit() {
+        AccessStats stats = new AccessStats();
+        InstrumentedContext ctx = new InstrumentedContext(mockStub());
+        for (int i = 0; i <= AccessStats.MAX_KEYS; i++) {
+            ctx.getStub().putStringState("asset" + i, "{}");
+        }
+
+        stats.record("CreateAsset", ctx);
+        Map<String, Object> report = stats.report();
+
+        assertThat((Map<String, Object>) report.get("keys")).hasSize(AccessStats.MAX_KEYS);
+        assertThat(report).containsEntry("untrackedKeys", 1L);
+        assertThat(section(report, "functions", "CreateAsset")).containsEntry("keysWritten", (long) AccessStats.MAX_KEYS + 1);
+    }
+}
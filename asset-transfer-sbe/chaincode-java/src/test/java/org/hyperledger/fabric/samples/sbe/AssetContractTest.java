@@ -0,0 +1,352 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.hyperledger.fabric.samples.sbe;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.ThrowableAssert.catchThrowable;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.hyperledger.fabric.contract.ClientIdentity;
+import org.hyperledger.fabric.contract.Context;
+import org.hyperledger.fabric.protos.peer.ChaincodeShim.QueryResponseMetadata;
+import org.hyperledger.fabric.shim.ChaincodeException;
+import org.hyperledger.fabric.shim.ChaincodeStub;
+import org.hyperledger.fabric.shim.ledger.KeyValue;
+import org.hyperledger.fabric.shim.ledger.QueryResultsIteratorWithMetadata;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import com.owlike.genson.Genson;
+
+public final class AssetContractTest {
+
+    private static final Genson GENSON = new Genson();
+    private static final byte[] ORG1_POLICY = new PolicyCache(1).memberPolicy(new String[]{"Org1MSP"});
+    private static final byte[] ORG2_POLICY = new PolicyCache(1).memberPolicy(new String[]{"Org2MSP"});
+
+    private static Context mockContext(final ChaincodeStub stub, final String clientMSPID) {
+        Context ctx = mock(Context.class);
+        ClientIdentity clientIdentity = mock(ClientIdentity.class);
+        when(clientIdentity.getMSPID()).thenReturn(clientMSPID);
+        when(ctx.getClientIdentity()).thenReturn(clientIdentity);
+        when(ctx.getStub()).thenReturn(stub);
+        return ctx;
+    }
+
+    private static String json(final Asset asset) {
+        return GENSON.serialize(asset);
+    }
+
+    @Nested
+    class InvokeWriteTransaction {
+
+        @Test
+        public void createAssetSetsOwnerOrgPolicy() {
+            AssetContract contract = new AssetContract();
+            ChaincodeStub stub = mock(ChaincodeStub.class);
+            Context ctx = mockContext(stub, "Org1MSP");
+
+            Asset asset = contract.CreateAsset(ctx, "asset1", 100, "Tom");
+
+            assertThat(asset).isEqualTo(new Asset("asset1", 100, "Tom", "Org1MSP"));
+            verify(stub).putStringState("asset1", json(asset));
+            verify(stub).setStateValidationParameter("asset1", ORG1_POLICY);
+        }
+
+        @Test
+        public void createAssetWhenAssetExists() {
+            AssetContract contract = new AssetContract();
+            ChaincodeStub stub = mock(ChaincodeStub.class);
+            when(stub.getStringState("asset1")).thenReturn(json(new Asset("asset1", 100, "Tom", "Org1MSP")));
+            Context ctx = mockContext(stub, "Org1MSP");
+
+            Throwable thrown = catchThrowable(() -> {
+                contract.CreateAsset(ctx, "asset1", 100, "Tom");
+            });
+
+            assertThat(thrown).isInstanceOf(ChaincodeException.class).hasNoCause()
+                    .hasMessage("Asset asset1 already exists");
+            assertThat(((ChaincodeException) thrown).getPayload()).isEqualTo("ASSET_ALREADY_EXISTS".getBytes());
+        }
+
+        @Test
+        public void updateAssetWritesNewValue() {
+            AssetContract contract = new AssetContract();
+            ChaincodeStub stub = mock(ChaincodeStub.class);
+            when(stub.getStringState("asset1")).thenReturn(json(new Asset("asset1", 100, "Tom", "Org1MSP")));
+            Context ctx = mockContext(stub, "Org1MSP");
+
+            Asset asset = contract.UpdateAsset(ctx, "asset1", 200);
+
+            assertThat(asset).isEqualTo(new Asset("asset1", 200, "Tom", "Org1MSP"));
+            verify(stub).putStringState("asset1", json(asset));
+            verify(stub, never()).setStateValidationParameter(anyString(), any());
+        }
+
+        @Test
+        public void updateAssetBlindWritesWithoutReading() {
+            AssetContract contract = new AssetContract();
+            ChaincodeStub stub = mock(ChaincodeStub.class);
+            when(stub.getMspId()).thenReturn("Org1MSP");
+            Context ctx = mockContext(stub, "Org1MSP");
+
+            Asset asset = contract.UpdateAssetBlind(ctx, "asset1", 300, "Tom", "Org1MSP");
+
+            assertThat(asset).isEqualTo(new Asset("asset1", 300, "Tom", "Org1MSP"));
+            verify(stub).putStringState("asset1", json(asset));
+            verify(stub, never()).getStringState(anyString());
+            verify(stub, never()).getState(anyString());
+            verify(stub, never()).getStateValidationParameter(anyString());
+        }
+
+        @Test
+        public void updateAssetBlindWhenPeerIsNotOwnerOrg() {
+            AssetContract contract = new AssetContract();
+            ChaincodeStub stub = mock(ChaincodeStub.class);
+            when(stub.getMspId()).thenReturn("Org2MSP");
+            Context ctx = mockContext(stub, "Org1MSP");
+
+            Throwable thrown = catchThrowable(() -> {
+                contract.UpdateAssetBlind(ctx, "asset1", 300, "Tom", "Org1MSP");
+            });
+
+            assertThat(thrown).isInstanceOf(ChaincodeException.class).hasNoCause()
+                    .hasMessage("Asset asset1 owner Org Org1MSP must be updated by its own clients and peers, not Org1MSP and Org2MSP");
+            assertThat(((ChaincodeException) thrown).getPayload()).isEqualTo("OWNER_ORG_MISMATCH".getBytes());
+            verify(stub, never()).putStringState(anyString(), anyString());
+        }
+
+        @Test
+        public void deleteAssetWhenAssetExists() {
+            AssetContract contract = new AssetContract();
+            ChaincodeStub stub = mock(ChaincodeStub.class);
+            when(stub.getStringState("asset1")).thenReturn(json(new Asset("asset1", 100, "Tom", "Org1MSP")));
+            Context ctx = mockContext(stub, "Org1MSP");
+
+            contract.DeleteAsset(ctx, "asset1");
+
+            verify(stub).delState("asset1");
+        }
+
+        @Test
+        public void deleteAssetWhenAssetDoesNotExist() {
+            AssetContract contract = new AssetContract();
+            ChaincodeStub stub = mock(ChaincodeStub.class);
+            Context ctx = mockContext(stub, "Org1MSP");
+
+            Throwable thrown = catchThrowable(() -> {
+                contract.DeleteAsset(ctx, "asset1");
+            });
+
+            assertThat(thrown).isInstanceOf(ChaincodeException.class).hasNoCause()
+                    .hasMessage("Asset asset1 does not exist");
+            verify(stub, never()).delState(anyString());
+        }
+
+        @Test
+        public void transferAssetToAnotherOrgResetsPolicy() {
+            AssetContract contract = new AssetContract();
+            ChaincodeStub stub = mock(ChaincodeStub.class);
+            when(stub.getStringState("asset1")).thenReturn(json(new Asset("asset1", 100, "Tom", "Org1MSP")));
+            Context ctx = mockContext(stub, "Org1MSP");
+
+            Asset asset = contract.TransferAsset(ctx, "asset1", "Mary", "Org2MSP");
+
+            assertThat(asset).isEqualTo(new Asset("asset1", 100, "Mary", "Org2MSP"));
+            verify(stub).putStringState("asset1", json(asset));
+            verify(stub).setStateValidationParameter("asset1", ORG2_POLICY);
+        }
+
+        @Test
+        public void transferAssetWithinOwnerOrgKeepsPolicy() {
+            AssetContract contract = new AssetContract();
+            ChaincodeStub stub = mock(ChaincodeStub.class);
+            when(stub.getStringState("asset1")).thenReturn(json(new Asset("asset1", 100, "Tom", "Org1MSP")));
+            Context ctx = mockContext(stub, "Org1MSP");
+
+            contract.TransferAsset(ctx, "asset1", "Mary", "Org1MSP");
+
+            verify(stub).putStringState("asset1", json(new Asset("asset1", 100, "Mary", "Org1MSP")));
+            verify(stub, never()).setStateValidationParameter(anyString(), any());
+        }
+    }
+
+    @Nested
+    class InvokeTransferAssetsBatch {
+
+        @Test
+        public void transfersEveryAssetAndResetsPolicyOnlyWhenOwnerOrgChanges() {
+            AssetContract contract = new AssetContract();
+            ChaincodeStub stub = mock(ChaincodeStub.class);
+            when(stub.getStringState("asset1")).thenReturn(json(new Asset("asset1", 100, "Tom", "Org1MSP")));
+            when(stub.getStringState("asset2")).thenReturn(json(new Asset("asset2", 200, "Tom", "Org2MSP")));
+            when(stub.getStringState("asset3")).thenReturn(json(new Asset("asset3", 300, "Tom", "Org1MSP")));
+            Context ctx = mockContext(stub, "Org1MSP");
+
+            int transferred = contract.TransferAssetsBatch(ctx, "[\"asset1\",\"asset2\",\"asset3\"]", "Mary", "Org2MSP");
+
+            assertThat(transferred).isEqualTo(3);
+            verify(stub).putStringState("asset1", json(new Asset("asset1", 100, "Mary", "Org2MSP")));
+            verify(stub).putStringState("asset2", json(new Asset("asset2", 200, "Mary", "Org2MSP")));
+            verify(stub).putStringState("asset3", json(new Asset("asset3", 300, "Mary", "Org2MSP")));
+            verify(stub).setStateValidationParameter("asset1", ORG2_POLICY);
+            verify(stub).setStateValidationParameter("asset3", ORG2_POLICY);
+            verify(stub, never()).setStateValidationParameter(eq("asset2"), any());
+        }
+
+        @Test
+        public void setsTheSamePolicyBytesOnEveryKey() {
+            AssetContract contract = new AssetContract();
+            ChaincodeStub stub = mock(ChaincodeStub.class);
+            when(stub.getStringState(anyString())).thenReturn(json(new Asset("asset", 100, "Tom", "Org1MSP")));
+            Context ctx = mockContext(stub, "Org1MSP");
+
+            contract.TransferAssetsBatch(ctx, "[\"asset1\",\"asset2\"]", "Mary", "Org2MSP");
+
+            ArgumentCaptor<byte[]> policies = ArgumentCaptor.forClass(byte[].class);
+            verify(stub, times(2)).setStateValidationParameter(anyString(), policies.capture());
+            assertThat(policies.getAllValues().get(0)).isSameAs(policies.getAllValues().get(1));
+        }
+
+        @Test
+        public void failsWholeBatchWhenAnAssetDoesNotExist() {
+            AssetContract contract = new AssetContract();
+            ChaincodeStub stub = mock(ChaincodeStub.class);
+            when(stub.getStringState("asset1")).thenReturn(json(new Asset("asset1", 100, "Tom", "Org1MSP")));
+            Context ctx = mockContext(stub, "Org1MSP");
+
+            Throwable thrown = catchThrowable(() -> {
+                contract.TransferAssetsBatch(ctx, "[\"asset1\",\"asset2\"]", "Mary", "Org2MSP");
+            });
+
+            assertThat(thrown).isInstanceOf(ChaincodeException.class).hasNoCause()
+                    .hasMessage("Asset asset2 does not exist");
+            assertThat(((ChaincodeException) thrown).getPayload()).isEqualTo("ASSET_NOT_FOUND".getBytes());
+        }
+
+        @Test
+        public void rejectsInvalidBatches() {
+            AssetContract contract = new AssetContract();
+            ChaincodeStub stub = mock(ChaincodeStub.class);
+            Context ctx = mockContext(stub, "Org1MSP");
+            List<String> tooMany = new ArrayList<>();
+            for (int i = 0; i <= AssetContract.MAX_BATCH_SIZE; i++) {
+                tooMany.add("asset" + i);
+            }
+
+            for (String assetIds : new String[]{"not json", "[]", GENSON.serialize(tooMany), "[\"asset1\",\"asset1\"]", "[\"\"]"}) {
+                Throwable thrown = catchThrowable(() -> {
+                    contract.TransferAssetsBatch(ctx, assetIds, "Mary", "Org2MSP");
+                });
+
+                assertThat(thrown).isInstanceOf(ChaincodeException.class).hasNoCause();
+                assertThat(((ChaincodeException) thrown).getPayload()).isEqualTo("INVALID_BATCH".getBytes());
+            }
+            verify(stub, never()).getStringState(anyString());
+        }
+    }
+
+    @Nested
+    class QueryTransaction {
+
+        @Test
+        public void readAssetWhenAssetDoesNotExist() {
+            AssetContract contract = new AssetContract();
+            ChaincodeStub stub = mock(ChaincodeStub.class);
+            when(stub.getStringState("asset1")).thenReturn("");
+            Context ctx = mockContext(stub, "Org1MSP");
+
+            Throwable thrown = catchThrowable(() -> {
+                contract.ReadAsset(ctx, "asset1");
+            });
+
+            assertThat(thrown).isInstanceOf(ChaincodeException.class).hasNoCause()
+                    .hasMessage("Asset asset1 does not exist");
+        }
+
+        @Test
+        @SuppressWarnings("unchecked")
+        public void getAssetsByOwnerOrgQueriesTheOwnerOrgIndex() throws Exception {
+            AssetContract contract = new AssetContract();
+            ChaincodeStub stub = mock(ChaincodeStub.class);
+            Context ctx = mockContext(stub, "Org1MSP");
+            Asset asset = new Asset("asset1", 100, "Tom", "Org2MSP");
+            KeyValue kv = mock(KeyValue.class);
+            when(kv.getStringValue()).thenReturn(json(asset));
+            QueryResultsIteratorWithMetadata<KeyValue> results = mock(QueryResultsIteratorWithMetadata.class);
+            when(results.iterator()).thenReturn(List.of(kv).iterator());
+            when(results.getMetadata()).thenReturn(QueryResponseMetadata.newBuilder().setBookmark("next").build());
+            when(stub.getQueryResultWithPagination(anyString(), anyInt(), anyString())).thenReturn(results);
+
+            String page = contract.GetAssetsByOwnerOrg(ctx, "Org2MSP", 0, "");
+
+            verify(stub).getQueryResultWithPagination("{\"selector\":{\"OwnerOrg\":\"Org2MSP\"},"
+                    + "\"use_index\":[\"_design/indexOwnerOrgDoc\",\"indexOwnerOrg\"]}", AssetContract.DEFAULT_PAGE_SIZE, "");
+            verify(results).close();
+            Map<String, Object> pageMap = GENSON.deserialize(page, Map.class);
+            assertThat(pageMap).containsEntry("fetchedRecordsCount", 1L).containsEntry("bookmark", "next");
+            assertThat(page).contains(json(asset));
+        }
+
+        @Test
+        @SuppressWarnings("unchecked")
+        public void getAssetsByOwnerOrgLimitsPageSize() throws Exception {
+            AssetContract contract = new AssetContract();
+            ChaincodeStub stub = mock(ChaincodeStub.class);
+            Context ctx = mockContext(stub, "Org1MSP");
+            QueryResultsIteratorWithMetadata<KeyValue> results = mock(QueryResultsIteratorWithMetadata.class);
+            when(results.iterator()).thenReturn(new ArrayList<KeyValue>().iterator());
+            when(results.getMetadata()).thenReturn(QueryResponseMetadata.getDefaultInstance());
+            when(stub.getQueryResultWithPagination(anyString(), anyInt(), anyString())).thenReturn(results);
+
+            contract.GetAssetsByOwnerOrg(ctx, "Org2MSP", AssetContract.MAX_PAGE_SIZE + 1, "bookmark1");
+
+            verify(stub).getQueryResultWithPagination(anyString(), eq(AssetContract.MAX_PAGE_SIZE), eq("bookmark1"));
+        }
+
+        @Test
+        @SuppressWarnings("unchecked")
+        public void getPolicyCacheStatsCountsLookups() {
+            AssetContract contract = new AssetContract();
+            ChaincodeStub stub = mock(ChaincodeStub.class);
+            Context ctx = mockContext(stub, "Org1MSP");
+
+            Map<String, Object> before = GENSON.deserialize(contract.GetPolicyCacheStats(ctx), Map.class);
+            contract.CreateAsset(ctx, "asset1", 100, "Tom");
+            Map<String, Object> after = GENSON.deserialize(contract.GetPolicyCacheStats(ctx), Map.class);
+
+            long lookups = (Long) after.get("hits") + (Long) after.get("misses");
+            assertThat(lookups).isEqualTo((Long) before.get("hits") + (Long) before.get("misses") + 1);
+            assertThat((Long) after.get("size")).isPositive();
+        }
+
+        @Test
+        public void getAccessReportWhenNotInstrumented() {
+            AssetContract contract = new AssetContract();
+            Context ctx = mockContext(mock(ChaincodeStub.class), "Org1MSP");
+
+            Throwable thrown = catchThrowable(() -> {
+                contract.GetAccessReport(ctx);
+            });
+
+            assertThat(thrown).isInstanceOf(ChaincodeException.class).hasNoCause()
+                    .hasMessage("Instrumented mode is not enabled, set SBE_INSTRUMENTATION=true");
+            assertThat(((ChaincodeException) thrown).getPayload()).isEqualTo("INSTRUMENTATION_DISABLED".getBytes());
+        }
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.hyperledger.fabric.samples.sbe;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.ThrowableAssert.catchThrowable;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.hyperledger.fabric.contract.Context;
+import org.hyperledger.fabric.protos.msp.Identities.SerializedIdentity;
+import org.hyperledger.fabric.shim.ChaincodeException;
+import org.hyperledger.fabric.shim.ChaincodeStub;
+import org.junit.jupiter.api.Test;
+
+import com.google.protobuf.ByteString;
+
+public final class InstrumentedContextTest {
+
+    // Self-signed client certificate, so that a real transaction context can be built
+    private static final String CLIENT_CERT =
+            "-----BEGIN CERTIFICATE-----\n"
+            + "MIIB6jCCAY+gAwIBAgIUasJZ/soYZOVfDM4OWky4vm4BRrkwCgYIKoZIzj0EAwIw\n"
+            + "STELMAkGA1UEBhMCVVMxGTAXBgNVBAoMEG9yZzEuZXhhbXBsZS5jb20xDzANBgNV\n"
+            + "BAsMBmNsaWVudDEOMAwGA1UEAwwFQWxpY2UwIBcNMjYxMDE5MDgwNTM5WhgPMjEy\n"
+            + "NjA5MjUwODA1MzlaMEkxCzAJBgNVBAYTAlVTMRkwFwYDVQQKDBBvcmcxLmV4YW1w\n"
+            + "bGUuY29tMQ8wDQYDVQQLDAZjbGllbnQxDjAMBgNVBAMMBUFsaWNlMFkwEwYHKoZI\n"
+            + "zj0CAQYIKoZIzj0DAQcDQgAEb0j6InrRpdnWAotGEzgKqNHuKbF8rpvTzF41DPFS\n"
+            + "PUxQi49LhDJxWKeHANNCQT+k+InrQ2z5MaXRtO1mj1sQXqNTMFEwHQYDVR0OBBYE\n"
+            + "FPoOTKxiaV/5+K6Arz9LsLqSJ93jMB8GA1UdIwQYMBaAFPoOTKxiaV/5+K6Arz9L\n"
+            + "sLqSJ93jMA8GA1UdEwEB/wQFMAMBAf8wCgYIKoZIzj0EAwIDSQAwRgIhAMPb8GJy\n"
+            + "uklpxz1b9o0IRqR828ztJbUO3F72VMmHlurlAiEAztttN8meb1dC0oemTkmkLtuc\n"
+            + "3FgUKIFF0CbYidChacw=\n"
+            + "-----END CERTIFICATE-----\n";
+
+    // Mock stub whose creator is a serialized identity of CLIENT_CERT, as Context reads the client identity when it
+    // is constructed
+    static ChaincodeStub mockStub() {
+        ChaincodeStub stub = mock(ChaincodeStub.class);
+        when(stub.getCreator()).thenReturn(SerializedIdentity.newBuilder()
+                .setMspid("Org1MSP")
+                .setIdBytes(ByteString.copyFromUtf8(CLIENT_CERT))
+                .build()
+                .toByteArray());
+        return stub;
+    }
+
+    @Test
+    public void passesCallsThroughToTheStub() {
+        ChaincodeStub stub = mockStub();
+        when(stub.getStringState("asset1")).thenReturn("{}");
+        InstrumentedContext ctx = new InstrumentedContext(stub);
+
+        assertThat(ctx.getStub().getStringState("asset1")).isEqualTo("{}");
+        ctx.getStub().putStringState("asset1", "{\"Value\":1}");
+
+        verify(stub).putStringState("asset1", "{\"Value\":1}");
+        assertThat(ctx.getClientIdentity().getMSPID()).isEqualTo("Org1MSP");
+    }
+
+    @Test
+    public void rethrowsStubExceptionsUnwrapped() {
+        ChaincodeStub stub = mockStub();
+        when(stub.getStringState("asset1")).thenThrow(new ChaincodeException("ledger unavailable"));
+        InstrumentedContext ctx = new InstrumentedContext(stub);
+
+        Throwable thrown = catchThrowable(() -> {
+            ctx.getStub().getStringState("asset1");
+        });
+
+        assertThat(thrown).isInstanceOf(ChaincodeException.class).hasMessage("ledger unavailable");
+        assertThat(ctx.getKeys().get("asset1").isRead()).isTrue();
+    }
+
+    @Test
+    public void recordsValueAndPolicyAccessPerKey() {
+        InstrumentedContext ctx = new InstrumentedContext(mockStub());
+        ChaincodeStub recording = ctx.getStub();
+
+        recording.getStringState("asset1");
+        recording.putStringState("asset1", "{}");
+        recording.setStateValidationParameter("asset1", new byte[]{1, 2, 3});
+        recording.getState("asset2");
+        recording.delState("asset3");
+        recording.setStateValidationParameter("asset3", null);
+
+        InstrumentedContext.KeyAccess asset1 = ctx.getKeys().get("asset1");
+        assertThat(asset1.isRead()).isTrue();
+        assertThat(asset1.isWritten()).isTrue();
+        assertThat(asset1.isPolicyRead()).isFalse();
+        assertThat(asset1.isPolicyWritten()).isTrue();
+        assertThat(asset1.getPolicySize()).isEqualTo(3);
+
+        InstrumentedContext.KeyAccess asset2 = ctx.getKeys().get("asset2");
+        assertThat(asset2.isRead()).isTrue();
+        assertThat(asset2.isWritten()).isFalse();
+
+        InstrumentedContext.KeyAccess asset3 = ctx.getKeys().get("asset3");
+        assertThat(asset3.isRead()).isFalse();
+        assertThat(asset3.isWritten()).isTrue();
+        assertThat(asset3.isPolicyWritten()).isTrue();
+        assertThat(asset3.getPolicySize()).isEqualTo(0);
+    }
+
+    @Test
+    public void policyReadCountsAsReadOfTheKey() {
+        InstrumentedContext ctx = new InstrumentedContext(mockStub());
+
+        ctx.getStub().getStateValidationParameter("asset1");
+
+        InstrumentedContext.KeyAccess asset1 = ctx.getKeys().get("asset1");
+        assertThat(asset1.isPolicyRead()).isTrue();
+        assertThat(asset1.isRead()).isTrue();
+    }
+
+    @Test
+    public void countsRangeQueriesWithoutRecordingKeys() {
+        InstrumentedContext ctx = new InstrumentedContext(mockStub());
+
+        ctx.getStub().getStateByRange("asset1", "asset9");
+        ctx.getStub().getStateByRangeWithPagination("asset1", "asset9", 10, "");
+        ctx.getStub().getStateByPartialCompositeKey("owner");
+        ctx.getStub().getMspId();
+
+        assertThat(ctx.getRangeQueries()).isEqualTo(3);
+        assertThat(ctx.getKeys()).isEmpty();
+    }
+
+    @Test
+    public void contractCreatesPlainContextUnlessInstrumented() {
+        AssetContract contract = new AssetContract();
+
+        Context ctx = contract.createContext(mockStub());
+
+        assertThat(ctx).isNotInstanceOf(InstrumentedContext.class);
+        contract.afterTransaction(ctx, null);
+    }
+}
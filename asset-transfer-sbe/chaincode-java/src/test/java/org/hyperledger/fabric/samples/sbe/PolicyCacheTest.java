@@ -0,0 +1,98 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.hyperledger.fabric.samples.sbe;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.hyperledger.fabric.protos.common.MspPrincipal;
+import org.hyperledger.fabric.protos.common.Policies;
+import org.junit.jupiter.api.Test;
+
+public final class PolicyCacheTest {
+
+    @Test
+    public void sameOrgsInAnyOrderShareOneEntry() {
+        PolicyCache cache = new PolicyCache(4);
+
+        byte[] first = cache.memberPolicy(new String[]{"Org2MSP", "Org1MSP"});
+        byte[] second = cache.memberPolicy(new String[]{"Org1MSP", "Org2MSP", "Org1MSP"});
+
+        assertThat(second).isEqualTo(first);
+        assertThat(cache.getMisses()).isEqualTo(1);
+        assertThat(cache.getHits()).isEqualTo(1);
+        assertThat(cache.size()).isEqualTo(1);
+    }
+
+    @Test
+    public void callersReceiveTheirOwnCopyOfThePolicy() {
+        PolicyCache cache = new PolicyCache(4);
+
+        byte[] first = cache.memberPolicy(new String[]{"Org1MSP"});
+        byte[] expected = first.clone();
+        first[0] ^= 0xFF;
+
+        assertThat(cache.memberPolicy(new String[]{"Org1MSP"})).isEqualTo(expected);
+    }
+
+    @Test
+    public void evictsLeastRecentlyUsedPolicy() {
+        PolicyCache cache = new PolicyCache(2);
+        byte[] org1 = cache.memberPolicy(new String[]{"Org1MSP"});
+        cache.memberPolicy(new String[]{"Org2MSP"});
+
+        // Org1MSP is used again, so Org2MSP is the least recently used when Org3MSP is added
+        cache.memberPolicy(new String[]{"Org1MSP"});
+        cache.memberPolicy(new String[]{"Org3MSP"});
+        assertThat(cache.size()).isEqualTo(2);
+        assertThat(cache.getMisses()).isEqualTo(3);
+
+        cache.memberPolicy(new String[]{"Org1MSP"});
+        assertThat(cache.getMisses()).isEqualTo(3);
+
+        cache.memberPolicy(new String[]{"Org2MSP"});
+        assertThat(cache.getMisses()).isEqualTo(4);
+        assertThat(cache.size()).isEqualTo(2);
+
+        // Org3MSP was evicted in turn, while the recently used Org1MSP is still cached
+        assertThat(cache.memberPolicy(new String[]{"Org1MSP"})).isEqualTo(org1);
+        assertThat(cache.getMisses()).isEqualTo(4);
+        cache.memberPolicy(new String[]{"Org3MSP"});
+        assertThat(cache.getMisses()).isEqualTo(5);
+    }
+
+    @Test
+    public void evictedPolicyIsRebuiltWithTheSameBytes() {
+        PolicyCache cache = new PolicyCache(1);
+        byte[] org1 = cache.memberPolicy(new String[]{"Org1MSP"});
+
+        cache.memberPolicy(new String[]{"Org2MSP"});
+
+        assertThat(cache.memberPolicy(new String[]{"Org1MSP"})).isEqualTo(org1);
+        assertThat(cache.getMisses()).isEqualTo(3);
+        assertThat(cache.getHits()).isEqualTo(0);
+    }
+
+    @Test
+    public void nOutOfPoliciesAreCachedSeparatelyFromMemberPolicies() throws Exception {
+        PolicyCache cache = new PolicyCache(4);
+        String[] orgs = {"Org2MSP", "Org1MSP"};
+
+        byte[] member = cache.memberPolicy(orgs);
+        byte[] oneOf = cache.nOutOfPolicy(1, orgs);
+        byte[] twoOf = cache.nOutOfPolicy(2, orgs);
+
+        assertThat(cache.size()).isEqualTo(3);
+        assertThat(oneOf).isNotEqualTo(member).isNotEqualTo(twoOf);
+        assertThat(cache.nOutOfPolicy(1, new String[]{"Org1MSP", "Org2MSP"})).isEqualTo(oneOf);
+        assertThat(cache.getHits()).isEqualTo(1);
+
+        Policies.SignaturePolicyEnvelope envelope = Policies.SignaturePolicyEnvelope.parseFrom(oneOf);
+        assertThat(envelope.getRule().getNOutOf().getN()).isEqualTo(1);
+        assertThat(envelope.getRule().getNOutOf().getRulesCount()).isEqualTo(2);
+        assertThat(envelope.getIdentitiesCount()).isEqualTo(2);
+        assertThat(MspPrincipal.MSPRole.parseFrom(envelope.getIdentities(0).getPrincipal()).getMspIdentifier())
+                .isEqualTo("Org1MSP");
+    }
+}
@@ -5,7 +5,9 @@
 package org.hyperledger.fabric.samples.fabcar;
 
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.hyperledger.fabric.contract.Context;
 import org.hyperledger.fabric.contract.ContractInterface;
@@ -17,10 +19,15 @@ import org.hyperledger.fabric.contract.annotation.License;
 import org.hyperledger.fabric.contract.annotation.Transaction;
 import org.hyperledger.fabric.shim.ChaincodeException;
 import org.hyperledger.fabric.shim.ChaincodeStub;
+import org.hyperledger.fabric.shim.ledger.CompositeKey;
 import org.hyperledger.fabric.shim.ledger.KeyValue;
 import org.hyperledger.fabric.shim.ledger.QueryResultsIterator;
+import org.hyperledger.fabric.shim.ledger.QueryResultsIteratorWithMetadata;
 
+import com.owlike.genson.GenericType;
 import com.owlike.genson.Genson;
+import com.owlike.genson.JsonBindingException;
+import com.owlike.genson.stream.JsonStreamException;
 
 /**
  * Java implementation of the Fabric Car Contract described in the Writing Your
@@ -42,11 +49,34 @@ import com.owlike.genson.Genson;
 @Default
 public final class FabCar implements ContractInterface {
 
+    /**
+     * Composite key object type of the index of cars by owner.
+     */
+    static final String OWNER_INDEX = "owner~key";
+
+    /**
+     * Composite key object type of the index of cars by make.
+     */
+    static final String MAKE_INDEX = "make~key";
+
+    /**
+     * Value of an index entry; the car key is part of the index key.
+     */
+    private static final String INDEX_VALUE = "\u0000";
+
+    /**
+     * Largest number of cars created or transferred by a single batch transaction.
+     */
+    static final int MAX_BATCH_SIZE = 500;
+
     private final Genson genson = new Genson();
 
     private enum FabCarErrors {
         CAR_NOT_FOUND,
-        CAR_ALREADY_EXISTS
+        CAR_ALREADY_EXISTS,
+        INVALID_PAGE_SIZE,
+        INVALID_BATCH,
+        BATCH_TOO_LARGE
     }
 
     /**
@@ -98,8 +128,7 @@ public final class FabCar implements ContractInterface {
             String key = String.format("CAR%d", i);
 
             Car car = genson.deserialize(carData[i], Car.class);
-            String carState = genson.serialize(car);
-            stub.putStringState(key, carState);
+            putCar(stub, key, car);
         }
     }
 
@@ -127,8 +156,7 @@ public final class FabCar implements ContractInterface {
         }
 
         Car car = new Car(make, model, color, owner);
-        carState = genson.serialize(car);
-        stub.putStringState(key, carState);
+        putCar(stub, key, car);
 
         return car;
     }
@@ -181,10 +209,281 @@ public final class FabCar implements ContractInterface {
 
         Car car = genson.deserialize(carState, Car.class);
 
+        return transferCar(stub, key, car, newOwner);
+    }
+
+    /**
+     * Creates a batch of new cars on the ledger in one transaction. Every key is
+     * checked before any car is written; a car whose key is invalid, that already
+     * exists, or whose details are incomplete, is reported as failed and the other
+     * cars are still created.
+     *
+     * @param ctx the transaction context
+     * @param carsJSON JSON object mapping each new key to its car, with make, model, color and owner
+     * @return the keys of the cars created, and the reason each failed key was not created
+     */
+    @Transaction()
+    public String createCarsBatch(final Context ctx, final String carsJSON) {
+        ChaincodeStub stub = ctx.getStub();
+        Map<String, Car> cars = parseBatch(carsJSON, new GenericType<LinkedHashMap<String, Car>>() { });
+
+        List<String> created = new ArrayList<String>();
+        Map<String, String> failed = new LinkedHashMap<String, String>();
+        for (Map.Entry<String, Car> entry : cars.entrySet()) {
+            String key = entry.getKey();
+            Car car = entry.getValue();
+            if (!isValidKey(key)) {
+                failed.put(key, String.format("Car key \"%s\" is invalid", key));
+            } else if (car == null || car.getMake() == null || car.getModel() == null || car.getColor() == null
+                    || car.getOwner() == null) {
+                failed.put(key, String.format("Car %s is incomplete", key));
+            } else if (!stub.getStringState(key).isEmpty()) {
+                failed.put(key, String.format("Car %s already exists", key));
+            } else {
+                created.add(key);
+            }
+        }
+
+        for (String key : created) {
+            putCar(stub, key, cars.get(key));
+        }
+
+        return batchResult(created, failed);
+    }
+
+    /**
+     * Changes the owners of a batch of cars on the ledger in one transaction.
+     * Every car is read before any is written; a car whose key is invalid, that
+     * does not exist, or that is given no new owner, is reported as failed and the
+     * other cars are still transferred.
+     *
+     * @param ctx the transaction context
+     * @param transfersJSON JSON object mapping each key to the new owner of the car
+     * @return the keys of the cars transferred, and the reason each failed key was not transferred
+     */
+    @Transaction()
+    public String changeOwnerBatch(final Context ctx, final String transfersJSON) {
+        ChaincodeStub stub = ctx.getStub();
+        Map<String, String> transfers = parseBatch(transfersJSON,
+                new GenericType<LinkedHashMap<String, String>>() { });
+
+        Map<String, Car> cars = new LinkedHashMap<String, Car>();
+        Map<String, String> failed = new LinkedHashMap<String, String>();
+        for (Map.Entry<String, String> transfer : transfers.entrySet()) {
+            String key = transfer.getKey();
+            if (!isValidKey(key)) {
+                failed.put(key, String.format("Car key \"%s\" is invalid", key));
+                continue;
+            }
+            if (transfer.getValue() == null) {
+                failed.put(key, String.format("Car %s has no new owner", key));
+                continue;
+            }
+            String carState = stub.getStringState(key);
+            if (carState.isEmpty()) {
+                failed.put(key, String.format("Car %s does not exist", key));
+            } else {
+                cars.put(key, genson.deserialize(carState, Car.class));
+            }
+        }
+
+        for (Map.Entry<String, Car> car : cars.entrySet()) {
+            transferCar(stub, car.getKey(), car.getValue(), transfers.get(car.getKey()));
+        }
+
+        return batchResult(new ArrayList<String>(cars.keySet()), failed);
+    }
+
+    /**
+     * Retrieves the cars of an owner from the ledger, using the owner index
+     * rather than scanning every car.
+     *
+     * @param ctx the transaction context
+     * @param owner the owner
+     * @return array of Cars owned by the owner, in key order
+     */
+    @Transaction()
+    public String queryCarsByOwner(final Context ctx, final String owner) throws Exception {
+        return queryCarsByIndex(ctx.getStub(), OWNER_INDEX, owner);
+    }
+
+    /**
+     * Retrieves the cars of a make from the ledger, using the make index rather
+     * than scanning every car.
+     *
+     * @param ctx the transaction context
+     * @param make the make
+     * @return array of Cars of the make, in key order
+     */
+    @Transaction()
+    public String queryCarsByMake(final Context ctx, final String make) throws Exception {
+        return queryCarsByIndex(ctx.getStub(), MAKE_INDEX, make);
+    }
+
+    /**
+     * Writes the owner and make index entries of cars created before the
+     * indexes were introduced, so that queryCarsByOwner and queryCarsByMake
+     * find them. Cars are indexed in key order, at most MAX_BATCH_SIZE per
+     * transaction; call again with the returned next key until it is empty.
+     * Indexing a car that is already indexed rewrites the same entries.
+     *
+     * @param ctx the transaction context
+     * @param startKey the key of the first car to index, or empty to start with the first car
+     * @return the number of cars indexed, and the key to start the next batch from
+     */
+    @Transaction()
+    public String indexCars(final Context ctx, final String startKey) throws Exception {
+        ChaincodeStub stub = ctx.getStub();
+
+        int indexedRecordsCount = 0;
+        String nextKey = "";
+
+        // Paginated queries are not allowed in a transaction that writes, so the range is cut short instead
+        try (QueryResultsIterator<KeyValue> results = stub.getStateByRange(startKey, "")) {
+            for (KeyValue result: results) {
+                if (indexedRecordsCount == MAX_BATCH_SIZE) {
+                    nextKey = result.getKey();
+                    break;
+                }
+                Car car = genson.deserialize(result.getStringValue(), Car.class);
+                putIndexEntries(stub, result.getKey(), car);
+                indexedRecordsCount++;
+            }
+        }
+
+        Map<String, Object> result = new LinkedHashMap<String, Object>();
+        result.put("indexedRecordsCount", indexedRecordsCount);
+        result.put("nextKey", nextKey);
+
+        final String response = genson.serialize(result);
+
+        return response;
+    }
+
+    /**
+     * Retrieves one page of all cars from the ledger. Pass the bookmark of the
+     * returned page to retrieve the next page; an empty bookmark retrieves the
+     * first page, and an empty bookmark is returned after the last page.
+     *
+     * @param ctx the transaction context
+     * @param pageSize the maximum number of cars to return
+     * @param bookmark the bookmark of the previous page, or empty for the first page
+     * @return the page of Cars, with the number of cars fetched and the bookmark
+     */
+    @Transaction()
+    public String queryAllCarsWithPagination(final Context ctx, final int pageSize, final String bookmark)
+            throws Exception {
+        ChaincodeStub stub = ctx.getStub();
+
+        if (pageSize < 1) {
+            String errorMessage = String.format("Page size %d must be positive", pageSize);
+            System.out.println(errorMessage);
+            throw new ChaincodeException(errorMessage, FabCarErrors.INVALID_PAGE_SIZE.toString());
+        }
+
+        List<CarQueryResult> queryResults = new ArrayList<CarQueryResult>();
+        Map<String, Object> page = new LinkedHashMap<String, Object>();
+
+        // Index entries have composite keys, which a range query over simple keys leaves out
+        try (QueryResultsIteratorWithMetadata<KeyValue> results = stub.getStateByRangeWithPagination("", "",
+                pageSize, bookmark)) {
+            for (KeyValue result: results) {
+                Car car = genson.deserialize(result.getStringValue(), Car.class);
+                queryResults.add(new CarQueryResult(result.getKey(), car));
+            }
+
+            page.put("records", queryResults);
+            page.put("fetchedRecordsCount", results.getMetadata().getFetchedRecordsCount());
+            page.put("bookmark", results.getMetadata().getBookmark());
+        }
+
+        final String response = genson.serialize(page);
+
+        return response;
+    }
+
+    private String queryCarsByIndex(final ChaincodeStub stub, final String index, final String value)
+            throws Exception {
+        List<CarQueryResult> queryResults = new ArrayList<CarQueryResult>();
+
+        try (QueryResultsIterator<KeyValue> results = stub.getStateByPartialCompositeKey(index, value)) {
+            for (KeyValue result: results) {
+                String key = CompositeKey.parseCompositeKey(result.getKey()).getAttributes().get(1);
+                Car car = genson.deserialize(stub.getStringState(key), Car.class);
+                queryResults.add(new CarQueryResult(key, car));
+            }
+        }
+
+        final String response = genson.serialize(queryResults);
+
+        return response;
+    }
+
+    private <T extends Map<String, ?>> T parseBatch(final String batchJSON, final GenericType<T> type) {
+        T batch;
+        try {
+            batch = genson.deserialize(batchJSON, type);
+        } catch (JsonBindingException | JsonStreamException e) {
+            String errorMessage = String.format("Invalid batch: %s", e.getMessage());
+            System.out.println(errorMessage);
+            throw new ChaincodeException(errorMessage, FabCarErrors.INVALID_BATCH.toString());
+        }
+
+        if (batch == null) {
+            String errorMessage = "Invalid batch: expected a JSON object";
+            System.out.println(errorMessage);
+            throw new ChaincodeException(errorMessage, FabCarErrors.INVALID_BATCH.toString());
+        }
+
+        if (batch.size() > MAX_BATCH_SIZE) {
+            String errorMessage = String.format("Batch of %d cars exceeds the limit of %d", batch.size(),
+                    MAX_BATCH_SIZE);
+            System.out.println(errorMessage);
+            throw new ChaincodeException(errorMessage, FabCarErrors.BATCH_TOO_LARGE.toString());
+        }
+
+        return batch;
+    }
+
+    /**
+     * Car keys are simple keys: the shim rejects an empty key, and keys starting
+     * with U+0000 are the composite keys of the indexes.
+     */
+    private static boolean isValidKey(final String key) {
+        return !key.isEmpty() && !key.startsWith(CompositeKey.NAMESPACE);
+    }
+
+    private String batchResult(final List<String> succeeded, final Map<String, String> failed) {
+        Map<String, Object> result = new LinkedHashMap<String, Object>();
+        result.put("succeeded", succeeded);
+        result.put("failed", failed);
+
+        final String response = genson.serialize(result);
+
+        return response;
+    }
+
+    private Car transferCar(final ChaincodeStub stub, final String key, final Car car, final String newOwner) {
         Car newCar = new Car(car.getMake(), car.getModel(), car.getColor(), newOwner);
         String newCarState = genson.serialize(newCar);
         stub.putStringState(key, newCarState);
 
+        if (!car.getOwner().equals(newOwner)) {
+            stub.delState(new CompositeKey(OWNER_INDEX, car.getOwner(), key).toString());
+            stub.putStringState(new CompositeKey(OWNER_INDEX, newOwner, key).toString(), INDEX_VALUE);
+        }
+
         return newCar;
     }
+
+    private void putCar(final ChaincodeStub stub, final String key, final Car car) {
+        String carState = genson.serialize(car);
+        stub.putStringState(key, carState);
+        putIndexEntries(stub, key, car);
+    }
+
+    private void putIndexEntries(final ChaincodeStub stub, final String key, final Car car) {
+        stub.putStringState(new CompositeKey(OWNER_INDEX, car.getOwner(), key).toString(), INDEX_VALUE);
+        stub.putStringState(new CompositeKey(MAKE_INDEX, car.getMake(), key).toString(), INDEX_VALUE);
+    }
 }
@@ -6,20 +6,28 @@ package org.hyperledger.fabric.samples.fabcar;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.ThrowableAssert.catchThrowable;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyZeroInteractions;
 import static org.mockito.Mockito.when;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
 
 import org.hyperledger.fabric.contract.Context;
+import org.hyperledger.fabric.protos.peer.ChaincodeShim.QueryResponseMetadata;
 import org.hyperledger.fabric.shim.ChaincodeException;
 import org.hyperledger.fabric.shim.ChaincodeStub;
+import org.hyperledger.fabric.shim.ledger.CompositeKey;
 import org.hyperledger.fabric.shim.ledger.KeyValue;
 import org.hyperledger.fabric.shim.ledger.QueryResultsIterator;
+import org.hyperledger.fabric.shim.ledger.QueryResultsIteratorWithMetadata;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.mockito.InOrder;
@@ -87,6 +95,90 @@ public final class FabCarTest {
 
     }
 
+    private final class MockIndexResultsIterator implements QueryResultsIterator<KeyValue> {
+
+        private final List<KeyValue> entryList;
+
+        MockIndexResultsIterator(final String index, final String value, final String... keys) {
+            super();
+
+            entryList = new ArrayList<KeyValue>();
+
+            for (String key : keys) {
+                entryList.add(new MockKeyValue(new CompositeKey(index, value, key).toString(), "\u0000"));
+            }
+        }
+
+        @Override
+        public Iterator<KeyValue> iterator() {
+            return entryList.iterator();
+        }
+
+        @Override
+        public void close() throws Exception {
+            // do nothing
+        }
+
+    }
+
+    private final class MockCarRangeIterator implements QueryResultsIterator<KeyValue> {
+
+        private final List<KeyValue> carList;
+
+        MockCarRangeIterator(final int count) {
+            super();
+
+            carList = new ArrayList<KeyValue>();
+
+            for (int i = 0; i < count; i++) {
+                carList.add(new MockKeyValue(String.format("CAR%04d", i),
+                        "{\"color\":\"grey\",\"make\":\"VW\",\"model\":\"Polo\",\"owner\":\"Mary\"}"));
+            }
+        }
+
+        @Override
+        public Iterator<KeyValue> iterator() {
+            return carList.iterator();
+        }
+
+        @Override
+        public void close() throws Exception {
+            // do nothing
+        }
+
+    }
+
+    private final class MockCarPageIterator implements QueryResultsIteratorWithMetadata<KeyValue> {
+
+        private final List<KeyValue> carList;
+
+        MockCarPageIterator() {
+            super();
+
+            carList = Arrays.asList(
+                    new MockKeyValue("CAR0",
+                            "{\"color\":\"blue\",\"make\":\"Toyota\",\"model\":\"Prius\",\"owner\":\"Tomoko\"}"),
+                    new MockKeyValue("CAR1",
+                            "{\"color\":\"red\",\"make\":\"Ford\",\"model\":\"Mustang\",\"owner\":\"Brad\"}"));
+        }
+
+        @Override
+        public Iterator<KeyValue> iterator() {
+            return carList.iterator();
+        }
+
+        @Override
+        public QueryResponseMetadata getMetadata() {
+            return QueryResponseMetadata.newBuilder().setFetchedRecordsCount(2).setBookmark("CAR2").build();
+        }
+
+        @Override
+        public void close() throws Exception {
+            // do nothing
+        }
+
+    }
+
     @Test
     public void invokeUnknownTransaction() {
         FabCar contract = new FabCar();
@@ -170,6 +262,21 @@ public final class FabCarTest {
                 "{\"color\":\"brown\",\"make\":\"Holden\",\"model\":\"Barina\",\"owner\":\"Shotaro\"}");
     }
 
+    @Test
+    void invokeInitLedgerTransactionIndexesCars() {
+        FabCar contract = new FabCar();
+        Context ctx = mock(Context.class);
+        ChaincodeStub stub = mock(ChaincodeStub.class);
+        when(ctx.getStub()).thenReturn(stub);
+
+        contract.initLedger(ctx);
+
+        verify(stub).putStringState(new CompositeKey("owner~key", "Tomoko", "CAR0").toString(), "\u0000");
+        verify(stub).putStringState(new CompositeKey("make~key", "Toyota", "CAR0").toString(), "\u0000");
+        verify(stub).putStringState(new CompositeKey("owner~key", "Shotaro", "CAR9").toString(), "\u0000");
+        verify(stub).putStringState(new CompositeKey("make~key", "Holden", "CAR9").toString(), "\u0000");
+    }
+
     @Nested
     class InvokeCreateCarTransaction {
 
@@ -203,6 +310,20 @@ public final class FabCarTest {
 
             assertThat(car).isEqualTo(new Car("Nissan", "Leaf", "green", "Siobhán"));
         }
+
+        @Test
+        public void whenCarDoesNotExistIndexesCar() {
+            FabCar contract = new FabCar();
+            Context ctx = mock(Context.class);
+            ChaincodeStub stub = mock(ChaincodeStub.class);
+            when(ctx.getStub()).thenReturn(stub);
+            when(stub.getStringState("CAR0")).thenReturn("");
+
+            contract.createCar(ctx, "CAR0", "Nissan", "Leaf", "green", "Siobhán");
+
+            verify(stub).putStringState(new CompositeKey("owner~key", "Siobhán", "CAR0").toString(), "\u0000");
+            verify(stub).putStringState(new CompositeKey("make~key", "Nissan", "CAR0").toString(), "\u0000");
+        }
     }
 
     @Test
@@ -244,6 +365,35 @@ public final class FabCarTest {
             assertThat(car).isEqualTo(new Car("Toyota", "Prius", "blue", "Dr Evil"));
         }
 
+        @Test
+        public void whenOwnerChangesMovesOwnerIndexEntry() {
+            FabCar contract = new FabCar();
+            Context ctx = mock(Context.class);
+            ChaincodeStub stub = mock(ChaincodeStub.class);
+            when(ctx.getStub()).thenReturn(stub);
+            when(stub.getStringState("CAR0"))
+                    .thenReturn("{\"color\":\"blue\",\"make\":\"Toyota\",\"model\":\"Prius\",\"owner\":\"Tomoko\"}");
+
+            contract.changeCarOwner(ctx, "CAR0", "Dr Evil");
+
+            verify(stub).delState(new CompositeKey("owner~key", "Tomoko", "CAR0").toString());
+            verify(stub).putStringState(new CompositeKey("owner~key", "Dr Evil", "CAR0").toString(), "\u0000");
+        }
+
+        @Test
+        public void whenOwnerIsUnchangedKeepsOwnerIndexEntry() {
+            FabCar contract = new FabCar();
+            Context ctx = mock(Context.class);
+            ChaincodeStub stub = mock(ChaincodeStub.class);
+            when(ctx.getStub()).thenReturn(stub);
+            when(stub.getStringState("CAR0"))
+                    .thenReturn("{\"color\":\"blue\",\"make\":\"Toyota\",\"model\":\"Prius\",\"owner\":\"Tomoko\"}");
+
+            contract.changeCarOwner(ctx, "CAR0", "Tomoko");
+
+            verify(stub, never()).delState(new CompositeKey("owner~key", "Tomoko", "CAR0").toString());
+        }
+
         @Test
         public void whenCarDoesNotExist() {
             FabCar contract = new FabCar();
@@ -261,4 +411,273 @@ public final class FabCarTest {
             assertThat(((ChaincodeException) thrown).getPayload()).isEqualTo("CAR_NOT_FOUND".getBytes());
         }
     }
+
+    @Test
+    void invokeQueryCarsByOwnerTransaction() throws Exception {
+        FabCar contract = new FabCar();
+        Context ctx = mock(Context.class);
+        ChaincodeStub stub = mock(ChaincodeStub.class);
+        when(ctx.getStub()).thenReturn(stub);
+        when(stub.getStateByPartialCompositeKey("owner~key", "Brad"))
+                .thenReturn(new MockIndexResultsIterator("owner~key", "Brad", "CAR1", "CAR3"));
+        when(stub.getStringState("CAR1"))
+                .thenReturn("{\"color\":\"red\",\"make\":\"Ford\",\"model\":\"Mustang\",\"owner\":\"Brad\"}");
+        when(stub.getStringState("CAR3"))
+                .thenReturn("{\"color\":\"yellow\",\"make\":\"Volkswagen\",\"model\":\"Passat\",\"owner\":\"Brad\"}");
+
+        String cars = contract.queryCarsByOwner(ctx, "Brad");
+
+        assertThat(cars).isEqualTo("[{\"key\":\"CAR1\","
+                + "\"record\":{\"color\":\"red\",\"make\":\"Ford\",\"model\":\"Mustang\",\"owner\":\"Brad\"}},"
+                + "{\"key\":\"CAR3\","
+                + "\"record\":{\"color\":\"yellow\",\"make\":\"Volkswagen\",\"model\":\"Passat\","
+                + "\"owner\":\"Brad\"}}]");
+    }
+
+    @Test
+    void invokeQueryCarsByMakeTransaction() throws Exception {
+        FabCar contract = new FabCar();
+        Context ctx = mock(Context.class);
+        ChaincodeStub stub = mock(ChaincodeStub.class);
+        when(ctx.getStub()).thenReturn(stub);
+        when(stub.getStateByPartialCompositeKey("make~key", "Toyota"))
+                .thenReturn(new MockIndexResultsIterator("make~key", "Toyota", "CAR0"));
+        when(stub.getStringState("CAR0"))
+                .thenReturn("{\"color\":\"blue\",\"make\":\"Toyota\",\"model\":\"Prius\",\"owner\":\"Tomoko\"}");
+
+        String cars = contract.queryCarsByMake(ctx, "Toyota");
+
+        assertThat(cars).isEqualTo("[{\"key\":\"CAR0\","
+                + "\"record\":{\"color\":\"blue\",\"make\":\"Toyota\",\"model\":\"Prius\",\"owner\":\"Tomoko\"}}]");
+    }
+
+    @Nested
+    class IndexCarsTransaction {
+
+        @Test
+        public void whenAllCarsFitInOneBatch() throws Exception {
+            FabCar contract = new FabCar();
+            Context ctx = mock(Context.class);
+            ChaincodeStub stub = mock(ChaincodeStub.class);
+            when(ctx.getStub()).thenReturn(stub);
+            when(stub.getStateByRange("", "")).thenReturn(new MockCarResultsIterator());
+
+            String result = contract.indexCars(ctx, "");
+
+            assertThat(result).isEqualTo("{\"indexedRecordsCount\":5,\"nextKey\":\"\"}");
+            verify(stub).putStringState(new CompositeKey("owner~key", "Tomoko", "CAR0").toString(), "\u0000");
+            verify(stub).putStringState(new CompositeKey("make~key", "Toyota", "CAR0").toString(), "\u0000");
+            verify(stub).putStringState(new CompositeKey("owner~key", "Shotaro", "CAR9").toString(), "\u0000");
+            verify(stub).putStringState(new CompositeKey("make~key", "Holden", "CAR9").toString(), "\u0000");
+            verify(stub, never()).putStringState(eq("CAR0"), anyString());
+        }
+
+        @Test
+        public void whenCarsExceedOneBatch() throws Exception {
+            FabCar contract = new FabCar();
+            Context ctx = mock(Context.class);
+            ChaincodeStub stub = mock(ChaincodeStub.class);
+            when(ctx.getStub()).thenReturn(stub);
+            when(stub.getStateByRange("CAR0000", "")).thenReturn(new MockCarRangeIterator(FabCar.MAX_BATCH_SIZE + 2));
+
+            String result = contract.indexCars(ctx, "CAR0000");
+
+            assertThat(result).isEqualTo("{\"indexedRecordsCount\":500,\"nextKey\":\"CAR0500\"}");
+            verify(stub).putStringState(new CompositeKey("owner~key", "Mary", "CAR0499").toString(), "\u0000");
+            verify(stub, never()).putStringState(new CompositeKey("owner~key", "Mary", "CAR0500").toString(),
+                    "\u0000");
+        }
+    }
+
+    @Nested
+    class QueryAllCarsWithPaginationTransaction {
+
+        @Test
+        public void whenPageSizeIsValid() throws Exception {
+            FabCar contract = new FabCar();
+            Context ctx = mock(Context.class);
+            ChaincodeStub stub = mock(ChaincodeStub.class);
+            when(ctx.getStub()).thenReturn(stub);
+            when(stub.getStateByRangeWithPagination("", "", 2, "")).thenReturn(new MockCarPageIterator());
+
+            String page = contract.queryAllCarsWithPagination(ctx, 2, "");
+
+            assertThat(page).isEqualTo("{\"records\":[{\"key\":\"CAR0\","
+                    + "\"record\":{\"color\":\"blue\",\"make\":\"Toyota\",\"model\":\"Prius\",\"owner\":\"Tomoko\"}},"
+                    + "{\"key\":\"CAR1\","
+                    + "\"record\":{\"color\":\"red\",\"make\":\"Ford\",\"model\":\"Mustang\",\"owner\":\"Brad\"}}],"
+                    + "\"fetchedRecordsCount\":2,\"bookmark\":\"CAR2\"}");
+        }
+
+        @Test
+        public void whenPageSizeIsNotPositive() {
+            FabCar contract = new FabCar();
+            Context ctx = mock(Context.class);
+            ChaincodeStub stub = mock(ChaincodeStub.class);
+            when(ctx.getStub()).thenReturn(stub);
+
+            Throwable thrown = catchThrowable(() -> {
+                contract.queryAllCarsWithPagination(ctx, 0, "");
+            });
+
+            assertThat(thrown).isInstanceOf(ChaincodeException.class).hasNoCause()
+                    .hasMessage("Page size 0 must be positive");
+            assertThat(((ChaincodeException) thrown).getPayload()).isEqualTo("INVALID_PAGE_SIZE".getBytes());
+        }
+    }
+
+    @Nested
+    class CreateCarsBatchTransaction {
+
+        @Test
+        public void whenSomeCarsExist() {
+            FabCar contract = new FabCar();
+            Context ctx = mock(Context.class);
+            ChaincodeStub stub = mock(ChaincodeStub.class);
+            when(ctx.getStub()).thenReturn(stub);
+            when(stub.getStringState("CAR0"))
+                    .thenReturn("{\"color\":\"blue\",\"make\":\"Toyota\",\"model\":\"Prius\",\"owner\":\"Tomoko\"}");
+            when(stub.getStringState("CAR10")).thenReturn("");
+
+            String result = contract.createCarsBatch(ctx, "{"
+                    + "\"CAR0\":{\"make\":\"Nissan\",\"model\":\"Leaf\",\"color\":\"green\",\"owner\":\"Mary\"},"
+                    + "\"CAR10\":{\"make\":\"VW\",\"model\":\"Polo\",\"color\":\"Grey\",\"owner\":\"Mary\"}}");
+
+            assertThat(result).isEqualTo("{\"succeeded\":[\"CAR10\"],"
+                    + "\"failed\":{\"CAR0\":\"Car CAR0 already exists\"}}");
+            verify(stub).putStringState("CAR10",
+                    "{\"color\":\"Grey\",\"make\":\"VW\",\"model\":\"Polo\",\"owner\":\"Mary\"}");
+            verify(stub).putStringState(new CompositeKey("owner~key", "Mary", "CAR10").toString(), "\u0000");
+            verify(stub).putStringState(new CompositeKey("make~key", "VW", "CAR10").toString(), "\u0000");
+            verify(stub, never()).putStringState(eq("CAR0"), anyString());
+        }
+
+        @Test
+        public void whenCarsAreIncomplete() {
+            FabCar contract = new FabCar();
+            Context ctx = mock(Context.class);
+            ChaincodeStub stub = mock(ChaincodeStub.class);
+            when(ctx.getStub()).thenReturn(stub);
+
+            String result = contract.createCarsBatch(ctx, "{\"CAR10\":{\"make\":\"VW\"},\"CAR11\":null}");
+
+            assertThat(result).isEqualTo("{\"succeeded\":[],"
+                    + "\"failed\":{\"CAR10\":\"Car CAR10 is incomplete\",\"CAR11\":\"Car CAR11 is incomplete\"}}");
+            verifyZeroInteractions(stub);
+        }
+
+        @Test
+        public void whenKeysAreInvalid() {
+            FabCar contract = new FabCar();
+            Context ctx = mock(Context.class);
+            ChaincodeStub stub = mock(ChaincodeStub.class);
+            when(ctx.getStub()).thenReturn(stub);
+            when(stub.getStringState("CAR10")).thenReturn("");
+
+            String result = contract.createCarsBatch(ctx, "{"
+                    + "\"\":{\"make\":\"VW\",\"model\":\"Polo\",\"color\":\"Grey\",\"owner\":\"Mary\"},"
+                    + "\"\\u0000owner~key\":{\"make\":\"VW\",\"model\":\"Polo\",\"color\":\"Grey\",\"owner\":\"Mary\"},"
+                    + "\"CAR10\":{\"make\":\"VW\",\"model\":\"Polo\",\"color\":\"Grey\",\"owner\":\"Mary\"}}");
+
+            assertThat(result).isEqualTo("{\"succeeded\":[\"CAR10\"],"
+                    + "\"failed\":{\"\":\"Car key \\\"\\\" is invalid\","
+                    + "\"\\u0000owner~key\":\"Car key \\\"\\u0000owner~key\\\" is invalid\"}}");
+            verify(stub).putStringState("CAR10",
+                    "{\"color\":\"Grey\",\"make\":\"VW\",\"model\":\"Polo\",\"owner\":\"Mary\"}");
+            verify(stub, never()).getStringState("");
+            verify(stub, never()).putStringState(eq(""), anyString());
+        }
+
+        @Test
+        public void whenBatchIsNotJson() {
+            FabCar contract = new FabCar();
+            Context ctx = mock(Context.class);
+
+            Throwable thrown = catchThrowable(() -> {
+                contract.createCarsBatch(ctx, "[not json");
+            });
+
+            assertThat(thrown).isInstanceOf(ChaincodeException.class).hasNoCause()
+                    .hasMessageStartingWith("Invalid batch: ");
+            assertThat(((ChaincodeException) thrown).getPayload()).isEqualTo("INVALID_BATCH".getBytes());
+        }
+
+        @Test
+        public void whenBatchIsNull() {
+            FabCar contract = new FabCar();
+            Context ctx = mock(Context.class);
+
+            Throwable thrown = catchThrowable(() -> {
+                contract.createCarsBatch(ctx, "null");
+            });
+
+            assertThat(thrown).isInstanceOf(ChaincodeException.class).hasNoCause()
+                    .hasMessage("Invalid batch: expected a JSON object");
+            assertThat(((ChaincodeException) thrown).getPayload()).isEqualTo("INVALID_BATCH".getBytes());
+        }
+
+        @Test
+        public void whenBatchIsTooLarge() {
+            FabCar contract = new FabCar();
+            Context ctx = mock(Context.class);
+            StringBuilder cars = new StringBuilder("{");
+            for (int i = 0; i <= FabCar.MAX_BATCH_SIZE; i++) {
+                if (i > 0) {
+                    cars.append(',');
+                }
+                cars.append("\"CAR").append(i)
+                        .append("\":{\"make\":\"VW\",\"model\":\"Polo\",\"color\":\"Grey\",\"owner\":\"Mary\"}");
+            }
+            cars.append('}');
+
+            Throwable thrown = catchThrowable(() -> {
+                contract.createCarsBatch(ctx, cars.toString());
+            });
+
+            assertThat(thrown).isInstanceOf(ChaincodeException.class).hasNoCause()
+                    .hasMessage("Batch of 501 cars exceeds the limit of 500");
+            assertThat(((ChaincodeException) thrown).getPayload()).isEqualTo("BATCH_TOO_LARGE".getBytes());
+        }
+    }
+
+    @Nested
+    class ChangeOwnerBatchTransaction {
+
+        @Test
+        public void whenSomeCarsCannotBeTransferred() {
+            FabCar contract = new FabCar();
+            Context ctx = mock(Context.class);
+            ChaincodeStub stub = mock(ChaincodeStub.class);
+            when(ctx.getStub()).thenReturn(stub);
+            when(stub.getStringState("CAR0"))
+                    .thenReturn("{\"color\":\"blue\",\"make\":\"Toyota\",\"model\":\"Prius\",\"owner\":\"Tomoko\"}");
+            when(stub.getStringState("CAR99")).thenReturn("");
+
+            String result = contract.changeOwnerBatch(ctx,
+                    "{\"CAR0\":\"Dr Evil\",\"CAR99\":\"Dr Evil\",\"CAR1\":null}");
+
+            assertThat(result).isEqualTo("{\"succeeded\":[\"CAR0\"],"
+                    + "\"failed\":{\"CAR99\":\"Car CAR99 does not exist\",\"CAR1\":\"Car CAR1 has no new owner\"}}");
+            verify(stub).putStringState("CAR0",
+                    "{\"color\":\"blue\",\"make\":\"Toyota\",\"model\":\"Prius\",\"owner\":\"Dr Evil\"}");
+            verify(stub).delState(new CompositeKey("owner~key", "Tomoko", "CAR0").toString());
+            verify(stub).putStringState(new CompositeKey("owner~key", "Dr Evil", "CAR0").toString(), "\u0000");
+            verify(stub, never()).getStringState("CAR1");
+        }
+
+        @Test
+        public void whenKeysAreInvalid() {
+            FabCar contract = new FabCar();
+            Context ctx = mock(Context.class);
+            ChaincodeStub stub = mock(ChaincodeStub.class);
+            when(ctx.getStub()).thenReturn(stub);
+
+            String result = contract.changeOwnerBatch(ctx, "{\"\":\"Dr Evil\",\"\\u0000make~key\":\"Dr Evil\"}");
+
+            assertThat(result).isEqualTo("{\"succeeded\":[],"
+                    + "\"failed\":{\"\":\"Car key \\\"\\\" is invalid\","
+                    + "\"\\u0000make~key\":\"Car key \\\"\\u0000make~key\\\" is invalid\"}}");
+            verifyZeroInteractions(stub);
+        }
+    }
 }
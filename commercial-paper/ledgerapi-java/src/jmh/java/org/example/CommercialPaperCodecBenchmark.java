@@ -0,0 +1,78 @@
+/*
+SPDX-License-Identifier: Apache-2.0
+*/
+package org.example;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.example.ledgerapi.State;
+import org.json.JSONObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+
+/**
+ * Compares the reflective JSONObject serialization of commercial papers with
+ * CommercialPaperCodec. The setup fails if the two serializations differ. Run
+ * with ./gradlew jmh
+ */
+@org.openjdk.jmh.annotations.State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class CommercialPaperCodecBenchmark {
+
+    private final CommercialPaper paper = CommercialPaper
+            .createInstance("MagnetoCorp", "00001", "2020-05-31", "2020-11-30", 5000000, "DigiBank", "")
+            .setTrading();
+    private final byte[] paperJSON = State.serialize(paper);
+
+    @Setup
+    public void checkIdenticalOutput() {
+        if (!Arrays.equals(paperJSON, CommercialPaperCodec.serialize(paper))) {
+            throw new IllegalStateException("CommercialPaperCodec output differs from JSONObject: "
+                    + new String(CommercialPaperCodec.serialize(paper), UTF_8));
+        }
+    }
+
+    /**
+     * @return the paper serialized with new JSONObject(paper)
+     */
+    @Benchmark
+    public byte[] serializeJSONObject() {
+        return State.serialize(paper);
+    }
+
+    /**
+     * @return the paper serialized with CommercialPaperCodec
+     */
+    @Benchmark
+    public byte[] serializeCodec() {
+        return CommercialPaper.serialize(paper);
+    }
+
+    /**
+     * @return the paper deserialized through JSONObject, as CommercialPaper
+     *         previously did
+     */
+    @Benchmark
+    public CommercialPaper deserializeJSONObject() {
+        JSONObject json = new JSONObject(new String(paperJSON, UTF_8));
+        return CommercialPaper.createInstance(json.getString("issuer"), json.getString("paperNumber"),
+                json.getString("issueDateTime"), json.getString("maturityDateTime"), json.getInt("faceValue"),
+                json.getString("owner"), json.getString("state"));
+    }
+
+    /**
+     * @return the paper deserialized with CommercialPaperCodec
+     */
+    @Benchmark
+    public CommercialPaper deserializeCodec() {
+        return CommercialPaper.deserialize(paperJSON);
+    }
+}
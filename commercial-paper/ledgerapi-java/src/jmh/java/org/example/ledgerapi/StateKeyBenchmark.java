@@ -0,0 +1,84 @@
+/*
+SPDX-License-Identifier: Apache-2.0
+*/
+package org.example.ledgerapi;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.hyperledger.fabric.shim.ledger.CompositeKey;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+
+/**
+ * Compares forming the ledger key of a state the way StateListImpl used to,
+ * splitting the string key and logging on every call, with a precomputed
+ * StateKey. The logging is written to a discarding stream, so the legacy
+ * figures leave out the cost of console output. Run with ./gradlew jmh
+ */
+@org.openjdk.jmh.annotations.State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class StateKeyBenchmark {
+
+    private static final String LIST_NAME = "PaperList";
+
+    private final PrintStream out = new PrintStream(new OutputStream() {
+        @Override
+        public void write(int b) {
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+        }
+    });
+
+    private final String key = State.makeKey(new String[] { "00001" });
+    private final StateKey stateKey = StateKey.of("00001");
+
+    /**
+     * @return the ledger key as formed by the previous addState()
+     */
+    @Benchmark
+    public String addStateKeyLegacy() {
+        out.println("Adding state " + LIST_NAME);
+        out.println("splitting key " + key + "   " + Arrays.asList(key.split(":")));
+        String[] splitKey = key.split(":");
+        out.println("Split key " + Arrays.asList(splitKey));
+        CompositeKey ledgerKey = new CompositeKey(LIST_NAME, splitKey);
+        out.println("ledgerkey is ");
+        out.println(ledgerKey);
+        return ledgerKey.toString();
+    }
+
+    /**
+     * @return the ledger key as formed by the previous getState() and updateState()
+     */
+    @Benchmark
+    public String getStateKeyLegacy() {
+        out.println("splitting key " + key + "   " + Arrays.asList(key.split(":")));
+        return new CompositeKey(LIST_NAME, key.split(":")).toString();
+    }
+
+    /**
+     * @return the ledger key of a precomputed StateKey
+     */
+    @Benchmark
+    public String stateKey() {
+        return stateKey.getLedgerKey(LIST_NAME);
+    }
+
+    /**
+     * @return the ledger key of a StateKey parsed from its string form, as used
+     *         by getState(String)
+     */
+    @Benchmark
+    public String parsedStateKey() {
+        return StateKey.parse(key).getLedgerKey(LIST_NAME);
+    }
+}
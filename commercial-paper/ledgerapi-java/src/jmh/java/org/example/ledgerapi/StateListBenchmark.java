@@ -0,0 +1,142 @@
+/*
+SPDX-License-Identifier: Apache-2.0
+*/
+package org.example.ledgerapi;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.lang.reflect.Proxy;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.hyperledger.fabric.contract.Context;
+import org.hyperledger.fabric.shim.ChaincodeStub;
+import org.hyperledger.fabric.shim.ledger.CompositeKey;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Compares StateListImpl with CachingStateList on the calls a purchase makes:
+ * the state is read to check it, read again when it is updated, written, and
+ * one of its index entries is moved. Each transaction buys a batch of states.
+ *
+ * The stub keeps world state in memory, and every call to it burns a fixed
+ * amount of CPU to stand in for the round trip to the peer, so the figures
+ * reflect the number of stub calls and serializations rather than the cost of a
+ * real network. Run with ./gradlew jmh
+ */
+@org.openjdk.jmh.annotations.State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class StateListBenchmark {
+
+    private static final String LIST_NAME = "BenchmarkList";
+    private static final String OWNER_INDEX = "owner";
+
+    private static final StateSerializer SERIALIZER = state -> ((Holding) state).toJson().getBytes(UTF_8);
+    private static final StateDeserializer DESERIALIZER = data -> Holding.fromJson(new String(data, UTF_8));
+
+    @Param({ "1", "10", "100" })
+    public int batchSize;
+
+    @Param({ "2000" })
+    public long roundTripTokens;
+
+    private Map<String, byte[]> worldState;
+    private Context ctx;
+    private StateKey[] keys;
+
+    /**
+     * A state held by an owner, serialized as a small JSON object
+     */
+    private static class Holding extends State {
+        private String owner;
+
+        Holding(String number, String owner) {
+            setStateKey(StateKey.of(number));
+            this.owner = owner;
+        }
+
+        String toJson() {
+            return "{\"number\":\"" + getStateKey() + "\",\"owner\":\"" + owner + "\"}";
+        }
+
+        static Holding fromJson(String json) {
+            int number = json.indexOf("\"number\":\"") + 10;
+            int owner = json.indexOf("\"owner\":\"") + 9;
+            return new Holding(json.substring(number, json.indexOf('"', number)),
+                    json.substring(owner, json.indexOf('"', owner)));
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        worldState = new HashMap<>();
+        ChaincodeStub stub = (ChaincodeStub) Proxy.newProxyInstance(ChaincodeStub.class.getClassLoader(),
+                new Class<?>[] { ChaincodeStub.class }, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                    case "getState":
+                        Blackhole.consumeCPU(roundTripTokens);
+                        return worldState.get((String) args[0]);
+                    case "putState":
+                        Blackhole.consumeCPU(roundTripTokens);
+                        worldState.put((String) args[0], (byte[]) args[1]);
+                        return null;
+                    case "delState":
+                        Blackhole.consumeCPU(roundTripTokens);
+                        worldState.remove((String) args[0]);
+                        return null;
+                    case "createCompositeKey":
+                        return new CompositeKey((String) args[0], (String[]) args[1]);
+                    default:
+                        throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+        ctx = new Context(stub);
+
+        StateList stateList = StateList.getStateList(ctx, LIST_NAME, SERIALIZER, DESERIALIZER);
+        keys = new StateKey[batchSize];
+        for (int i = 0; i < batchSize; i++) {
+            Holding holding = new Holding(String.format("%05d", i), "Seller");
+            keys[i] = holding.getStateKey();
+            stateList.addState(holding);
+            stateList.addIndexEntry(OWNER_INDEX, new String[] { holding.owner }, holding);
+        }
+    }
+
+    /**
+     * @return the list after a batch of purchases that write as they go
+     */
+    @Benchmark
+    public StateList buyBatch() {
+        return buy(StateList.getStateList(ctx, LIST_NAME, SERIALIZER, DESERIALIZER));
+    }
+
+    /**
+     * @return the list after a batch of purchases buffered until flush
+     */
+    @Benchmark
+    public StateList buyBatchCaching() {
+        return buy(StateList.getCachingStateList(ctx, LIST_NAME, SERIALIZER, DESERIALIZER));
+    }
+
+    private StateList buy(StateList stateList) {
+        for (StateKey key : keys) {
+            Holding checked = (Holding) stateList.getState(key);
+            Holding holding = (Holding) stateList.getState(key);
+            String buyer = checked.owner.equals("Seller") ? "Buyer" : "Seller";
+            stateList.removeIndexEntry(OWNER_INDEX, new String[] { holding.owner }, holding);
+            holding.owner = buyer;
+            stateList.updateState(holding);
+            stateList.addIndexEntry(OWNER_INDEX, new String[] { holding.owner }, holding);
+        }
+        return stateList.flush();
+    }
+}
@@ -0,0 +1,432 @@
+/*
+SPDX-License-Identifier: Apache-2.0
+*/
+package org.example;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.logging.Logger;
+
+import org.example.ledgerapi.State;
+import org.example.ledgerapi.StateKey;
+import org.example.ledgerapi.StateModification;
+import org.example.ledgerapi.StatePage;
+import org.hyperledger.fabric.contract.Context;
+import org.hyperledger.fabric.contract.ContractInterface;
+import org.hyperledger.fabric.contract.annotation.Transaction;
+import org.hyperledger.fabric.shim.ChaincodeStub;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+/**
+ * The commercial paper smart contract logic shared by the contracts of each
+ * organization, which extend it and add their own contract annotations
+ */
+public abstract class AbstractCommercialPaperContract implements ContractInterface {
+
+    // use the classname for the logger, this way you can refactor
+    private final static Logger LOG = Logger.getLogger(AbstractCommercialPaperContract.class.getName());
+
+    // Largest page of papers returned by a single query
+    public final static int MAX_PAGE_SIZE = 1000;
+
+    // Largest number of papers issued or bought by a single batch transaction
+    public final static int MAX_BATCH_SIZE = 1000;
+
+    @Override
+    public Context createContext(ChaincodeStub stub) {
+        return new CommercialPaperContext(stub);
+    }
+
+    /**
+     * Write the papers of a successful transaction, which the paper list buffers
+     * until the transaction function returns
+     */
+    @Override
+    public void afterTransaction(Context ctx, Object result) {
+        ((CommercialPaperContext) ctx).paperList.flush();
+    }
+
+    /**
+     * Instantiate to perform any setup of the ledger that might be required.
+     *
+     * @param {Context} ctx the transaction context
+     */
+    @Transaction
+    public void instantiate(CommercialPaperContext ctx) {
+        // No implementation required with this example
+        // It could be where data migration is performed, if necessary
+        LOG.info("No data migration to perform");
+    }
+
+    /**
+     * Issue commercial paper
+     *
+     * @param {Context} ctx the transaction context
+     * @param {String} issuer commercial paper issuer
+     * @param {Integer} paperNumber paper number for this issuer
+     * @param {String} issueDateTime paper issue date
+     * @param {String} maturityDateTime paper maturity date
+     * @param {Integer} faceValue face value of paper
+     */
+    @Transaction
+    public CommercialPaper issue(CommercialPaperContext ctx, String issuer, String paperNumber, String issueDateTime,
+            String maturityDateTime, int faceValue) {
+
+        // create an instance of the paper
+        CommercialPaper paper = CommercialPaper.createInstance(issuer, paperNumber, issueDateTime, maturityDateTime,
+                faceValue,issuer,"");
+
+        // Smart contract, rather than paper, moves paper into ISSUED state
+        paper.setIssued();
+
+        // Newly issued paper is owned by the issuer
+        paper.setOwner(issuer);
+
+        // Add the paper to the list of all similar commercial papers in the ledger
+        // world state
+        ctx.paperList.addPaper(paper);
+
+        // Must return a serialized paper to caller of smart contract
+        return paper;
+    }
+
+    /**
+     * Buy commercial paper
+     *
+     * @param {Context} ctx the transaction context
+     * @param {String} issuer commercial paper issuer
+     * @param {Integer} paperNumber paper number for this issuer
+     * @param {String} currentOwner current owner of paper
+     * @param {String} newOwner new owner of paper
+     * @param {Integer} price price paid for this paper
+     * @param {String} purchaseDateTime time paper was purchased (i.e. traded)
+     */
+    @Transaction
+    public CommercialPaper buy(CommercialPaperContext ctx, String issuer, String paperNumber, String currentOwner,
+            String newOwner, int price, String purchaseDateTime) {
+
+        // Retrieve the current paper using key fields provided
+        CommercialPaper paper = ctx.paperList.getPaper(StateKey.of(paperNumber));
+
+        transfer(paper, issuer, paperNumber, currentOwner, newOwner);
+
+        // Update the paper
+        ctx.paperList.updatePaper(paper);
+        return paper;
+    }
+
+    /**
+     * Issue a batch of commercial papers in one transaction. Each paper is
+     * validated on its own: a paper that fails is reported in the result and
+     * left out, and the other papers are still issued.
+     *
+     * @param {Context} ctx the transaction context
+     * @param {String} papersJSON JSON array of papers to issue, each an object
+     *                 with issuer, paperNumber, issueDateTime, maturityDateTime
+     *                 and faceValue
+     * @return JSON object with the number of papers issued and failed, and a
+     *         result per paper in batch order
+     */
+    @Transaction
+    public String issueBatch(CommercialPaperContext ctx, String papersJSON) {
+        JSONArray specs = parseBatch(papersJSON);
+        JSONArray results = new JSONArray();
+        List<CommercialPaper> papers = new ArrayList<>();
+        Set<String> paperNumbers = new HashSet<>();
+
+        for (int i = 0; i < specs.length(); i++) {
+            JSONObject result = new JSONObject().put("index", i);
+            try {
+                JSONObject spec = specs.getJSONObject(i);
+                String issuer = spec.getString("issuer");
+                String paperNumber = spec.getString("paperNumber");
+                result.put("paperNumber", paperNumber);
+
+                if (!paperNumbers.add(paperNumber)) {
+                    throw new RuntimeException("Paper " + issuer + paperNumber + " appears more than once in the batch");
+                }
+                if (ctx.paperList.getPaper(StateKey.of(paperNumber)) != null) {
+                    throw new RuntimeException("Paper " + issuer + paperNumber + " already exists");
+                }
+
+                CommercialPaper paper = CommercialPaper.createInstance(issuer, paperNumber,
+                        spec.getString("issueDateTime"), spec.getString("maturityDateTime"), spec.getInt("faceValue"),
+                        issuer, "");
+                paper.setIssued();
+                // Reject an invalid maturity date here, rather than failing the whole batch when it is indexed
+                PaperList.maturityDate(paper);
+
+                papers.add(paper);
+                result.put("state", paper.getState());
+            } catch (RuntimeException e) {
+                result.put("error", e.getMessage());
+            }
+            results.put(result);
+        }
+
+        ctx.paperList.addPapers(papers);
+        return batchResult(papers.size(), results);
+    }
+
+    /**
+     * Buy a batch of commercial papers in one transaction. Each purchase is
+     * validated on its own: a purchase that fails is reported in the result and
+     * left out, and the other purchases still take place. A paper can only be
+     * bought once per batch.
+     *
+     * @param {Context} ctx the transaction context
+     * @param {String} purchasesJSON JSON array of purchases, each an object with
+     *                 issuer, paperNumber, currentOwner, newOwner, price and
+     *                 purchaseDateTime
+     * @return JSON object with the number of papers bought and failed, and a
+     *         result per purchase in batch order
+     */
+    @Transaction
+    public String buyBatch(CommercialPaperContext ctx, String purchasesJSON) {
+        JSONArray specs = parseBatch(purchasesJSON);
+        JSONArray results = new JSONArray();
+        List<CommercialPaper> papers = new ArrayList<>();
+        Set<String> paperNumbers = new HashSet<>();
+
+        for (int i = 0; i < specs.length(); i++) {
+            JSONObject result = new JSONObject().put("index", i);
+            try {
+                JSONObject spec = specs.getJSONObject(i);
+                String issuer = spec.getString("issuer");
+                String paperNumber = spec.getString("paperNumber");
+                String currentOwner = spec.getString("currentOwner");
+                String newOwner = spec.getString("newOwner");
+                result.put("paperNumber", paperNumber);
+
+                if (!paperNumbers.add(paperNumber)) {
+                    throw new RuntimeException("Paper " + issuer + paperNumber + " appears more than once in the batch");
+                }
+
+                CommercialPaper paper = ctx.paperList.getPaper(StateKey.of(paperNumber));
+                if (paper == null) {
+                    throw new RuntimeException("Paper " + issuer + paperNumber + " does not exist");
+                }
+                transfer(paper, issuer, paperNumber, currentOwner, newOwner);
+
+                papers.add(paper);
+                result.put("owner", paper.getOwner()).put("state", paper.getState());
+            } catch (RuntimeException e) {
+                result.put("error", e.getMessage());
+            }
+            results.put(result);
+        }
+
+        ctx.paperList.updatePapers(papers);
+        return batchResult(papers.size(), results);
+    }
+
+    /**
+     * Redeem commercial paper
+     *
+     * @param {Context} ctx the transaction context
+     * @param {String} issuer commercial paper issuer
+     * @param {Integer} paperNumber paper number for this issuer
+     * @param {String} redeemingOwner redeeming owner of paper
+     * @param {String} redeemDateTime time paper was redeemed
+     */
+    @Transaction
+    public CommercialPaper redeem(CommercialPaperContext ctx, String issuer, String paperNumber, String redeemingOwner,
+            String redeemDateTime) {
+
+        CommercialPaper paper = ctx.paperList.getPaper(StateKey.of(paperNumber));
+
+        // Check paper is not REDEEMED
+        if (paper.isRedeemed()) {
+            throw new RuntimeException("Paper " + issuer + paperNumber + " already redeemed");
+        }
+
+        // Verify that the redeemer owns the commercial paper before redeeming it
+        if (paper.getOwner().equals(redeemingOwner)) {
+            paper.setOwner(paper.getIssuer());
+            paper.setRedeemed();
+        } else {
+            throw new RuntimeException("Redeeming owner does not own paper" + issuer + paperNumber);
+        }
+
+        ctx.paperList.updatePaper(paper);
+        return paper;
+    }
+
+    /**
+     * Move a paper to a new owner, validating the current owner and state
+     */
+    private static void transfer(CommercialPaper paper, String issuer, String paperNumber, String currentOwner,
+            String newOwner) {
+        // Validate current owner
+        if (!paper.getOwner().equals(currentOwner)) {
+            throw new RuntimeException("Paper " + issuer + paperNumber + " is not owned by " + currentOwner);
+        }
+
+        // First buy moves state from ISSUED to TRADING
+        if (paper.isIssued()) {
+            paper.setTrading();
+        }
+
+        // Check paper is not already REDEEMED
+        if (paper.isTrading()) {
+            paper.setOwner(newOwner);
+        } else {
+            throw new RuntimeException(
+                    "Paper " + issuer + paperNumber + " is not trading. Current state = " + paper.getState());
+        }
+    }
+
+    private static JSONArray parseBatch(String batchJSON) {
+        JSONArray batch;
+        try {
+            batch = new JSONArray(batchJSON);
+        } catch (JSONException e) {
+            throw new RuntimeException("Batch must be a JSON array: " + e.getMessage());
+        }
+        if (batch.length() == 0 || batch.length() > MAX_BATCH_SIZE) {
+            throw new RuntimeException("Batch must hold between 1 and " + MAX_BATCH_SIZE + " entries");
+        }
+        return batch;
+    }
+
+    private static String batchResult(int succeeded, JSONArray results) {
+        return new JSONObject().put("succeeded", succeeded).put("failed", results.length() - succeeded)
+                .put("results", results).toString();
+    }
+
+    /**
+     * Query the papers issued by an issuer, one page at a time
+     *
+     * @param {Context} ctx the transaction context
+     * @param {String} issuer commercial paper issuer
+     * @param {Integer} pageSize maximum number of papers to return
+     * @param {String} bookmark bookmark returned by the previous page, or empty
+     *                 for the first page
+     */
+    @Transaction(intent = Transaction.TYPE.EVALUATE)
+    public String getPapersByIssuer(CommercialPaperContext ctx, String issuer, int pageSize, String bookmark) {
+        checkPageSize(pageSize);
+        return toJson(ctx.paperList.getPapersByIssuer(issuer, pageSize, bookmark));
+    }
+
+    /**
+     * Query the papers in a lifecycle state (ISSUED, TRADING or REDEEMED), one page
+     * at a time
+     *
+     * @param {Context} ctx the transaction context
+     * @param {String} state commercial paper state
+     * @param {Integer} pageSize maximum number of papers to return
+     * @param {String} bookmark bookmark returned by the previous page, or empty
+     *                 for the first page
+     */
+    @Transaction(intent = Transaction.TYPE.EVALUATE)
+    public String getPapersByState(CommercialPaperContext ctx, String state, int pageSize, String bookmark) {
+        checkPageSize(pageSize);
+        if (!state.equals(CommercialPaper.ISSUED) && !state.equals(CommercialPaper.TRADING)
+                && !state.equals(CommercialPaper.REDEEMED)) {
+            throw new RuntimeException("Unknown paper state " + state);
+        }
+        return toJson(ctx.paperList.getPapersByState(state, pageSize, bookmark));
+    }
+
+    /**
+     * Query the outstanding (not yet redeemed) papers that mature between two
+     * dates, inclusive, one page at a time
+     *
+     * @param {Context} ctx the transaction context
+     * @param {String} fromDate first maturity date, as yyyy-MM-dd
+     * @param {String} toDate last maturity date, as yyyy-MM-dd
+     * @param {Integer} pageSize maximum number of papers to return
+     * @param {String} bookmark bookmark returned by the previous page, or empty
+     *                 for the first page
+     */
+    @Transaction(intent = Transaction.TYPE.EVALUATE)
+    public String getPapersMaturing(CommercialPaperContext ctx, String fromDate, String toDate, int pageSize,
+            String bookmark) {
+        checkPageSize(pageSize);
+        return toJson(ctx.paperList.getPapersMaturing(PaperList.parseDate(fromDate), PaperList.parseDate(toDate),
+                pageSize, bookmark));
+    }
+
+    /**
+     * Query the outstanding (not yet redeemed) papers that mature on a date, one
+     * page at a time. Used to find the papers due for redemption.
+     *
+     * @param {Context} ctx the transaction context
+     * @param {String} maturityDate maturity date, as yyyy-MM-dd
+     * @param {Integer} pageSize maximum number of papers to return
+     * @param {String} bookmark bookmark returned by the previous page, or empty
+     *                 for the first page
+     */
+    @Transaction(intent = Transaction.TYPE.EVALUATE)
+    public String getMaturingPapers(CommercialPaperContext ctx, String maturityDate, int pageSize, String bookmark) {
+        checkPageSize(pageSize);
+        LocalDate date = PaperList.parseDate(maturityDate);
+        return toJson(ctx.paperList.getPapersMaturing(date, date, pageSize, bookmark));
+    }
+
+    /**
+     * Query the positions of an owner: the papers it currently holds that are not
+     * redeemed, one page at a time
+     *
+     * @param {Context} ctx the transaction context
+     * @param {String} owner commercial paper owner
+     * @param {Integer} pageSize maximum number of papers to return
+     * @param {String} bookmark bookmark returned by the previous page, or empty
+     *                 for the first page
+     */
+    @Transaction(intent = Transaction.TYPE.EVALUATE)
+    public String getPositions(CommercialPaperContext ctx, String owner, int pageSize, String bookmark) {
+        checkPageSize(pageSize);
+        return toJson(ctx.paperList.getPositions(owner, pageSize, bookmark));
+    }
+
+    /**
+     * Query the history of a paper: each transaction that issued, bought or
+     * redeemed it, with the paper as that transaction left it
+     *
+     * @param {Context} ctx the transaction context
+     * @param {String} issuer commercial paper issuer
+     * @param {Integer} paperNumber paper number for this issuer
+     */
+    @Transaction(intent = Transaction.TYPE.EVALUATE)
+    public String getPaperHistory(CommercialPaperContext ctx, String issuer, String paperNumber) {
+        List<StateModification> history = ctx.paperList.getPaperHistory(StateKey.of(paperNumber));
+        if (history.isEmpty()) {
+            throw new RuntimeException("Paper " + issuer + paperNumber + " does not exist");
+        }
+
+        JSONArray records = new JSONArray();
+        for (StateModification modification : history) {
+            JSONObject record = new JSONObject().put("txId", modification.getTxId())
+                    .put("timestamp", String.valueOf(modification.getTimestamp()))
+                    .put("isDelete", modification.isDeleted());
+            if (modification.getState() != null) {
+                record.put("paper", new JSONObject(modification.getState()));
+            }
+            records.put(record);
+        }
+        return records.toString();
+    }
+
+    private static void checkPageSize(int pageSize) {
+        if (pageSize < 1 || pageSize > MAX_PAGE_SIZE) {
+            throw new RuntimeException("Page size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+    }
+
+    private static String toJson(StatePage page) {
+        JSONArray records = new JSONArray();
+        for (State paper : page.getStates()) {
+            records.put(new JSONObject(paper));
+        }
+        return new JSONObject().put("records", records).put("fetchedRecordsCount", page.getFetchedRecordsCount())
+                .put("bookmark", page.getBookmark()).toString();
+    }
+
+}
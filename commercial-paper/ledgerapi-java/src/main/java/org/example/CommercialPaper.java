@@ -4,12 +4,11 @@
 
 package org.example;
 
-import static java.nio.charset.StandardCharsets.UTF_8;
-
+import org.example.ledgerapi.JsonReader;
 import org.example.ledgerapi.State;
+import org.example.ledgerapi.StateKey;
 import org.hyperledger.fabric.contract.annotation.DataType;
 import org.hyperledger.fabric.contract.annotation.Property;
-import org.json.JSONObject;
 import org.json.JSONPropertyIgnore;
 
 @DataType()
@@ -94,7 +93,7 @@ public class CommercialPaper extends State {
     }
 
     public CommercialPaper setKey() {
-        this.key = State.makeKey(new String[] { this.paperNumber });
+        setStateKey(StateKey.of(this.paperNumber));
         return this;
     }
 
@@ -145,7 +144,7 @@ public class CommercialPaper extends State {
 
     @Override
     public String toString() {
-        return "Paper::" + this.key + "   " + this.getPaperNumber() + " " + getIssuer() + " " + getFaceValue();
+        return "Paper::" + this.getStateKey() + "   " + this.getPaperNumber() + " " + getIssuer() + " " + getFaceValue();
     }
 
     /**
@@ -154,20 +153,15 @@ public class CommercialPaper extends State {
      * @param {Buffer} data to form back into the object
      */
     public static CommercialPaper deserialize(byte[] data) {
-        JSONObject json = new JSONObject(new String(data, UTF_8));
-
-        String issuer = json.getString("issuer");
-        String paperNumber = json.getString("paperNumber");
-        String issueDateTime = json.getString("issueDateTime");
-        String maturityDateTime = json.getString("maturityDateTime");
-        String owner = json.getString("owner");
-        int faceValue = json.getInt("faceValue");
-        String state = json.getString("state");        
-        return createInstance(issuer, paperNumber, issueDateTime, maturityDateTime, faceValue,owner,state);
+        return CommercialPaperCodec.deserialize(new JsonReader(data));
     }
 
+    /**
+     * Serialize a commercial paper to state data, with the same output as
+     * State.serialize() but without reflection
+     */
     public static byte[] serialize(CommercialPaper paper) {
-        return State.serialize(paper);
+        return CommercialPaperCodec.serialize(paper);
     }
 
     /**
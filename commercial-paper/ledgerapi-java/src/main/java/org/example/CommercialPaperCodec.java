@@ -0,0 +1,175 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.example;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import org.example.ledgerapi.JsonReader;
+
+/**
+ * Hand-written JSON codec for CommercialPaper states, used instead of the
+ * reflective JSONObject serialization.
+ *
+ * The output is byte for byte what new JSONObject(paper).toString() writes:
+ * the same properties, in the iteration order of the HashMap that JSONObject
+ * fills from the paper getters, with null values omitted and strings quoted
+ * the way JSONObject.quote() does. A change to the getters of CommercialPaper
+ * or State must be reflected here.
+ */
+final class CommercialPaperCodec {
+
+    private CommercialPaperCodec() {
+    }
+
+    static byte[] serialize(CommercialPaper paper) {
+        StringBuilder json = new StringBuilder(192).append('{');
+        boolean first = appendField(json, true, "owner", paper.getOwner());
+        first = appendField(json, first, "maturityDateTime", paper.getMaturityDateTime());
+        first = appendField(json, first, "faceValue", paper.getFaceValue());
+        first = appendField(json, first, "paperNumber", paper.getPaperNumber());
+        first = appendField(json, first, "issueDateTime", paper.getIssueDateTime());
+        first = appendField(json, first, "state", paper.getState());
+        if (paper.getStateKey() != null) {
+            if (!first) {
+                json.append(',');
+            }
+            quote(json, "splitKey").append(":[");
+            for (int i = 0; i < paper.getStateKey().size(); i++) {
+                if (i > 0) {
+                    json.append(',');
+                }
+                quote(json, paper.getStateKey().getPart(i));
+            }
+            json.append(']');
+            first = false;
+        }
+        appendField(json, first, "issuer", paper.getIssuer());
+        return json.append('}').toString().getBytes(UTF_8);
+    }
+
+    static CommercialPaper deserialize(JsonReader reader) {
+        String issuer = null;
+        String paperNumber = null;
+        String issueDateTime = null;
+        String maturityDateTime = null;
+        String owner = null;
+        Integer faceValue = null;
+        String state = null;
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+            case "issuer":
+                issuer = reader.nextString();
+                break;
+            case "paperNumber":
+                paperNumber = reader.nextString();
+                break;
+            case "issueDateTime":
+                issueDateTime = reader.nextString();
+                break;
+            case "maturityDateTime":
+                maturityDateTime = reader.nextString();
+                break;
+            case "owner":
+                owner = reader.nextString();
+                break;
+            case "faceValue":
+                faceValue = reader.nextInt();
+                break;
+            case "state":
+                state = reader.nextString();
+                break;
+            default:
+                // splitKey is derived from the paper number
+                reader.skipValue();
+                break;
+            }
+        }
+        reader.endObject();
+        return CommercialPaper.createInstance(required(issuer, "issuer"), required(paperNumber, "paperNumber"),
+                required(issueDateTime, "issueDateTime"), required(maturityDateTime, "maturityDateTime"),
+                required(faceValue, "faceValue"), required(owner, "owner"), required(state, "state"));
+    }
+
+    /**
+     * Appends a JSON string literal for value, escaped as JSONObject.quote()
+     * does: quotes, backslashes, "</" and control characters are escaped, as
+     * are the ranges U+0080 to U+009F and U+2000 to U+20FF.
+     */
+    static StringBuilder quote(StringBuilder json, String value) {
+        json.append('"');
+        char previous = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+            case '\\':
+            case '"':
+                json.append('\\').append(c);
+                break;
+            case '/':
+                if (previous == '<') {
+                    json.append('\\');
+                }
+                json.append(c);
+                break;
+            case '\b':
+                json.append("\\b");
+                break;
+            case '\t':
+                json.append("\\t");
+                break;
+            case '\n':
+                json.append("\\n");
+                break;
+            case '\f':
+                json.append("\\f");
+                break;
+            case '\r':
+                json.append("\\r");
+                break;
+            default:
+                if (c < ' ' || (c >= '\u0080' && c < '\u00a0') || (c >= '\u2000' && c < '\u2100')) {
+                    String hex = Integer.toHexString(c);
+                    json.append("\\u");
+                    for (int pad = hex.length(); pad < 4; pad++) {
+                        json.append('0');
+                    }
+                    json.append(hex);
+                } else {
+                    json.append(c);
+                }
+            }
+            previous = c;
+        }
+        return json.append('"');
+    }
+
+    private static boolean appendField(StringBuilder json, boolean first, String name, String value) {
+        if (value == null) {
+            return first;
+        }
+        if (!first) {
+            json.append(',');
+        }
+        quote(json, name).append(':');
+        quote(json, value);
+        return false;
+    }
+
+    private static boolean appendField(StringBuilder json, boolean first, String name, int value) {
+        if (!first) {
+            json.append(',');
+        }
+        quote(json, name).append(':').append(value);
+        return false;
+    }
+
+    private static <T> T required(T value, String name) {
+        if (value == null) {
+            throw new RuntimeException("Missing field " + name + " in commercial paper data");
+        }
+        return value;
+    }
+}
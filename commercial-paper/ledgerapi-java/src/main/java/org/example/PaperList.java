@@ -0,0 +1,264 @@
+/*
+SPDX-License-Identifier: Apache-2.0
+*/
+
+package org.example;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.example.ledgerapi.State;
+import org.example.ledgerapi.StateKey;
+import org.example.ledgerapi.StateList;
+import org.example.ledgerapi.StateModification;
+import org.example.ledgerapi.StatePage;
+import org.hyperledger.fabric.contract.Context;
+
+/**
+ * The list of all commercial papers, with secondary indexes by issuer, by
+ * lifecycle state, by maturity date and by owner so that papers can be queried
+ * without scanning the whole list.
+ *
+ * The issuer index is written once, when the paper is issued. The state index
+ * is moved whenever the state of a paper changes. The maturity index holds only
+ * papers that are still outstanding, and the entry is removed when a paper is
+ * redeemed. The owner index holds the positions of each owner, keyed by owner,
+ * issuer and paper number: it is moved when a paper changes hands, and the
+ * entry is removed when a paper is redeemed.
+ *
+ * Papers are read at most once per transaction, and the papers and index
+ * entries written are buffered until flush(), which must be called once the
+ * transaction has succeeded.
+ */
+public class PaperList {
+
+    public final static String ISSUER_INDEX = "issuer";
+    public final static String STATE_INDEX = "state";
+    public final static String MATURITY_INDEX = "maturity";
+    public final static String OWNER_INDEX = "owner";
+
+    // Longest maturity date range that a single query may cover
+    public final static int MAX_MATURITY_RANGE_DAYS = 366;
+
+    private StateList stateList;
+
+    // Indexed attributes of each paper as read by this transaction, to find the
+    // index entries to move when the paper is updated
+    private Map<StateKey, IndexedAttributes> loaded = new HashMap<>();
+
+    private static final class IndexedAttributes {
+        private final String state;
+        private final String owner;
+
+        private IndexedAttributes(CommercialPaper paper) {
+            this.state = paper.getState();
+            this.owner = paper.getOwner();
+        }
+
+        private boolean isHeld() {
+            return !CommercialPaper.REDEEMED.equals(this.state);
+        }
+    }
+
+    public PaperList(Context ctx) {
+        this(StateList.getCachingStateList(ctx, PaperList.class.getSimpleName(),
+                paper -> CommercialPaper.serialize((CommercialPaper) paper), CommercialPaper::deserialize));
+    }
+
+    PaperList(StateList stateList) {
+        this.stateList = stateList;
+    }
+
+    public PaperList addPaper(CommercialPaper paper) {
+        stateList.addState(paper);
+        stateList.addIndexEntry(ISSUER_INDEX, new String[] { paper.getIssuer() }, paper);
+        stateList.addIndexEntry(STATE_INDEX, new String[] { paper.getState() }, paper);
+        if (!paper.isRedeemed()) {
+            stateList.addIndexEntry(MATURITY_INDEX, new String[] { maturityDate(paper) }, paper);
+            stateList.addIndexEntry(OWNER_INDEX, new String[] { paper.getOwner(), paper.getIssuer() }, paper);
+        }
+        loaded.put(paper.getStateKey(), new IndexedAttributes(paper));
+        return this;
+    }
+
+    /**
+     * Add a batch of papers, with their index entries, in the current transaction
+     */
+    public PaperList addPapers(Collection<CommercialPaper> papers) {
+        for (CommercialPaper paper : papers) {
+            addPaper(paper);
+        }
+        return this;
+    }
+
+    public CommercialPaper getPaper(String paperKey) {
+        return getPaper(StateKey.parse(paperKey));
+    }
+
+    public CommercialPaper getPaper(StateKey paperKey) {
+        CommercialPaper paper = (CommercialPaper) this.stateList.getState(paperKey);
+        if (paper != null) {
+            loaded.put(paperKey, new IndexedAttributes(paper));
+        }
+        return paper;
+    }
+
+    public PaperList updatePaper(CommercialPaper paper) {
+        StateKey paperKey = paper.getStateKey();
+        IndexedAttributes previous = loaded.get(paperKey);
+        if (previous == null) {
+            CommercialPaper stored = (CommercialPaper) this.stateList.getState(paperKey);
+            previous = stored == null ? null : new IndexedAttributes(stored);
+        }
+
+        this.stateList.updateState(paper);
+
+        String previousState = previous == null ? "" : previous.state;
+        if (!previousState.equals(paper.getState())) {
+            if (!previousState.isEmpty()) {
+                stateList.removeIndexEntry(STATE_INDEX, new String[] { previousState }, paper);
+            }
+            stateList.addIndexEntry(STATE_INDEX, new String[] { paper.getState() }, paper);
+            if (paper.isRedeemed()) {
+                stateList.removeIndexEntry(MATURITY_INDEX, new String[] { maturityDate(paper) }, paper);
+            }
+        }
+
+        // Move the position from the previous owner to the new one; a redeemed paper is nobody's position
+        boolean wasHeld = previous != null && previous.isHeld();
+        boolean isHeld = !paper.isRedeemed();
+        boolean ownerChanged = previous == null || !previous.owner.equals(paper.getOwner());
+        if (wasHeld && (!isHeld || ownerChanged)) {
+            stateList.removeIndexEntry(OWNER_INDEX, new String[] { previous.owner, paper.getIssuer() }, paper);
+        }
+        if (isHeld && (!wasHeld || ownerChanged)) {
+            stateList.addIndexEntry(OWNER_INDEX, new String[] { paper.getOwner(), paper.getIssuer() }, paper);
+        }
+
+        loaded.put(paperKey, new IndexedAttributes(paper));
+        return this;
+    }
+
+    /**
+     * Update a batch of papers, moving their index entries as needed, in the
+     * current transaction
+     */
+    public PaperList updatePapers(Collection<CommercialPaper> papers) {
+        for (CommercialPaper paper : papers) {
+            updatePaper(paper);
+        }
+        return this;
+    }
+
+    /**
+     * Write the papers and index entries of the current transaction to world state
+     */
+    public PaperList flush() {
+        stateList.flush();
+        return this;
+    }
+
+    /**
+     * Get a page of the papers issued by the supplied issuer, in paper key order.
+     */
+    public StatePage getPapersByIssuer(String issuer, int pageSize, String bookmark) {
+        return stateList.getStatesByIndex(ISSUER_INDEX, new String[] { issuer }, pageSize, bookmark);
+    }
+
+    /**
+     * Get a page of the positions of the supplied owner, the papers it holds that
+     * are not redeemed, in issuer and paper key order.
+     */
+    public StatePage getPositions(String owner, int pageSize, String bookmark) {
+        return stateList.getStatesByIndex(OWNER_INDEX, new String[] { owner }, pageSize, bookmark);
+    }
+
+    /**
+     * Get the ownership history of a paper, one entry per transaction that
+     * changed it.
+     */
+    public List<StateModification> getPaperHistory(StateKey paperKey) {
+        return stateList.getHistory(paperKey);
+    }
+
+    /**
+     * Get a page of the papers in the supplied lifecycle state, in paper key order.
+     */
+    public StatePage getPapersByState(String state, int pageSize, String bookmark) {
+        return stateList.getStatesByIndex(STATE_INDEX, new String[] { state }, pageSize, bookmark);
+    }
+
+    /**
+     * Get a page of the outstanding papers maturing between the supplied dates,
+     * inclusive, in maturity date order. The maturity index is queried one day at
+     * a time, so the returned bookmark is the day to continue from followed by the
+     * bookmark within that day, as "yyyy-MM-dd|bookmark".
+     */
+    public StatePage getPapersMaturing(LocalDate fromDate, LocalDate toDate, int pageSize, String bookmark) {
+        if (toDate.isBefore(fromDate) || toDate.isAfter(fromDate.plusDays(MAX_MATURITY_RANGE_DAYS - 1))) {
+            throw new RuntimeException("Maturity date range must cover 1 to " + MAX_MATURITY_RANGE_DAYS + " days");
+        }
+
+        LocalDate date = fromDate;
+        String dayBookmark = "";
+        if (bookmark != null && !bookmark.isEmpty()) {
+            int separator = bookmark.indexOf('|');
+            if (separator < 0) {
+                throw new RuntimeException("Invalid bookmark " + bookmark);
+            }
+            date = parseDate(bookmark.substring(0, separator));
+            dayBookmark = bookmark.substring(separator + 1);
+            if (date.isBefore(fromDate)) {
+                throw new RuntimeException("Bookmark " + bookmark + " is outside the maturity date range");
+            }
+        }
+
+        List<State> papers = new ArrayList<>();
+        int fetched = 0;
+        while (!date.isAfter(toDate)) {
+            StatePage page = stateList.getStatesByIndex(MATURITY_INDEX, new String[] { date.toString() },
+                    pageSize - fetched, dayBookmark);
+            papers.addAll(page.getStates());
+            fetched += page.getFetchedRecordsCount();
+
+            if (fetched >= pageSize) {
+                // The page is full; continue within this day if it may hold more papers
+                if (!page.getBookmark().isEmpty()) {
+                    return new StatePage(papers, fetched, date + "|" + page.getBookmark());
+                }
+                LocalDate next = date.plusDays(1);
+                return new StatePage(papers, fetched, next.isAfter(toDate) ? "" : next + "|");
+            }
+
+            date = date.plusDays(1);
+            dayBookmark = "";
+        }
+        return new StatePage(papers, fetched, "");
+    }
+
+    /**
+     * The maturity index is bucketed by day, using the date part of the paper
+     * maturity date time.
+     */
+    static String maturityDate(CommercialPaper paper) {
+        String maturityDateTime = paper.getMaturityDateTime();
+        if (maturityDateTime == null || maturityDateTime.length() < 10) {
+            throw new RuntimeException("Paper " + paper.getIssuer() + paper.getPaperNumber()
+                    + " has invalid maturity date " + maturityDateTime);
+        }
+        return parseDate(maturityDateTime.substring(0, 10)).toString();
+    }
+
+    static LocalDate parseDate(String date) {
+        try {
+            return LocalDate.parse(date);
+        } catch (DateTimeParseException e) {
+            throw new RuntimeException("Invalid date " + date + ", expected yyyy-MM-dd", e);
+        }
+    }
+}
@@ -0,0 +1,239 @@
+/*
+SPDX-License-Identifier: Apache-2.0
+*/
+package org.example.ledgerapi;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.math.BigDecimal;
+
+/**
+ * Minimal pull parser for state JSON data, for use by StateDeserializer
+ * implementations. Values are read one token at a time straight into the
+ * caller's fields, so no intermediate JSONObject or map is built.
+ *
+ * Typical use for an object: reader.beginObject(); while (reader.hasNext()) {
+ * switch (reader.nextName()) { ... } } reader.endObject();
+ *
+ * Syntax errors are reported as IllegalArgumentException.
+ */
+public final class JsonReader {
+
+    private final String json;
+    private int pos = 0;
+    // true once a value has been read in the current object or array, so the next one needs a ','
+    private boolean afterValue = false;
+
+    public JsonReader(String json) {
+        this.json = json;
+    }
+
+    public JsonReader(byte[] json) {
+        this(new String(json, UTF_8));
+    }
+
+    public void beginObject() {
+        expect('{');
+        afterValue = false;
+    }
+
+    public void endObject() {
+        expect('}');
+        afterValue = true;
+    }
+
+    public void beginArray() {
+        expect('[');
+        afterValue = false;
+    }
+
+    public void endArray() {
+        expect(']');
+        afterValue = true;
+    }
+
+    /**
+     * @return true if the current object or array has another member, consuming the separating ','
+     */
+    public boolean hasNext() {
+        char c = peekClean();
+        if (c == '}' || c == ']') {
+            return false;
+        }
+        if (afterValue) {
+            if (c != ',') {
+                throw syntaxError("Expected ',' or end of object or array");
+            }
+            pos++;
+            afterValue = false;
+        }
+        return true;
+    }
+
+    public String nextName() {
+        String name = readString();
+        expect(':');
+        afterValue = false;
+        return name;
+    }
+
+    public String nextString() {
+        String value = readString();
+        afterValue = true;
+        return value;
+    }
+
+    public int nextInt() {
+        peekClean();
+        int start = pos;
+        while (pos < json.length() && isNumberChar(json.charAt(pos))) {
+            pos++;
+        }
+        if (start == pos) {
+            throw syntaxError("Expected a number");
+        }
+        String number = json.substring(start, pos);
+        afterValue = true;
+        try {
+            return Integer.parseInt(number);
+        } catch (NumberFormatException e) {
+            try {
+                return new BigDecimal(number).intValueExact();
+            } catch (ArithmeticException | NumberFormatException err) {
+                throw syntaxError("Expected an integer but was " + number);
+            }
+        }
+    }
+
+    /**
+     * Skips the next value, including any nested objects or arrays.
+     */
+    public void skipValue() {
+        char c = peekClean();
+        switch (c) {
+            case '"':
+                readString();
+                afterValue = true;
+                break;
+            case '{':
+                beginObject();
+                while (hasNext()) {
+                    nextName();
+                    skipValue();
+                }
+                endObject();
+                break;
+            case '[':
+                beginArray();
+                while (hasNext()) {
+                    skipValue();
+                }
+                endArray();
+                break;
+            default:
+                int start = pos;
+                while (pos < json.length() && (isNumberChar(json.charAt(pos)) || Character.isLetter(json.charAt(pos)))) {
+                    pos++;
+                }
+                String literal = json.substring(start, pos);
+                if (literal.isEmpty() || Character.isLetter(literal.charAt(0))
+                        && !literal.equals("true") && !literal.equals("false") && !literal.equals("null")) {
+                    throw syntaxError("Unexpected value");
+                }
+                afterValue = true;
+                break;
+        }
+    }
+
+    private String readString() {
+        expect('"');
+        StringBuilder value = null;
+        int start = pos;
+        while (pos < json.length()) {
+            char c = json.charAt(pos);
+            if (c == '"') {
+                String result = value == null ? json.substring(start, pos) : value.append(json, start, pos).toString();
+                pos++;
+                return result;
+            }
+            if (c < ' ') {
+                throw syntaxError("Unescaped control character in string");
+            }
+            if (c != '\\') {
+                pos++;
+                continue;
+            }
+            if (value == null) {
+                value = new StringBuilder();
+            }
+            value.append(json, start, pos);
+            pos++;
+            if (pos >= json.length()) {
+                break;
+            }
+            char escaped = json.charAt(pos++);
+            switch (escaped) {
+                case '"':
+                case '\\':
+                case '/':
+                    value.append(escaped);
+                    break;
+                case 'b':
+                    value.append('\b');
+                    break;
+                case 'f':
+                    value.append('\f');
+                    break;
+                case 'n':
+                    value.append('\n');
+                    break;
+                case 'r':
+                    value.append('\r');
+                    break;
+                case 't':
+                    value.append('\t');
+                    break;
+                case 'u':
+                    if (pos + 4 > json.length()) {
+                        throw syntaxError("Unterminated unicode escape");
+                    }
+                    try {
+                        value.append((char) Integer.parseInt(json.substring(pos, pos + 4), 16));
+                    } catch (NumberFormatException e) {
+                        throw syntaxError("Invalid unicode escape");
+                    }
+                    pos += 4;
+                    break;
+                default:
+                    throw syntaxError("Invalid escape sequence");
+            }
+            start = pos;
+        }
+        throw syntaxError("Unterminated string");
+    }
+
+    private char peekClean() {
+        while (pos < json.length() && Character.isWhitespace(json.charAt(pos))) {
+            pos++;
+        }
+        if (pos >= json.length()) {
+            throw syntaxError("Unexpected end of input");
+        }
+        return json.charAt(pos);
+    }
+
+    private void expect(char expected) {
+        if (peekClean() != expected) {
+            throw syntaxError("Expected '" + expected + "'");
+        }
+        pos++;
+    }
+
+    private static boolean isNumberChar(char c) {
+        return (c >= '0' && c <= '9') || c == '-' || c == '+' || c == '.' || c == 'e' || c == 'E';
+    }
+
+    private IllegalArgumentException syntaxError(String message) {
+        return new IllegalArgumentException(message + " at character " + pos);
+    }
+}
@@ -6,6 +6,7 @@ package org.example.ledgerapi;
 import static java.nio.charset.StandardCharsets.UTF_8;
 
 import org.json.JSONObject;
+import org.json.JSONPropertyIgnore;
 
 /**
  * State class. States have a class, unique key, and a lifecycle current state
@@ -13,7 +14,7 @@ import org.json.JSONObject;
  */
 public class State {
 
-    protected String key;
+    private StateKey stateKey;
 
     /**
      * @param {String|Object} class An identifiable class of the instance
@@ -24,11 +25,20 @@ public class State {
     }
 
     String getKey() {
-        return this.key;
+        return this.stateKey.toString();
+    }
+
+    @JSONPropertyIgnore()
+    public StateKey getStateKey() {
+        return this.stateKey;
+    }
+
+    protected void setStateKey(StateKey stateKey) {
+        this.stateKey = stateKey;
     }
 
     public String[] getSplitKey() {
-        return State.splitKey(this.key);
+        return this.stateKey.getParts();
     }
 
     /**
@@ -53,7 +63,6 @@ public class State {
     }
 
     public static String[] splitKey(String key) {
-        System.out.println("splitting key " + key + "   " + java.util.Arrays.asList(key.split(":")));
         return key.split(":");
     }
 
@@ -0,0 +1,100 @@
+/*
+SPDX-License-Identifier: Apache-2.0
+*/
+package org.example.ledgerapi;
+
+import java.util.Arrays;
+
+import org.hyperledger.fabric.shim.ledger.CompositeKey;
+
+/**
+ * Immutable key of a state. The key parts, the joined key string and the
+ * ledger composite key are computed once, so a state can be written or read
+ * any number of times without splitting or re-encoding its key.
+ */
+public final class StateKey {
+
+    private final String[] parts;
+    private final String key;
+
+    // Composite key of the last list this key was used with. The holder is
+    // immutable, so it can be published without synchronization.
+    private LedgerKey ledgerKey;
+
+    private static final class LedgerKey {
+        private final String objectType;
+        private final String key;
+
+        private LedgerKey(String objectType, String key) {
+            this.objectType = objectType;
+            this.key = key;
+        }
+    }
+
+    private StateKey(String[] parts, String key) {
+        this.parts = parts;
+        this.key = key;
+    }
+
+    /**
+     * Create a key from its parts
+     */
+    public static StateKey of(String... parts) {
+        if (parts.length == 0) {
+            throw new IllegalArgumentException("A state key needs at least one part");
+        }
+        String[] copy = parts.clone();
+        return new StateKey(copy, State.makeKey(copy));
+    }
+
+    /**
+     * Create a key from its string form, the parts joined by ":"
+     */
+    public static StateKey parse(String key) {
+        return new StateKey(State.splitKey(key), key);
+    }
+
+    public int size() {
+        return this.parts.length;
+    }
+
+    public String getPart(int index) {
+        return this.parts[index];
+    }
+
+    /**
+     * @return a copy of the key parts
+     */
+    public String[] getParts() {
+        return this.parts.clone();
+    }
+
+    /**
+     * Get the world state key of this key in a state list, the composite key of
+     * the list name and the key parts.
+     */
+    public String getLedgerKey(String objectType) {
+        LedgerKey cached = this.ledgerKey;
+        if (cached == null || !cached.objectType.equals(objectType)) {
+            cached = new LedgerKey(objectType, new CompositeKey(objectType, this.parts).toString());
+            this.ledgerKey = cached;
+        }
+        return cached.key;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof StateKey && Arrays.equals(this.parts, ((StateKey) other).parts);
+    }
+
+    @Override
+    public int hashCode() {
+        return this.key.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return this.key;
+    }
+
+}
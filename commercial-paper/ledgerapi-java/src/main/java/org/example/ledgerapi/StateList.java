@@ -0,0 +1,125 @@
+package org.example.ledgerapi;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+import org.example.ledgerapi.impl.CachingStateList;
+import org.example.ledgerapi.impl.StateListImpl;
+import org.hyperledger.fabric.contract.Context;
+
+public interface StateList {
+
+    /*
+     * SPDX-License-Identifier: Apache-2.0
+     */
+
+    /**
+     * StateList provides a named virtual container for a set of ledger states. Each
+     * state has a unique key which associates it with the container, rather than
+     * the container containing a link to the state. This minimizes collisions for
+     * parallel transactions on different states.
+     */
+
+    /**
+     * Store Fabric context for subsequent API access, and name of list
+     */
+    static StateList getStateList(Context ctx, String listName, StateDeserializer deserializer) {
+        return new StateListImpl(ctx, listName, State::serialize, deserializer);
+    }
+
+    /**
+     * Store Fabric context for subsequent API access, and name of list, with the
+     * serializer and deserializer of the state class held in the list
+     */
+    static StateList getStateList(Context ctx, String listName, StateSerializer serializer,
+            StateDeserializer deserializer) {
+        return new StateListImpl(ctx, listName, serializer, deserializer);
+    }
+
+    /**
+     * Store Fabric context for subsequent API access, and name of list, caching the
+     * states read and buffering the writes of the current transaction until
+     * flush() is called. The list must be created for each transaction.
+     */
+    static StateList getCachingStateList(Context ctx, String listName, StateSerializer serializer,
+            StateDeserializer deserializer) {
+        return new CachingStateList(ctx, listName, serializer, deserializer);
+    }
+
+    /**
+     * Add a state to the list. Creates a new state in worldstate with appropriate
+     * composite key. Note that state defines its own key. State object is
+     * serialized before writing.
+     */
+    public StateList addState(State state);
+
+    /**
+     * Get a state from the list using supplied keys. Form composite keys to
+     * retrieve state from world state. State data is deserialized into JSON object
+     * before being returned.
+     */
+    public State getState(String key);
+
+    /**
+     * Get a state from the list using a precomputed key, without splitting the
+     * key or forming its composite key again.
+     */
+    public State getState(StateKey key);
+
+    /**
+     * Update a state in the list. Puts the new state in world state with
+     * appropriate composite key. Note that state defines its own key. A state is
+     * serialized before writing. Logic is very similar to addState() but kept
+     * separate becuase it is semantically distinct.
+     */
+    public StateList updateState(State state);
+
+    /**
+     * Get the history of a state from the ledger, one entry per transaction that
+     * wrote or deleted it, in the order returned by the peer (newest first on
+     * Fabric 2.x). Only supported by read-only (evaluate) transactions.
+     */
+    public List<StateModification> getHistory(StateKey key);
+
+    /**
+     * Iterate over the states in the list whose keys start with the supplied key
+     * parts, in key order. An empty array of key parts iterates over every state
+     * in the list.
+     */
+    public void forEachState(String[] partialKey, Consumer<State> action);
+
+    /**
+     * Get a page of the states in the list whose keys start with the supplied key
+     * parts, in key order. Pass the bookmark of the returned page to get the next
+     * page; an empty bookmark gets the first page. Only supported by read-only
+     * (evaluate) transactions.
+     */
+    public StatePage getStates(String[] partialKey, int pageSize, String bookmark);
+
+    /**
+     * Add an entry for a state to a secondary index of the list. Index entries are
+     * held under their own composite key object type, ordered by the supplied
+     * attributes, and refer back to the state by its key.
+     */
+    public StateList addIndexEntry(String indexName, String[] attributes, State state);
+
+    /**
+     * Remove the entry for a state from a secondary index of the list. The
+     * attributes must be the ones with which the entry was added.
+     */
+    public StateList removeIndexEntry(String indexName, String[] attributes, State state);
+
+    /**
+     * Get a page of the states whose secondary index attributes start with the
+     * supplied attributes, in attribute order. Pagination works as for
+     * getStates().
+     */
+    public StatePage getStatesByIndex(String indexName, String[] partialAttributes, int pageSize, String bookmark);
+
+    /**
+     * Write any buffered states and index entries to world state. Lists that write
+     * as they go have nothing to flush.
+     */
+    public StateList flush();
+
+}
@@ -0,0 +1,42 @@
+/*
+SPDX-License-Identifier: Apache-2.0
+*/
+package org.example.ledgerapi;
+
+import java.time.Instant;
+
+/**
+ * One change to a state in the ledger history: the transaction that made it,
+ * when, and the resulting state. A deletion has no state.
+ */
+public class StateModification {
+
+    private final String txId;
+    private final Instant timestamp;
+    private final boolean deleted;
+    private final State state;
+
+    public StateModification(String txId, Instant timestamp, boolean deleted, State state) {
+        this.txId = txId;
+        this.timestamp = timestamp;
+        this.deleted = deleted;
+        this.state = state;
+    }
+
+    public String getTxId() {
+        return this.txId;
+    }
+
+    public Instant getTimestamp() {
+        return this.timestamp;
+    }
+
+    public boolean isDeleted() {
+        return this.deleted;
+    }
+
+    public State getState() {
+        return this.state;
+    }
+
+}
@@ -0,0 +1,43 @@
+/*
+SPDX-License-Identifier: Apache-2.0
+*/
+package org.example.ledgerapi;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A page of states returned by a paginated StateList query, together with the
+ * bookmark to pass to the same query to get the next page. An empty bookmark
+ * means there are no more states.
+ */
+public class StatePage {
+
+    private final List<State> states;
+    private final int fetchedRecordsCount;
+    private final String bookmark;
+
+    public StatePage(List<State> states, int fetchedRecordsCount, String bookmark) {
+        this.states = Collections.unmodifiableList(states);
+        this.fetchedRecordsCount = fetchedRecordsCount;
+        this.bookmark = bookmark == null ? "" : bookmark;
+    }
+
+    public List<State> getStates() {
+        return this.states;
+    }
+
+    /**
+     * Number of ledger records read for this page. For an index query this can be
+     * more than the number of states, if an index entry no longer refers to a
+     * state.
+     */
+    public int getFetchedRecordsCount() {
+        return this.fetchedRecordsCount;
+    }
+
+    public String getBookmark() {
+        return this.bookmark;
+    }
+
+}
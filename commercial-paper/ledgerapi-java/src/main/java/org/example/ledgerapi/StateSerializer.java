@@ -0,0 +1,10 @@
+package org.example.ledgerapi;
+
+/**
+ * Converts a state to the data stored in the world state. The counterpart of
+ * StateDeserializer, supplied per state class when a StateList is created.
+ */
+@FunctionalInterface
+public interface StateSerializer {
+    byte[] serialize(State state);
+}
@@ -0,0 +1,110 @@
+package org.example.ledgerapi.impl;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.example.ledgerapi.State;
+import org.example.ledgerapi.StateDeserializer;
+import org.example.ledgerapi.StateKey;
+import org.example.ledgerapi.StateList;
+import org.example.ledgerapi.StateSerializer;
+import org.hyperledger.fabric.contract.Context;
+
+/*
+SPDX-License-Identifier: Apache-2.0
+*/
+
+/**
+ * StateList for the lifetime of one transaction, which keeps each state it reads
+ * or writes and defers all writes to flush().
+ *
+ * A state is read from world state at most once per transaction; later reads,
+ * including a read of a state that does not exist, are answered from the cache.
+ * States written by the transaction are read back as written, rather than as
+ * committed. Each state is serialized once, at flush, however many times it was
+ * updated, and each key is written or deleted once, in key order, with the last
+ * write winning.
+ *
+ * Queries over key ranges, and getStatesByIndex(), still read committed world
+ * state as before, and do not see the buffered writes. Nothing is written unless
+ * flush() is called, typically from afterTransaction() of the contract.
+ */
+public class CachingStateList extends StateListImpl {
+
+    private StateSerializer serializer;
+
+    // States by ledger key, null for keys known not to exist
+    private Map<String, State> cache = new HashMap<>();
+
+    // States to serialize at flush, by ledger key
+    private Map<String, State> dirtyStates = new TreeMap<>();
+
+    // Other writes by ledger key, null for a delete
+    private Map<String, byte[]> writes = new TreeMap<>();
+
+    public CachingStateList(Context ctx, String listName, StateSerializer serializer,
+            StateDeserializer deserializer) {
+        super(ctx, listName, serializer, deserializer);
+        this.serializer = serializer;
+    }
+
+    @Override
+    public StateList addState(State state) {
+        String ledgerKey = state.getStateKey().getLedgerKey(getName());
+        this.cache.put(ledgerKey, state);
+        this.dirtyStates.put(ledgerKey, state);
+
+        return this;
+    }
+
+    @Override
+    public State getState(StateKey key) {
+        String ledgerKey = key.getLedgerKey(getName());
+        if (this.cache.containsKey(ledgerKey)) {
+            return this.cache.get(ledgerKey);
+        }
+        State state = super.getState(key);
+        this.cache.put(ledgerKey, state);
+        return state;
+    }
+
+    @Override
+    public StateList updateState(State state) {
+        return addState(state);
+    }
+
+    /**
+     * Write the buffered states and index entries to world state, and clear the
+     * buffers. The cache of states read is kept.
+     */
+    @Override
+    public StateList flush() {
+        for (Map.Entry<String, State> dirty : this.dirtyStates.entrySet()) {
+            this.writes.put(dirty.getKey(), this.serializer.serialize(dirty.getValue()));
+        }
+        this.dirtyStates.clear();
+
+        for (Map.Entry<String, byte[]> write : this.writes.entrySet()) {
+            if (write.getValue() == null) {
+                super.delState(write.getKey());
+            } else {
+                super.putState(write.getKey(), write.getValue());
+            }
+        }
+        this.writes.clear();
+
+        return this;
+    }
+
+    @Override
+    protected void putState(String ledgerKey, byte[] data) {
+        this.writes.put(ledgerKey, data);
+    }
+
+    @Override
+    protected void delState(String ledgerKey) {
+        this.writes.put(ledgerKey, null);
+    }
+
+}
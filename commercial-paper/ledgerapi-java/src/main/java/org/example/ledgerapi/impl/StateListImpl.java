@@ -0,0 +1,275 @@
+package org.example.ledgerapi.impl;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+
+import org.example.ledgerapi.State;
+import org.example.ledgerapi.StateDeserializer;
+import org.example.ledgerapi.StateKey;
+import org.example.ledgerapi.StateList;
+import org.example.ledgerapi.StateModification;
+import org.example.ledgerapi.StatePage;
+import org.example.ledgerapi.StateSerializer;
+import org.hyperledger.fabric.contract.Context;
+import org.hyperledger.fabric.shim.ChaincodeStub;
+import org.hyperledger.fabric.shim.ledger.CompositeKey;
+import org.hyperledger.fabric.shim.ledger.KeyModification;
+import org.hyperledger.fabric.shim.ledger.KeyValue;
+import org.hyperledger.fabric.shim.ledger.QueryResultsIterator;
+import org.hyperledger.fabric.shim.ledger.QueryResultsIteratorWithMetadata;
+
+/*
+SPDX-License-Identifier: Apache-2.0
+*/
+
+/**
+ * StateList provides a named virtual container for a set of ledger states. Each
+ * state has a unique key which associates it with the container, rather than
+ * the container containing a link to the state. This minimizes collisions for
+ * parallel transactions on different states.
+ */
+public class StateListImpl implements StateList {
+
+    private Context ctx;
+    private String name;
+    private Object supportedClasses;
+    private StateSerializer serializer;
+    private StateDeserializer deserializer;
+
+    /**
+     * Store Fabric context for subsequent API access, and name of list
+     *
+     * @param serializer
+     * @param deserializer
+     */
+    public StateListImpl(Context ctx, String listName, StateSerializer serializer, StateDeserializer deserializer) {
+        this.ctx = ctx;
+        this.name = listName;
+        this.serializer = serializer;
+        this.deserializer = deserializer;
+
+    }
+
+    /**
+     * Add a state to the list. Creates a new state in worldstate with appropriate
+     * composite key. Note that state defines its own key. State object is
+     * serialized before writing.
+     */
+    @Override
+    public StateList addState(State state) {
+        byte[] data = this.serializer.serialize(state);
+        putState(state.getStateKey().getLedgerKey(this.name), data);
+
+        return this;
+    }
+
+    /**
+     * Get a state from the list using supplied keys. Form composite keys to
+     * retrieve state from world state. State data is deserialized into JSON object
+     * before being returned.
+     */
+    @Override
+    public State getState(String key) {
+        return getState(StateKey.parse(key));
+    }
+
+    /**
+     * Get a state from the list using a precomputed key.
+     */
+    @Override
+    public State getState(StateKey key) {
+        byte[] data = this.ctx.getStub().getState(key.getLedgerKey(this.name));
+        if (data != null) {
+            State state = this.deserializer.deserialize(data);
+            return state;
+        } else {
+            return null;
+        }
+    }
+
+    /**
+     * Update a state in the list. Puts the new state in world state with
+     * appropriate composite key. Note that state defines its own key. A state is
+     * serialized before writing. Logic is very similar to addState() but kept
+     * separate becuase it is semantically distinct.
+     */
+    @Override
+    public StateList updateState(State state) {
+        byte[] data = this.serializer.serialize(state);
+        putState(state.getStateKey().getLedgerKey(this.name), data);
+
+        return this;
+    }
+
+    /**
+     * Get the history of a state from the ledger, deserializing each version.
+     */
+    @Override
+    public List<StateModification> getHistory(StateKey key) {
+        QueryResultsIterator<KeyModification> results = this.ctx.getStub()
+                .getHistoryForKey(key.getLedgerKey(this.name));
+
+        List<StateModification> history = new ArrayList<>();
+        try {
+            for (KeyModification modification : results) {
+                State state = modification.isDeleted() ? null : this.deserializer.deserialize(modification.getValue());
+                history.add(new StateModification(modification.getTxId(), modification.getTimestamp(),
+                        modification.isDeleted(), state));
+            }
+            return history;
+        } finally {
+            close(results);
+        }
+    }
+
+    /**
+     * Iterate over the states in the list whose keys start with the supplied key
+     * parts, in key order.
+     */
+    @Override
+    public void forEachState(String[] partialKey, Consumer<State> action) {
+        QueryResultsIterator<KeyValue> results = this.ctx.getStub().getStateByPartialCompositeKey(this.name, partialKey);
+        try {
+            for (KeyValue result : results) {
+                action.accept(this.deserializer.deserialize(result.getValue()));
+            }
+        } finally {
+            close(results);
+        }
+    }
+
+    /**
+     * Get a page of the states in the list whose keys start with the supplied key
+     * parts, in key order.
+     */
+    @Override
+    public StatePage getStates(String[] partialKey, int pageSize, String bookmark) {
+        ChaincodeStub stub = this.ctx.getStub();
+        QueryResultsIteratorWithMetadata<KeyValue> results = stub
+                .getStateByPartialCompositeKeyWithPagination(new CompositeKey(this.name, partialKey), pageSize, bookmark);
+
+        List<State> states = new ArrayList<>();
+        try {
+            for (KeyValue result : results) {
+                states.add(this.deserializer.deserialize(result.getValue()));
+            }
+            return new StatePage(states, results.getMetadata().getFetchedRecordsCount(), results.getMetadata().getBookmark());
+        } finally {
+            close(results);
+        }
+    }
+
+    /**
+     * Add an entry for a state to a secondary index of the list. The entry value
+     * is the state key.
+     */
+    @Override
+    public StateList addIndexEntry(String indexName, String[] attributes, State state) {
+        ChaincodeStub stub = this.ctx.getStub();
+        CompositeKey indexKey = stub.createCompositeKey(indexType(indexName), indexAttributes(attributes, state));
+        putState(indexKey.toString(), state.getStateKey().toString().getBytes(UTF_8));
+
+        return this;
+    }
+
+    /**
+     * Remove the entry for a state from a secondary index of the list.
+     */
+    @Override
+    public StateList removeIndexEntry(String indexName, String[] attributes, State state) {
+        ChaincodeStub stub = this.ctx.getStub();
+        CompositeKey indexKey = stub.createCompositeKey(indexType(indexName), indexAttributes(attributes, state));
+        delState(indexKey.toString());
+
+        return this;
+    }
+
+    /**
+     * Get a page of the states whose secondary index attributes start with the
+     * supplied attributes. Each index entry is resolved to its state by key.
+     */
+    @Override
+    public StatePage getStatesByIndex(String indexName, String[] partialAttributes, int pageSize, String bookmark) {
+        ChaincodeStub stub = this.ctx.getStub();
+        QueryResultsIteratorWithMetadata<KeyValue> results = stub.getStateByPartialCompositeKeyWithPagination(
+                new CompositeKey(indexType(indexName), partialAttributes), pageSize, bookmark);
+
+        List<State> states = new ArrayList<>();
+        try {
+            for (KeyValue result : results) {
+                State state = getState(result.getStringValue());
+                if (state != null) {
+                    states.add(state);
+                }
+            }
+            return new StatePage(states, results.getMetadata().getFetchedRecordsCount(), results.getMetadata().getBookmark());
+        } finally {
+            close(results);
+        }
+    }
+
+    /**
+     * Writes are made as they are requested, so there is nothing to flush.
+     */
+    @Override
+    public StateList flush() {
+        return this;
+    }
+
+    /**
+     * Name of the list, the composite key object type of its states
+     */
+    protected String getName() {
+        return this.name;
+    }
+
+    /**
+     * Write a value to world state. All writes of the list, of states and of index
+     * entries, go through this method.
+     */
+    protected void putState(String ledgerKey, byte[] data) {
+        this.ctx.getStub().putState(ledgerKey, data);
+    }
+
+    /**
+     * Delete a value from world state. All deletes of the list go through this
+     * method.
+     */
+    protected void delState(String ledgerKey) {
+        this.ctx.getStub().delState(ledgerKey);
+    }
+
+    /**
+     * Composite key object type of a secondary index, kept apart from the
+     * namespace of the list itself.
+     */
+    private String indexType(String indexName) {
+        return this.name + "~" + indexName;
+    }
+
+    /**
+     * Index entries are keyed by the index attributes followed by the state key
+     * parts, so that entries with equal attributes are unique and ordered by key.
+     */
+    private static String[] indexAttributes(String[] attributes, State state) {
+        StateKey key = state.getStateKey();
+        String[] keyParts = Arrays.copyOf(attributes, attributes.length + key.size());
+        for (int i = 0; i < key.size(); i++) {
+            keyParts[attributes.length + i] = key.getPart(i);
+        }
+        return keyParts;
+    }
+
+    private static void close(AutoCloseable results) {
+        try {
+            results.close();
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to close query results", e);
+        }
+    }
+
+}
@@ -0,0 +1,174 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.example;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Collection;
+import java.util.List;
+
+import org.example.ledgerapi.StateKey;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+public final class AbstractCommercialPaperContractTest {
+
+    private final AbstractCommercialPaperContract contract = new AbstractCommercialPaperContract() {
+    };
+
+    private CommercialPaperContext ctx;
+    private PaperList paperList;
+
+    private static CommercialPaper paper(String paperNumber, String owner, String state) {
+        return CommercialPaper.createInstance("MagnetoCorp", paperNumber, "2026-05-31", "2026-11-30T00:00:00Z", 5000000,
+                owner, state);
+    }
+
+    private static JSONObject issue(String paperNumber, String maturityDateTime) {
+        return new JSONObject().put("issuer", "MagnetoCorp").put("paperNumber", paperNumber)
+                .put("issueDateTime", "2026-05-31").put("maturityDateTime", maturityDateTime).put("faceValue", 5000000);
+    }
+
+    private static JSONObject purchase(String paperNumber, String currentOwner, String newOwner) {
+        return new JSONObject().put("issuer", "MagnetoCorp").put("paperNumber", paperNumber)
+                .put("currentOwner", currentOwner).put("newOwner", newOwner).put("price", 4900000)
+                .put("purchaseDateTime", "2026-06-01");
+    }
+
+    private void stored(CommercialPaper paper) {
+        when(paperList.getPaper(StateKey.of(paper.getPaperNumber()))).thenReturn(paper);
+    }
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private static List<CommercialPaper> written(ArgumentCaptor<Collection> captor) {
+        return (List<CommercialPaper>) captor.getValue();
+    }
+
+    @BeforeEach
+    public void setUp() {
+        paperList = mock(PaperList.class);
+        ctx = mock(CommercialPaperContext.class);
+        ctx.paperList = paperList;
+    }
+
+    @Test
+    public void afterTransactionFlushesPaperList() {
+        contract.afterTransaction(ctx, null);
+
+        verify(paperList).flush();
+    }
+
+    @Nested
+    class IssueBatch {
+
+        @Test
+        @SuppressWarnings("unchecked")
+        public void issuesValidPapersAndReportsEachFailure() {
+            stored(paper("00003", "MagnetoCorp", CommercialPaper.ISSUED));
+            JSONArray batch = new JSONArray()
+                    .put(issue("00001", "2026-11-30T00:00:00Z"))
+                    .put(issue("00001", "2026-11-30T00:00:00Z"))
+                    .put(issue("00003", "2026-11-30T00:00:00Z"))
+                    .put(issue("00004", "2026-13-30T00:00:00Z"))
+                    .put(new JSONObject().put("issuer", "MagnetoCorp").put("paperNumber", "00005"))
+                    .put("00006")
+                    .put(issue("00007", "2026-12-31T00:00:00Z"));
+
+            JSONObject result = new JSONObject(contract.issueBatch(ctx, batch.toString()));
+
+            assertThat(result.getInt("succeeded")).isEqualTo(2);
+            assertThat(result.getInt("failed")).isEqualTo(5);
+            JSONArray results = result.getJSONArray("results");
+            assertThat(results.length()).isEqualTo(7);
+            assertThat(results.getJSONObject(0).getString("state")).isEqualTo(CommercialPaper.ISSUED);
+            assertThat(results.getJSONObject(1).getString("error")).contains("appears more than once");
+            assertThat(results.getJSONObject(2).getString("error")).contains("already exists");
+            assertThat(results.getJSONObject(3).getString("error")).contains("Invalid date 2026-13-30");
+            assertThat(results.getJSONObject(4).getString("error")).contains("issueDateTime");
+            assertThat(results.getJSONObject(4).getString("paperNumber")).isEqualTo("00005");
+            assertThat(results.getJSONObject(5).has("paperNumber")).isFalse();
+            assertThat(results.getJSONObject(6).getInt("index")).isEqualTo(6);
+            assertThat(results.getJSONObject(6).has("error")).isFalse();
+
+            ArgumentCaptor<Collection> captor = ArgumentCaptor.forClass(Collection.class);
+            verify(paperList).addPapers(captor.capture());
+            assertThat(written(captor)).extracting(CommercialPaper::getPaperNumber).containsExactly("00001", "00007");
+            assertThat(written(captor)).allMatch(paper -> paper.isIssued() && paper.getOwner().equals("MagnetoCorp"));
+        }
+
+        @Test
+        public void rejectsMalformedBatch() {
+            assertThatThrownBy(() -> contract.issueBatch(ctx, "{}")).hasMessageStartingWith("Batch must be a JSON array");
+            assertThatThrownBy(() -> contract.issueBatch(ctx, "[]")).hasMessage("Batch must hold between 1 and "
+                    + AbstractCommercialPaperContract.MAX_BATCH_SIZE + " entries");
+
+            JSONArray batch = new JSONArray();
+            for (int i = 0; i <= AbstractCommercialPaperContract.MAX_BATCH_SIZE; i++) {
+                batch.put(issue(String.valueOf(i), "2026-11-30T00:00:00Z"));
+            }
+            assertThatThrownBy(() -> contract.issueBatch(ctx, batch.toString()))
+                    .hasMessageStartingWith("Batch must hold between 1 and");
+            verify(paperList, never()).addPapers(any());
+        }
+    }
+
+    @Nested
+    class BuyBatch {
+
+        @Test
+        @SuppressWarnings("unchecked")
+        public void buysValidPurchasesAndReportsEachFailure() {
+            CommercialPaper issued = paper("00001", "MagnetoCorp", CommercialPaper.ISSUED);
+            CommercialPaper trading = paper("00002", "DigiBank", CommercialPaper.TRADING);
+            CommercialPaper redeemed = paper("00004", "MagnetoCorp", CommercialPaper.REDEEMED);
+            stored(issued);
+            stored(trading);
+            stored(redeemed);
+            JSONArray batch = new JSONArray()
+                    .put(purchase("00001", "MagnetoCorp", "DigiBank"))
+                    .put(purchase("00001", "DigiBank", "BigFund"))
+                    .put(purchase("00002", "MagnetoCorp", "BigFund"))
+                    .put(purchase("00003", "MagnetoCorp", "DigiBank"))
+                    .put(purchase("00004", "MagnetoCorp", "DigiBank"))
+                    .put(new JSONObject().put("issuer", "MagnetoCorp").put("paperNumber", "00002"));
+
+            JSONObject result = new JSONObject(contract.buyBatch(ctx, batch.toString()));
+
+            assertThat(result.getInt("succeeded")).isEqualTo(1);
+            assertThat(result.getInt("failed")).isEqualTo(5);
+            JSONArray results = result.getJSONArray("results");
+            assertThat(results.getJSONObject(0).getString("owner")).isEqualTo("DigiBank");
+            assertThat(results.getJSONObject(0).getString("state")).isEqualTo(CommercialPaper.TRADING);
+            assertThat(results.getJSONObject(1).getString("error")).contains("appears more than once");
+            assertThat(results.getJSONObject(2).getString("error")).contains("is not owned by MagnetoCorp");
+            assertThat(results.getJSONObject(3).getString("error")).contains("does not exist");
+            assertThat(results.getJSONObject(4).getString("error")).contains("is not trading");
+            assertThat(results.getJSONObject(5).getString("error")).contains("currentOwner");
+
+            ArgumentCaptor<Collection> captor = ArgumentCaptor.forClass(Collection.class);
+            verify(paperList).updatePapers(captor.capture());
+            assertThat(written(captor)).containsExactly(issued);
+            assertThat(trading.getOwner()).isEqualTo("DigiBank");
+            assertThat(redeemed.isRedeemed()).isTrue();
+        }
+
+        @Test
+        public void rejectsMalformedBatch() {
+            assertThatThrownBy(() -> contract.buyBatch(ctx, "not json"))
+                    .hasMessageStartingWith("Batch must be a JSON array");
+            verify(paperList, never()).updatePapers(any());
+        }
+    }
+}
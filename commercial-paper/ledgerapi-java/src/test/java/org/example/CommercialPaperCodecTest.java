@@ -0,0 +1,101 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.example;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.example.ledgerapi.JsonReader;
+import org.example.ledgerapi.State;
+import org.json.JSONObject;
+import org.junit.jupiter.api.Test;
+
+public final class CommercialPaperCodecTest {
+
+    private static CommercialPaper paper(String issuer, String owner) {
+        return CommercialPaper.createInstance(issuer, "00001", "2026-05-31", "2026-11-30T00:00:00Z", 5000000, owner,
+                CommercialPaper.TRADING);
+    }
+
+    private static void assertSameAsJSONObject(CommercialPaper paper) {
+        assertThat(new String(CommercialPaperCodec.serialize(paper), UTF_8))
+                .isEqualTo(new JSONObject(paper).toString());
+        assertThat(CommercialPaper.serialize(paper)).isEqualTo(State.serialize(paper));
+    }
+
+    private static CommercialPaper roundTrip(byte[] data) {
+        return CommercialPaperCodec.deserialize(new JsonReader(data));
+    }
+
+    @Test
+    public void serializesAsJSONObject() {
+        assertSameAsJSONObject(paper("MagnetoCorp", "DigiBank"));
+    }
+
+    @Test
+    public void serializesEscapedStringsAsJSONObject() {
+        assertSameAsJSONObject(paper("Magneto \"Corp\"\\ </script>\t\n\r\b\f", "Digi\u0001Bank\u0085 é"));
+    }
+
+    @Test
+    public void omitsNullFieldsAsJSONObject() {
+        CommercialPaper paper = paper("MagnetoCorp", null).setIssueDateTime(null);
+
+        assertSameAsJSONObject(paper);
+        assertThat(new JSONObject(new String(CommercialPaper.serialize(paper), UTF_8)).has("owner")).isFalse();
+    }
+
+    @Test
+    public void omitsSplitKeyOfPaperWithoutKeyAsJSONObject() {
+        CommercialPaper paper = new CommercialPaper().setIssuer("MagnetoCorp").setPaperNumber("00001")
+                .setState(CommercialPaper.ISSUED);
+
+        assertThat(new String(CommercialPaperCodec.serialize(paper), UTF_8))
+                .isEqualTo("{\"faceValue\":0,\"paperNumber\":\"00001\",\"state\":\"ISSUED\",\"issuer\":\"MagnetoCorp\"}");
+    }
+
+    @Test
+    public void roundTripsEveryField() {
+        CommercialPaper paper = paper("Magneto \"Corp\" </", "Digi\u0001Bank ");
+
+        CommercialPaper copy = roundTrip(CommercialPaper.serialize(paper));
+
+        assertThat(copy).isEqualToComparingFieldByField(paper);
+        assertThat(copy.getStateKey()).isEqualTo(paper.getStateKey());
+    }
+
+    @Test
+    public void readsJSONObjectOutput() {
+        CommercialPaper paper = paper("MagnetoCorp", "DigiBank");
+
+        CommercialPaper copy = CommercialPaper.deserialize(new JSONObject(paper).toString().getBytes(UTF_8));
+
+        assertThat(copy).isEqualToComparingFieldByField(paper);
+    }
+
+    @Test
+    public void readsFieldsInAnyOrderAndSkipsUnknownFields() {
+        String json = "{\"issuer\":\"MagnetoCorp\",\"extra\":{\"a\":[1,true,null]},\"state\":\"ISSUED\","
+                + "\"owner\":\"MagnetoCorp\",\"faceValue\":5000000,\"paperNumber\":\"00001\","
+                + "\"issueDateTime\":\"2026-05-31\",\"splitKey\":[\"ignored\"],"
+                + "\"maturityDateTime\":\"2026-11-30T00:00:00Z\"}";
+
+        CommercialPaper paper = roundTrip(json.getBytes(UTF_8));
+
+        assertThat(paper.getStateKey().toString()).isEqualTo("00001");
+        assertThat(paper.getFaceValue()).isEqualTo(5000000);
+        assertThat(paper.isIssued()).isTrue();
+    }
+
+    @Test
+    public void rejectsMissingField() {
+        JSONObject json = new JSONObject(paper("MagnetoCorp", "DigiBank"));
+        json.remove("maturityDateTime");
+
+        assertThatThrownBy(() -> roundTrip(json.toString().getBytes(UTF_8)))
+                .hasMessage("Missing field maturityDateTime in commercial paper data");
+    }
+}
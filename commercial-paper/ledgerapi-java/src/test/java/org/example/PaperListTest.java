@@ -0,0 +1,357 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.example;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.List;
+
+import org.example.ledgerapi.State;
+import org.example.ledgerapi.StateList;
+import org.example.ledgerapi.StateModification;
+import org.example.ledgerapi.StatePage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+public final class PaperListTest {
+
+    private StateList stateList;
+    private PaperList paperList;
+
+    private static CommercialPaper paper(String paperNumber, String owner, String state) {
+        return CommercialPaper.createInstance("MagnetoCorp", paperNumber, "2026-05-31", "2026-11-30T00:00:00Z", 5000000,
+                owner, state);
+    }
+
+    private static StatePage page(int fetched, String bookmark) {
+        return new StatePage(Collections.nCopies(fetched, (State) paper("00001", "DigiBank", CommercialPaper.ISSUED)),
+                fetched, bookmark);
+    }
+
+    @BeforeEach
+    public void setUp() {
+        stateList = mock(StateList.class);
+        paperList = new PaperList(stateList);
+    }
+
+    @Nested
+    class IndexMaintenance {
+
+        @Test
+        public void addPaperIndexesIssuerStateAndMaturity() {
+            CommercialPaper paper = paper("00001", "MagnetoCorp", CommercialPaper.ISSUED);
+
+            paperList.addPaper(paper);
+
+            verify(stateList).addState(paper);
+            verify(stateList).addIndexEntry(PaperList.ISSUER_INDEX, new String[] { "MagnetoCorp" }, paper);
+            verify(stateList).addIndexEntry(PaperList.STATE_INDEX, new String[] { CommercialPaper.ISSUED }, paper);
+            verify(stateList).addIndexEntry(PaperList.MATURITY_INDEX, new String[] { "2026-11-30" }, paper);
+        }
+
+        @Test
+        public void updatePaperMovesStateIndexEntry() {
+            CommercialPaper stored = paper("00001", "MagnetoCorp", CommercialPaper.ISSUED);
+            when(stateList.getState(stored.getStateKey())).thenReturn(stored);
+
+            CommercialPaper paper = paperList.getPaper(stored.getStateKey());
+            paper.setTrading();
+            paperList.updatePaper(paper);
+
+            verify(stateList).updateState(paper);
+            verify(stateList).removeIndexEntry(PaperList.STATE_INDEX, new String[] { CommercialPaper.ISSUED }, paper);
+            verify(stateList).addIndexEntry(PaperList.STATE_INDEX, new String[] { CommercialPaper.TRADING }, paper);
+            verify(stateList, never()).removeIndexEntry(eq(PaperList.MATURITY_INDEX), any(), any());
+            verify(stateList, never()).addIndexEntry(eq(PaperList.ISSUER_INDEX), any(), any());
+        }
+
+        @Test
+        public void updatePaperWithUnchangedStateLeavesStateIndex() {
+            CommercialPaper stored = paper("00001", "DigiBank", CommercialPaper.TRADING);
+            when(stateList.getState(stored.getStateKey())).thenReturn(stored);
+
+            CommercialPaper paper = paperList.getPaper(stored.getStateKey());
+            paper.setOwner("BigFund");
+            paperList.updatePaper(paper);
+
+            verify(stateList, never()).removeIndexEntry(eq(PaperList.STATE_INDEX), any(), any());
+            verify(stateList, never()).addIndexEntry(eq(PaperList.STATE_INDEX), any(), any());
+        }
+
+        @Test
+        public void redeemRemovesMaturityIndexEntry() {
+            CommercialPaper stored = paper("00001", "DigiBank", CommercialPaper.TRADING);
+            when(stateList.getState(stored.getStateKey())).thenReturn(stored);
+
+            CommercialPaper paper = paperList.getPaper(stored.getStateKey());
+            paper.setOwner("MagnetoCorp").setRedeemed();
+            paperList.updatePaper(paper);
+
+            verify(stateList).removeIndexEntry(PaperList.STATE_INDEX, new String[] { CommercialPaper.TRADING }, paper);
+            verify(stateList).addIndexEntry(PaperList.STATE_INDEX, new String[] { CommercialPaper.REDEEMED }, paper);
+            verify(stateList).removeIndexEntry(PaperList.MATURITY_INDEX, new String[] { "2026-11-30" }, paper);
+        }
+
+        @Test
+        public void updatePaperNotReadByTheTransactionMovesEntriesOfStoredPaper() {
+            CommercialPaper stored = paper("00001", "MagnetoCorp", CommercialPaper.ISSUED);
+            when(stateList.getState(stored.getStateKey())).thenReturn(stored);
+
+            CommercialPaper paper = paper("00001", "DigiBank", CommercialPaper.TRADING);
+            paperList.updatePaper(paper);
+
+            verify(stateList).removeIndexEntry(PaperList.STATE_INDEX, new String[] { CommercialPaper.ISSUED }, paper);
+            verify(stateList).addIndexEntry(PaperList.STATE_INDEX, new String[] { CommercialPaper.TRADING }, paper);
+        }
+
+        @Test
+        public void updatePaperWithoutStoredPaperOnlyAddsEntries() {
+            CommercialPaper paper = paper("00001", "DigiBank", CommercialPaper.TRADING);
+
+            paperList.updatePaper(paper);
+
+            verify(stateList).addIndexEntry(PaperList.STATE_INDEX, new String[] { CommercialPaper.TRADING }, paper);
+            verify(stateList, never()).removeIndexEntry(eq(PaperList.STATE_INDEX), any(), any());
+        }
+
+        @Test
+        public void updateLegacyPaperWithoutStateAddsStateEntry() {
+            // Papers stored before the state index was added may have no state entry to remove
+            CommercialPaper stored = paper("00001", "MagnetoCorp", "");
+            when(stateList.getState(stored.getStateKey())).thenReturn(stored);
+
+            CommercialPaper paper = paperList.getPaper(stored.getStateKey());
+            paper.setIssued();
+            paperList.updatePaper(paper);
+
+            verify(stateList).addIndexEntry(PaperList.STATE_INDEX, new String[] { CommercialPaper.ISSUED }, paper);
+            verify(stateList, never()).removeIndexEntry(eq(PaperList.STATE_INDEX), any(), any());
+        }
+
+        @Test
+        public void rejectsInvalidMaturityDate() {
+            CommercialPaper paper = paper("00001", "MagnetoCorp", CommercialPaper.ISSUED).setMaturityDateTime("2026-13");
+
+            assertThatThrownBy(() -> paperList.addPaper(paper)).hasMessageContaining("has invalid maturity date");
+            assertThatThrownBy(() -> PaperList.maturityDate(paper.setMaturityDateTime("2026-13-01T00:00:00Z")))
+                    .hasMessageContaining("Invalid date 2026-13-01");
+        }
+    }
+
+    @Nested
+    class OwnerIndex {
+
+        private final String[] magnetoCorp = new String[] { "MagnetoCorp", "MagnetoCorp" };
+        private final String[] digiBank = new String[] { "DigiBank", "MagnetoCorp" };
+
+        @Test
+        public void addPaperIndexesOwnerPosition() {
+            CommercialPaper paper = paper("00001", "MagnetoCorp", CommercialPaper.ISSUED);
+
+            paperList.addPaper(paper);
+
+            verify(stateList).addIndexEntry(PaperList.OWNER_INDEX, magnetoCorp, paper);
+        }
+
+        @Test
+        public void addRedeemedPaperIsNobodysPosition() {
+            CommercialPaper paper = paper("00001", "MagnetoCorp", CommercialPaper.REDEEMED);
+
+            paperList.addPaper(paper);
+
+            verify(stateList, never()).addIndexEntry(eq(PaperList.OWNER_INDEX), any(), any());
+            verify(stateList, never()).addIndexEntry(eq(PaperList.MATURITY_INDEX), any(), any());
+        }
+
+        @Test
+        public void buyMovesPositionToNewOwner() {
+            CommercialPaper stored = paper("00001", "MagnetoCorp", CommercialPaper.ISSUED);
+            when(stateList.getState(stored.getStateKey())).thenReturn(stored);
+
+            CommercialPaper paper = paperList.getPaper(stored.getStateKey());
+            paper.setTrading().setOwner("DigiBank");
+            paperList.updatePaper(paper);
+
+            verify(stateList).removeIndexEntry(PaperList.OWNER_INDEX, magnetoCorp, paper);
+            verify(stateList).addIndexEntry(PaperList.OWNER_INDEX, digiBank, paper);
+        }
+
+        @Test
+        public void updateWithUnchangedOwnerLeavesPosition() {
+            CommercialPaper stored = paper("00001", "MagnetoCorp", CommercialPaper.ISSUED);
+            when(stateList.getState(stored.getStateKey())).thenReturn(stored);
+
+            CommercialPaper paper = paperList.getPaper(stored.getStateKey());
+            paper.setTrading();
+            paperList.updatePaper(paper);
+
+            verify(stateList, never()).removeIndexEntry(eq(PaperList.OWNER_INDEX), any(), any());
+            verify(stateList, never()).addIndexEntry(eq(PaperList.OWNER_INDEX), any(), any());
+        }
+
+        @Test
+        public void redeemRemovesPositionOfRedeemingOwner() {
+            CommercialPaper stored = paper("00001", "DigiBank", CommercialPaper.TRADING);
+            when(stateList.getState(stored.getStateKey())).thenReturn(stored);
+
+            CommercialPaper paper = paperList.getPaper(stored.getStateKey());
+            paper.setOwner("MagnetoCorp").setRedeemed();
+            paperList.updatePaper(paper);
+
+            verify(stateList).removeIndexEntry(PaperList.OWNER_INDEX, digiBank, paper);
+            verify(stateList, never()).addIndexEntry(eq(PaperList.OWNER_INDEX), any(), any());
+        }
+
+        @Test
+        public void positionsMovedTwiceInOneTransactionEndWithLastOwner() {
+            CommercialPaper stored = paper("00001", "MagnetoCorp", CommercialPaper.TRADING);
+            when(stateList.getState(stored.getStateKey())).thenReturn(stored);
+
+            CommercialPaper paper = paperList.getPaper(stored.getStateKey());
+            paperList.updatePaper(paper.setOwner("DigiBank"));
+            paperList.updatePaper(paper.setOwner("BigFund"));
+
+            verify(stateList).removeIndexEntry(PaperList.OWNER_INDEX, magnetoCorp, paper);
+            verify(stateList).removeIndexEntry(PaperList.OWNER_INDEX, digiBank, paper);
+            verify(stateList).addIndexEntry(PaperList.OWNER_INDEX, new String[] { "BigFund", "MagnetoCorp" }, paper);
+        }
+
+        @Test
+        public void updatePaperWithoutStoredPaperAddsPosition() {
+            CommercialPaper paper = paper("00001", "DigiBank", CommercialPaper.TRADING);
+
+            paperList.updatePaper(paper);
+
+            verify(stateList).addIndexEntry(PaperList.OWNER_INDEX, digiBank, paper);
+            verify(stateList, never()).removeIndexEntry(eq(PaperList.OWNER_INDEX), any(), any());
+        }
+
+        @Test
+        public void updateLegacyPaperWithoutPositionAddsPosition() {
+            // Papers stored before the owner index was added have no position entry; removing it writes a delete of
+            // an absent key, which is harmless
+            CommercialPaper stored = paper("00001", "MagnetoCorp", CommercialPaper.ISSUED);
+            when(stateList.getState(stored.getStateKey())).thenReturn(stored);
+
+            CommercialPaper paper = paperList.getPaper(stored.getStateKey());
+            paper.setTrading().setOwner("DigiBank");
+            paperList.updatePaper(paper);
+
+            verify(stateList).addIndexEntry(PaperList.OWNER_INDEX, digiBank, paper);
+        }
+
+        @Test
+        public void getPositionsQueriesOwnerIndex() {
+            StatePage page = page(1, "");
+            when(stateList.getStatesByIndex(PaperList.OWNER_INDEX, new String[] { "DigiBank" }, 10, "")).thenReturn(page);
+
+            assertThat(paperList.getPositions("DigiBank", 10, "")).isSameAs(page);
+        }
+
+        @Test
+        public void getPaperHistoryReadsStateHistory() {
+            CommercialPaper paper = paper("00001", "DigiBank", CommercialPaper.TRADING);
+            List<StateModification> history = Collections.singletonList(
+                    new StateModification("tx1", Instant.EPOCH, false, paper));
+            when(stateList.getHistory(paper.getStateKey())).thenReturn(history);
+
+            assertThat(paperList.getPaperHistory(paper.getStateKey())).isSameAs(history);
+        }
+    }
+
+    @Nested
+    class MaturityQueries {
+
+        private final LocalDate from = LocalDate.parse("2026-11-01");
+        private final LocalDate to = LocalDate.parse("2026-11-03");
+
+        private void day(String date, int pageSize, String bookmark, StatePage page) {
+            when(stateList.getStatesByIndex(PaperList.MATURITY_INDEX, new String[] { date }, pageSize, bookmark))
+                    .thenReturn(page);
+        }
+
+        @Test
+        public void fillsPageAcrossDaysAndBookmarksWithinDay() {
+            day("2026-11-01", 3, "", page(1, ""));
+            day("2026-11-02", 2, "", page(2, "b2"));
+
+            StatePage result = paperList.getPapersMaturing(from, to, 3, "");
+
+            assertThat(result.getStates()).hasSize(3);
+            assertThat(result.getFetchedRecordsCount()).isEqualTo(3);
+            assertThat(result.getBookmark()).isEqualTo("2026-11-02|b2");
+        }
+
+        @Test
+        public void pageFullAtEndOfDayBookmarksNextDay() {
+            day("2026-11-01", 2, "", page(2, ""));
+
+            assertThat(paperList.getPapersMaturing(from, to, 2, "").getBookmark()).isEqualTo("2026-11-02|");
+        }
+
+        @Test
+        public void pageFullAtEndOfRangeHasNoBookmark() {
+            day("2026-11-03", 2, "", page(2, ""));
+
+            assertThat(paperList.getPapersMaturing(to, to, 2, "").getBookmark()).isEmpty();
+        }
+
+        @Test
+        public void resumesWithinBookmarkedDay() {
+            day("2026-11-02", 3, "b2", page(1, ""));
+            day("2026-11-03", 2, "", page(0, ""));
+
+            StatePage result = paperList.getPapersMaturing(from, to, 3, "2026-11-02|b2");
+
+            assertThat(result.getStates()).hasSize(1);
+            assertThat(result.getBookmark()).isEmpty();
+            verify(stateList, never()).getStatesByIndex(eq(PaperList.MATURITY_INDEX),
+                    eq(new String[] { "2026-11-01" }), anyInt(), any());
+        }
+
+        @Test
+        public void resumesAtStartOfBookmarkedDay() {
+            day("2026-11-02", 3, "", page(0, ""));
+            day("2026-11-03", 3, "", page(2, ""));
+
+            StatePage result = paperList.getPapersMaturing(from, to, 3, "2026-11-02|");
+
+            assertThat(result.getStates()).hasSize(2);
+            assertThat(result.getBookmark()).isEmpty();
+        }
+
+        @Test
+        public void rejectsInvalidBookmarksAndRanges() {
+            assertThatThrownBy(() -> paperList.getPapersMaturing(from, to, 3, "b2"))
+                    .hasMessage("Invalid bookmark b2");
+            assertThatThrownBy(() -> paperList.getPapersMaturing(from, to, 3, "2026-10-31|"))
+                    .hasMessage("Bookmark 2026-10-31| is outside the maturity date range");
+            assertThatThrownBy(() -> paperList.getPapersMaturing(to, from, 3, ""))
+                    .hasMessageStartingWith("Maturity date range must cover");
+            assertThatThrownBy(() -> paperList.getPapersMaturing(from, from.plusDays(PaperList.MAX_MATURITY_RANGE_DAYS),
+                    3, "")).hasMessageStartingWith("Maturity date range must cover");
+        }
+
+        @Test
+        public void allowsLongestRange() {
+            LocalDate last = from.plusDays(PaperList.MAX_MATURITY_RANGE_DAYS - 1);
+            day(last.toString(), 1, "", page(1, ""));
+
+            assertThat(paperList.getPapersMaturing(from, last, 1, last + "|").getStates()).hasSize(1);
+        }
+    }
+}
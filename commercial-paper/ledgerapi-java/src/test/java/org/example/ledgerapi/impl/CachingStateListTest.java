@@ -0,0 +1,163 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.example.ledgerapi.impl;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.example.CommercialPaper;
+import org.example.ledgerapi.State;
+import org.example.ledgerapi.StateKey;
+import org.hyperledger.fabric.contract.Context;
+import org.hyperledger.fabric.shim.ChaincodeStub;
+import org.hyperledger.fabric.shim.ledger.CompositeKey;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+
+public final class CachingStateListTest {
+
+    private static final String LIST = "PaperList";
+
+    private ChaincodeStub stub;
+    private CachingStateList stateList;
+    private AtomicInteger serialized;
+
+    private static CommercialPaper paper(String paperNumber, String owner) {
+        return CommercialPaper.createInstance("MagnetoCorp", paperNumber, "2026-05-31", "2026-11-30T00:00:00Z", 5000000,
+                owner, CommercialPaper.TRADING);
+    }
+
+    private static String ledgerKey(String paperNumber) {
+        return new CompositeKey(LIST, paperNumber).toString();
+    }
+
+    private static String indexKey(String indexName, String... attributes) {
+        return new CompositeKey(LIST + "~" + indexName, attributes).toString();
+    }
+
+    @BeforeEach
+    public void setUp() {
+        stub = mock(ChaincodeStub.class);
+        when(stub.createCompositeKey(anyString(), any())).thenAnswer(invocation -> {
+            Object[] args = invocation.getArguments();
+            return new CompositeKey((String) args[0], Arrays.copyOfRange(args, 1, args.length, String[].class));
+        });
+        Context ctx = mock(Context.class);
+        when(ctx.getStub()).thenReturn(stub);
+
+        serialized = new AtomicInteger();
+        stateList = new CachingStateList(ctx, LIST, state -> {
+            serialized.incrementAndGet();
+            return CommercialPaper.serialize((CommercialPaper) state);
+        }, CommercialPaper::deserialize);
+    }
+
+    @Test
+    public void missIsReadOnce() {
+        StateKey key = StateKey.of("00001");
+
+        assertThat(stateList.getState(key)).isNull();
+        assertThat(stateList.getState("00001")).isNull();
+
+        verify(stub, times(1)).getState(ledgerKey("00001"));
+    }
+
+    @Test
+    public void hitIsReadAndDeserializedOnce() {
+        when(stub.getState(ledgerKey("00001"))).thenReturn(CommercialPaper.serialize(paper("00001", "DigiBank")));
+
+        State first = stateList.getState(StateKey.of("00001"));
+        State second = stateList.getState(StateKey.of("00001"));
+
+        assertThat(first).isSameAs(second);
+        assertThat(((CommercialPaper) first).getOwner()).isEqualTo("DigiBank");
+        verify(stub, times(1)).getState(ledgerKey("00001"));
+    }
+
+    @Test
+    public void writesAreReadBackWithoutLedgerAccess() {
+        CommercialPaper paper = paper("00001", "DigiBank");
+
+        stateList.addState(paper);
+
+        assertThat(stateList.getState(StateKey.of("00001"))).isSameAs(paper);
+        verify(stub, never()).getState(anyString());
+    }
+
+    @Test
+    public void writeAfterCachedMissIsReadBack() {
+        assertThat(stateList.getState(StateKey.of("00001"))).isNull();
+        CommercialPaper paper = paper("00001", "DigiBank");
+
+        stateList.addState(paper);
+
+        assertThat(stateList.getState(StateKey.of("00001"))).isSameAs(paper);
+        verify(stub, times(1)).getState(ledgerKey("00001"));
+    }
+
+    @Test
+    public void nothingIsWrittenBeforeFlush() {
+        CommercialPaper paper = paper("00001", "DigiBank");
+
+        stateList.addState(paper);
+        stateList.addIndexEntry("owner", new String[] { "DigiBank" }, paper);
+        stateList.removeIndexEntry("owner", new String[] { "MagnetoCorp" }, paper);
+
+        verify(stub, never()).putState(anyString(), any());
+        verify(stub, never()).delState(anyString());
+        assertThat(serialized.get()).isZero();
+    }
+
+    @Test
+    public void flushWritesEachKeyOnceInKeyOrder() {
+        CommercialPaper paper1 = paper("00001", "DigiBank");
+        CommercialPaper paper2 = paper("00002", "MagnetoCorp");
+
+        stateList.updateState(paper2);
+        stateList.addState(paper1);
+        stateList.addIndexEntry("owner", new String[] { "DigiBank" }, paper2);
+        stateList.removeIndexEntry("owner", new String[] { "MagnetoCorp" }, paper2);
+        paper2.setOwner("DigiBank");
+        stateList.updateState(paper2);
+        // The last write of a key wins
+        stateList.removeIndexEntry("owner", new String[] { "DigiBank" }, paper2);
+        stateList.addIndexEntry("owner", new String[] { "DigiBank" }, paper2);
+        stateList.flush();
+
+        InOrder order = inOrder(stub);
+        order.verify(stub).putState(ledgerKey("00001"), CommercialPaper.serialize(paper1));
+        order.verify(stub).putState(ledgerKey("00002"), CommercialPaper.serialize(paper2));
+        order.verify(stub).putState(indexKey("owner", "DigiBank", "00002"), "00002".getBytes(UTF_8));
+        order.verify(stub).delState(indexKey("owner", "MagnetoCorp", "00002"));
+        verify(stub, times(3)).putState(anyString(), any());
+        verify(stub, times(1)).delState(anyString());
+        assertThat(serialized.get()).isEqualTo(2);
+    }
+
+    @Test
+    public void flushClearsBuffersAndKeepsCache() {
+        CommercialPaper paper = paper("00001", "DigiBank");
+        stateList.addState(paper);
+        stateList.flush();
+
+        stateList.flush();
+
+        verify(stub, times(1)).putState(anyString(), any());
+        assertThat(stateList.getState(StateKey.of("00001"))).isSameAs(paper);
+        verify(stub, never()).getState(anyString());
+    }
+}
@@ -0,0 +1,94 @@
+/*
+SPDX-License-Identifier: Apache-2.0
+*/
+
+package org.digibank;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+
+import org.hyperledger.fabric.gateway.Contract;
+import org.hyperledger.fabric.gateway.Gateway;
+import org.hyperledger.fabric.gateway.GatewayException;
+import org.hyperledger.fabric.gateway.Network;
+import org.hyperledger.fabric.gateway.Wallet;
+import org.hyperledger.fabric.gateway.Wallets;
+import org.papernet.PaperServer;
+
+/**
+ * Long-running service that connects to PaperNet once as DigiBank, and then
+ * submits issue, buy and redeem transactions received on a local HTTP API until
+ * it is stopped. The port and the number of transactions in flight are set by
+ * PAPER_SERVICE_PORT and PAPER_SERVICE_WORKERS.
+ */
+public class PaperService {
+
+	private static final String ENVKEY="CONTRACT_NAME";
+	private static final String PORT_ENVKEY="PAPER_SERVICE_PORT";
+	private static final String WORKERS_ENVKEY="PAPER_SERVICE_WORKERS";
+
+	public static void main(String[] args) {
+		Gateway.Builder builder = Gateway.createBuilder();
+
+		String contractName="papercontract";
+		// get the name of the contract, in case it is overridden
+		Map<String,String> envvar = System.getenv();
+		if (envvar.containsKey(ENVKEY)){
+			contractName=envvar.get(ENVKEY);
+		}
+		int port = Integer.parseInt(envvar.getOrDefault(PORT_ENVKEY, "8081"));
+		int workers = Integer.parseInt(envvar.getOrDefault(WORKERS_ENVKEY, "16"));
+
+		try {
+			// A wallet stores a collection of identities
+			Path walletPath = Paths.get(".", "wallet");
+			Wallet wallet = Wallets.newFileSystemWallet(walletPath);
+
+			String userName = "User1@org1.example.com";
+
+			Path connectionProfile = Paths.get("..", "gateway", "connection-org1.yaml");
+
+			// Set connection options on the gateway builder
+			builder.identity(wallet, userName).networkConfig(connectionProfile).discovery(false);
+
+			// Connect to gateway once, and keep the connection for the life of the service
+			try(Gateway gateway = builder.connect()) {
+
+				// Access PaperNet network
+				System.out.println("Use network channel: mychannel.");
+				Network network = gateway.getNetwork("mychannel");
+
+				// Get addressability to commercial paper contract
+				System.out.println("Use org.papernet.commercialpaper smart contract.");
+				Contract contract = network.getContract(contractName, "org.papernet.commercialpaper");
+
+				CountDownLatch stopped = new CountDownLatch(1);
+				try (PaperServer server = new PaperServer(contract, port, workers)) {
+					server.warmUp();
+					server.start();
+					System.out.println("Commercial paper service listening on http://localhost:" + server.getPort());
+
+					// Stop on SIGINT or SIGTERM, and let the server and gateway close before the JVM exits
+					Thread main = Thread.currentThread();
+					Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+						stopped.countDown();
+						try {
+							main.join(30000);
+						} catch (InterruptedException e) {
+							Thread.currentThread().interrupt();
+						}
+					}));
+					stopped.await();
+					System.out.println("Stopping commercial paper service.");
+				}
+			}
+		} catch (GatewayException | IOException | InterruptedException e) {
+			e.printStackTrace();
+			System.exit(-1);
+		}
+	}
+
+}
@@ -0,0 +1,181 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.papernet;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.hyperledger.fabric.gateway.Contract;
+import org.hyperledger.fabric.gateway.ContractException;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Local HTTP API in front of one connected commercial paper contract, so that
+ * client applications do not pay for loading the wallet, parsing the connection
+ * profile and connecting to the network on every transaction.
+ *
+ * The contract handle, and the gateway connection behind it, are shared by all
+ * requests. Requests are handled on a pool of worker threads, so that up to the
+ * pool size of transactions are endorsed and awaiting commit at once.
+ *
+ * POST /issue, /buy and /redeem take a JSON object with the arguments of the
+ * transaction of the same name, and return the resulting paper. GET /stats
+ * returns request counts and latency. The server only listens on the loopback
+ * interface.
+ */
+public class PaperServer implements AutoCloseable {
+
+    private static final String[] ISSUE_ARGS = { "issuer", "paperNumber", "issueDateTime", "maturityDateTime",
+            "faceValue" };
+    private static final String[] BUY_ARGS = { "issuer", "paperNumber", "currentOwner", "newOwner", "price",
+            "purchaseDateTime" };
+    private static final String[] REDEEM_ARGS = { "issuer", "paperNumber", "redeemingOwner", "redeemDateTime" };
+
+    private final Contract contract;
+    private final HttpServer server;
+    private final ExecutorService workers;
+
+    private final AtomicLong succeeded = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong totalNanos = new AtomicLong();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    /**
+     * @param contract the commercial paper contract
+     * @param port     the loopback port to listen on
+     * @param workers  the number of requests handled at once
+     */
+    public PaperServer(Contract contract, int port, int workers) throws IOException {
+        this.contract = contract;
+        this.workers = Executors.newFixedThreadPool(workers);
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), workers * 2);
+        this.server.setExecutor(this.workers);
+        this.server.createContext("/issue", exchange -> submit(exchange, "issue", ISSUE_ARGS));
+        this.server.createContext("/buy", exchange -> submit(exchange, "buy", BUY_ARGS));
+        this.server.createContext("/redeem", exchange -> submit(exchange, "redeem", REDEEM_ARGS));
+        this.server.createContext("/stats", this::stats);
+    }
+
+    /**
+     * Evaluate a query so that the connections to the network are established
+     * before the first request arrives.
+     */
+    public void warmUp() throws ContractException {
+        contract.evaluateTransaction("getPapersByState", CommercialPaper.ISSUED, "1", "");
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    @Override
+    public void close() {
+        server.stop(1);
+        workers.shutdown();
+        try {
+            workers.awaitTermination(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void submit(HttpExchange exchange, String transaction, String[] argNames) throws IOException {
+        if (!"POST".equals(exchange.getRequestMethod())) {
+            respond(exchange, 405, error("Use POST"));
+            return;
+        }
+
+        String[] args = new String[argNames.length];
+        try {
+            JSONObject request = new JSONObject(readBody(exchange.getRequestBody()));
+            for (int i = 0; i < argNames.length; i++) {
+                if (!request.has(argNames[i])) {
+                    throw new IllegalArgumentException("Missing " + argNames[i]);
+                }
+                args[i] = String.valueOf(request.get(argNames[i]));
+            }
+        } catch (JSONException | IllegalArgumentException e) {
+            respond(exchange, 400, error(e.getMessage()));
+            return;
+        }
+
+        long start = System.nanoTime();
+        try {
+            byte[] paper = contract.submitTransaction(transaction, args);
+            record(start, true);
+            respond(exchange, 200, paper);
+        } catch (ContractException e) {
+            record(start, false);
+            respond(exchange, 409, error(e.getMessage()));
+        } catch (TimeoutException e) {
+            record(start, false);
+            respond(exchange, 504, error("Timed out waiting for commit: " + e.getMessage()));
+        } catch (InterruptedException e) {
+            record(start, false);
+            Thread.currentThread().interrupt();
+            respond(exchange, 503, error("Interrupted"));
+        } catch (RuntimeException e) {
+            // For example a gateway or connection failure, which would otherwise leave the request unanswered
+            record(start, false);
+            respond(exchange, 500, error(e.toString()));
+        }
+    }
+
+    private void stats(HttpExchange exchange) throws IOException {
+        long completed = succeeded.get() + failed.get();
+        JSONObject stats = new JSONObject().put("succeeded", succeeded.get()).put("failed", failed.get())
+                .put("averageLatencyMillis", completed == 0 ? 0 : totalNanos.get() / completed / 1000000)
+                .put("maxLatencyMillis", maxNanos.get() / 1000000);
+        respond(exchange, 200, stats.toString().getBytes(UTF_8));
+    }
+
+    private void record(long start, boolean success) {
+        long elapsed = System.nanoTime() - start;
+        (success ? succeeded : failed).incrementAndGet();
+        totalNanos.addAndGet(elapsed);
+        maxNanos.accumulateAndGet(elapsed, Math::max);
+    }
+
+    private static byte[] error(String message) {
+        return new JSONObject().put("error", message == null ? "" : message).toString().getBytes(UTF_8);
+    }
+
+    private static String readBody(InputStream body) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        byte[] buffer = new byte[4096];
+        int read;
+        while ((read = body.read(buffer)) != -1) {
+            bytes.write(buffer, 0, read);
+        }
+        return new String(bytes.toByteArray(), UTF_8);
+    }
+
+    private static void respond(HttpExchange exchange, int status, byte[] body) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+}
@@ -0,0 +1,93 @@
+/*
+SPDX-License-Identifier: Apache-2.0
+*/
+
+package org.magnetocorp;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import org.hyperledger.fabric.gateway.Contract;
+import org.hyperledger.fabric.gateway.Gateway;
+import org.hyperledger.fabric.gateway.GatewayException;
+import org.hyperledger.fabric.gateway.Network;
+import org.hyperledger.fabric.gateway.Wallet;
+import org.hyperledger.fabric.gateway.Wallets;
+import org.papernet.RedemptionScheduler;
+
+/**
+ * Redeems all the papers held by MagnetoCorp that mature on a date, given as the
+ * first argument (yyyy-MM-dd) and defaulting to today. The redemptions are
+ * prepared straight away and submitted from the start of the due date, at
+ * REDEEM_RATE transactions per second with at most REDEEM_MAX_IN_FLIGHT
+ * awaiting commit.
+ */
+public class ScheduleRedemptions {
+
+  private static final String ENVKEY="CONTRACT_NAME";
+  private static final String RATE_ENVKEY="REDEEM_RATE";
+  private static final String MAX_IN_FLIGHT_ENVKEY="REDEEM_MAX_IN_FLIGHT";
+
+  public static void main(String[] args) {
+    Gateway.Builder builder = Gateway.createBuilder();
+
+    String contractName="papercontract";
+    // get the name of the contract, in case it is overridden
+    Map<String,String> envvar = System.getenv();
+    if (envvar.containsKey(ENVKEY)){
+      contractName=envvar.get(ENVKEY);
+    }
+    double rate = Double.parseDouble(envvar.getOrDefault(RATE_ENVKEY, "20"));
+    int maxInFlight = Integer.parseInt(envvar.getOrDefault(MAX_IN_FLIGHT_ENVKEY, "10"));
+    LocalDate date = args.length > 0 ? LocalDate.parse(args[0]) : LocalDate.now();
+
+    try {
+      // A wallet stores a collection of identities
+      Path walletPath = Paths.get(".", "wallet");
+      Wallet wallet = Wallets.newFileSystemWallet(walletPath);
+
+      String userName = "User1@org2.example.com";
+
+      Path connectionProfile = Paths.get("..", "gateway", "connection-org2.yaml");
+
+      // Set connection options on the gateway builder
+      builder.identity(wallet, userName).networkConfig(connectionProfile).discovery(false);
+
+      // Connect to gateway using application specified parameters
+      try(Gateway gateway = builder.connect()) {
+
+        // Access PaperNet network
+        System.out.println("Use network channel: mychannel.");
+        Network network = gateway.getNetwork("mychannel");
+
+        // Get addressability to commercial paper contract
+        System.out.println("Use org.papernet.commercialpaper smart contract.");
+        Contract contract = network.getContract(contractName, "org.papernet.commercialpaper");
+
+        try (RedemptionScheduler scheduler = new RedemptionScheduler.Builder(contract, "MagnetoCorp")
+            .rate(rate).maxInFlight(maxInFlight).build()) {
+          // Find the papers due and create their redeem transactions ahead of the due date
+          System.out.println("Prepare redemptions of papers maturing on " + date + ".");
+          List<RedemptionScheduler.Redemption> redemptions = scheduler.prepare(date);
+          System.out.println("Prepared " + redemptions.size() + " redemptions.");
+
+          RedemptionScheduler.Report report = scheduler.submit(date, redemptions);
+          for (RedemptionScheduler.Redemption redemption : report.getRedemptions()) {
+            if (!redemption.isSucceeded()) {
+              System.out.println(redemption);
+            }
+          }
+          System.out.println(report);
+        }
+      }
+    } catch (GatewayException | IOException | InterruptedException e) {
+      e.printStackTrace();
+      System.exit(-1);
+    }
+  }
+
+}
@@ -0,0 +1,336 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.papernet;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.hyperledger.fabric.gateway.Contract;
+import org.hyperledger.fabric.gateway.ContractException;
+import org.hyperledger.fabric.gateway.Transaction;
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+/**
+ * Redeems the commercial papers held by one owner on their maturity date.
+ *
+ * The papers due on a date are found among the positions of the owner, with
+ * the getPositions query over the owner index, and a redeem transaction is
+ * created for each of them ahead of time. From the start
+ * of the due date the transactions are submitted concurrently, at no more than
+ * the configured rate and with no more than the configured number in flight,
+ * so that a spike of maturing papers is spread out at a pace the network can
+ * absorb.
+ *
+ * Ownership can change between preparing and submitting; redemptions of papers
+ * that are no longer held fail and are reported, without affecting the others.
+ */
+public class RedemptionScheduler implements AutoCloseable {
+
+    private final Contract contract;
+    private final String owner;
+    private final double ratePerSecond;
+    private final int maxInFlight;
+    private final int pageSize;
+    private final ZoneId zone;
+    private final LocalTime startTime;
+
+    private final ExecutorService workers;
+    private final ScheduledExecutorService ticker;
+
+    /**
+     * A prepared redemption of one paper, and its outcome once submitted
+     */
+    public static class Redemption {
+        private final String issuer;
+        private final String paperNumber;
+        private final Transaction transaction;
+        private volatile boolean succeeded;
+        private volatile String error;
+
+        Redemption(String issuer, String paperNumber, Transaction transaction) {
+            this.issuer = issuer;
+            this.paperNumber = paperNumber;
+            this.transaction = transaction;
+        }
+
+        public String getIssuer() {
+            return issuer;
+        }
+
+        public String getPaperNumber() {
+            return paperNumber;
+        }
+
+        public boolean isSucceeded() {
+            return succeeded;
+        }
+
+        public String getError() {
+            return error;
+        }
+
+        @Override
+        public String toString() {
+            return "Redemption::" + issuer + paperNumber
+                    + (error != null ? " failed: " + error : succeeded ? " succeeded" : " pending");
+        }
+    }
+
+    /**
+     * Outcome of the redemptions of one due date
+     */
+    public static class Report {
+        private final LocalDate date;
+        private final List<Redemption> redemptions;
+        private final Duration elapsed;
+
+        Report(LocalDate date, List<Redemption> redemptions, Duration elapsed) {
+            this.date = date;
+            this.redemptions = Collections.unmodifiableList(redemptions);
+            this.elapsed = elapsed;
+        }
+
+        public LocalDate getDate() {
+            return date;
+        }
+
+        public List<Redemption> getRedemptions() {
+            return redemptions;
+        }
+
+        public Duration getElapsed() {
+            return elapsed;
+        }
+
+        public int getSucceeded() {
+            int succeeded = 0;
+            for (Redemption redemption : redemptions) {
+                succeeded += redemption.isSucceeded() ? 1 : 0;
+            }
+            return succeeded;
+        }
+
+        public int getFailed() {
+            return redemptions.size() - getSucceeded();
+        }
+
+        /**
+         * @return completed redemptions per second
+         */
+        public double getThroughput() {
+            return elapsed.isZero() ? 0 : redemptions.size() * 1000.0 / Math.max(1, elapsed.toMillis());
+        }
+
+        @Override
+        public String toString() {
+            return "Redemptions for " + date + ": " + redemptions.size() + " submitted, " + getSucceeded()
+                    + " succeeded, " + getFailed() + " failed in " + elapsed.toMillis() + " ms ("
+                    + String.format("%.1f", getThroughput()) + " tx/s)";
+        }
+    }
+
+    public static class Builder {
+        private final Contract contract;
+        private final String owner;
+        private double ratePerSecond = 20;
+        private int maxInFlight = 10;
+        private int pageSize = 100;
+        private ZoneId zone = ZoneId.systemDefault();
+        private LocalTime startTime = LocalTime.MIDNIGHT;
+
+        /**
+         * @param contract the commercial paper contract
+         * @param owner    the owner whose papers are redeemed, as recorded on the
+         *                 papers
+         */
+        public Builder(Contract contract, String owner) {
+            this.contract = contract;
+            this.owner = owner;
+        }
+
+        /**
+         * Maximum number of redeem transactions submitted per second
+         */
+        public Builder rate(double ratePerSecond) {
+            if (ratePerSecond <= 0) {
+                throw new IllegalArgumentException("Rate must be positive");
+            }
+            this.ratePerSecond = ratePerSecond;
+            return this;
+        }
+
+        /**
+         * Maximum number of redeem transactions awaiting commit at once
+         */
+        public Builder maxInFlight(int maxInFlight) {
+            if (maxInFlight < 1) {
+                throw new IllegalArgumentException("At least one transaction must be allowed in flight");
+            }
+            this.maxInFlight = maxInFlight;
+            return this;
+        }
+
+        /**
+         * Page size of the getPositions queries
+         */
+        public Builder pageSize(int pageSize) {
+            this.pageSize = pageSize;
+            return this;
+        }
+
+        /**
+         * Time zone in which due dates start
+         */
+        public Builder zone(ZoneId zone) {
+            this.zone = zone;
+            return this;
+        }
+
+        /**
+         * Time of day on the due date at which submission starts
+         */
+        public Builder startTime(LocalTime startTime) {
+            this.startTime = startTime;
+            return this;
+        }
+
+        public RedemptionScheduler build() {
+            return new RedemptionScheduler(this);
+        }
+    }
+
+    private RedemptionScheduler(Builder builder) {
+        this.contract = builder.contract;
+        this.owner = builder.owner;
+        this.ratePerSecond = builder.ratePerSecond;
+        this.maxInFlight = builder.maxInFlight;
+        this.pageSize = builder.pageSize;
+        this.zone = builder.zone;
+        this.startTime = builder.startTime;
+        this.workers = Executors.newFixedThreadPool(maxInFlight);
+        this.ticker = Executors.newSingleThreadScheduledExecutor();
+    }
+
+    /**
+     * Find the outstanding papers of the owner that mature on a date, and create a
+     * redeem transaction for each of them. Nothing is submitted.
+     *
+     * Only the positions of the owner are read, rather than every paper maturing
+     * on the date; the contract buckets maturity dates by the date part of the
+     * maturity date time, and so does this filter.
+     */
+    public List<Redemption> prepare(LocalDate date) throws ContractException {
+        List<Redemption> redemptions = new ArrayList<>();
+        String maturityDate = date.toString();
+        String bookmark = "";
+        do {
+            byte[] response = contract.evaluateTransaction("getPositions", owner, Integer.toString(pageSize),
+                    bookmark);
+            JSONObject page = new JSONObject(new String(response, UTF_8));
+            JSONArray records = page.getJSONArray("records");
+            for (int i = 0; i < records.length(); i++) {
+                JSONObject paper = records.getJSONObject(i);
+                if (paper.optString("maturityDateTime").startsWith(maturityDate)) {
+                    redemptions.add(new Redemption(paper.getString("issuer"), paper.getString("paperNumber"),
+                            contract.createTransaction("redeem")));
+                }
+            }
+            bookmark = page.getString("bookmark");
+        } while (!bookmark.isEmpty());
+        return redemptions;
+    }
+
+    /**
+     * Wait for the start of the due date, then submit the prepared redemptions at
+     * the configured rate and wait for them all to complete.
+     */
+    public Report submit(LocalDate date, List<Redemption> redemptions) throws InterruptedException {
+        ZonedDateTime start = ZonedDateTime.of(date, startTime, zone);
+        long wait = Duration.between(ZonedDateTime.now(zone), start).toMillis();
+        if (wait > 0) {
+            System.out.println("Waiting until " + start + " to redeem " + redemptions.size() + " papers.");
+            Thread.sleep(wait);
+        }
+
+        ConcurrentLinkedQueue<Redemption> pending = new ConcurrentLinkedQueue<>(redemptions);
+        CountDownLatch completed = new CountDownLatch(redemptions.size());
+        Semaphore inFlight = new Semaphore(maxInFlight);
+        long periodNanos = (long) (TimeUnit.SECONDS.toNanos(1) / ratePerSecond);
+        long started = System.nanoTime();
+
+        // Each tick releases at most one redemption; a tick is skipped while the in-flight limit is reached
+        ScheduledFuture<?> ticks = ticker.scheduleAtFixedRate(() -> {
+            if (pending.isEmpty() || !inFlight.tryAcquire()) {
+                return;
+            }
+            Redemption redemption = pending.poll();
+            try {
+                workers.execute(() -> {
+                    try {
+                        redemption.transaction.submit(redemption.issuer, redemption.paperNumber, owner, date.toString());
+                        redemption.succeeded = true;
+                    } catch (ContractException | TimeoutException e) {
+                        redemption.error = e.getMessage();
+                    } catch (InterruptedException e) {
+                        redemption.error = "Interrupted";
+                        Thread.currentThread().interrupt();
+                    } catch (RuntimeException e) {
+                        redemption.error = e.toString();
+                    } finally {
+                        inFlight.release();
+                        completed.countDown();
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                // The scheduler is closed: fail this redemption and the ones not yet released, so that the wait
+                // below completes
+                for (Redemption rejected = redemption; rejected != null; rejected = pending.poll()) {
+                    rejected.error = "Scheduler closed";
+                    completed.countDown();
+                }
+                inFlight.release();
+            }
+        }, 0, Math.max(1, periodNanos), TimeUnit.NANOSECONDS);
+
+        try {
+            completed.await();
+        } finally {
+            ticks.cancel(false);
+        }
+        return new Report(date, redemptions, Duration.ofNanos(System.nanoTime() - started));
+    }
+
+    /**
+     * Prepare and submit the redemptions of the papers due on a date
+     */
+    public Report run(LocalDate date) throws ContractException, InterruptedException {
+        return submit(date, prepare(date));
+    }
+
+    @Override
+    public void close() {
+        ticker.shutdownNow();
+        workers.shutdown();
+    }
+}
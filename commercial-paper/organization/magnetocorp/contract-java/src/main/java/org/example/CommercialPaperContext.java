@@ -1,15 +0,0 @@
-package org.example;
-
-import org.hyperledger.fabric.contract.Context;
-import org.hyperledger.fabric.shim.ChaincodeStub;
-
-class CommercialPaperContext extends Context {
-
-    public CommercialPaperContext(ChaincodeStub stub) {
-        super(stub);
-        this.paperList = new PaperList(this);
-    }
-
-    public PaperList paperList;
-
-}
\ No newline at end of file
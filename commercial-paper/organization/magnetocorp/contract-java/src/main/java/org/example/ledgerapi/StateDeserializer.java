@@ -1,6 +0,0 @@
-package org.example.ledgerapi;
-
-@FunctionalInterface
-public interface StateDeserializer {
-    State deserialize(byte[] buffer);
-}
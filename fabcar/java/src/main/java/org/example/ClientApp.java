@@ -4,8 +4,14 @@ SPDX-License-Identifier: Apache-2.0
 
 package org.example;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
+
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 import org.hyperledger.fabric.gateway.Contract;
 import org.hyperledger.fabric.gateway.Gateway;
@@ -15,6 +21,15 @@ import org.hyperledger.fabric.gateway.Wallets;
 
 public class ClientApp {
 
+	// Largest number of cars the FabCar batch transactions accept
+	static final int MAX_BATCH_CARS = 500;
+
+	// Largest batch argument submitted in one transaction, kept within the
+	// preferred block size of the test network orderer. This bounds the size
+	// of the argument only, not of the read/write set: createCarsBatch writes
+	// three keys per car, the car and its owner and make index entries.
+	static final int MAX_BATCH_BYTES = 512 * 1024;
+
 	static {
 		System.setProperty("org.hyperledger.fabric.sdk.service_discovery.as_localhost", "true");
 	}
@@ -50,7 +65,95 @@ public class ClientApp {
 
 			result = contract.evaluateTransaction("queryCar", "CAR10");
 			System.out.println(new String(result));
+
+			Map<String, String> cars = new LinkedHashMap<>();
+			Map<String, String> transfers = new LinkedHashMap<>();
+			for (int i = 100; i < 120; i++) {
+				String key = "CAR" + i;
+				cars.put(key, "{\"make\":\"VW\",\"model\":\"Polo\",\"color\":\"Grey\",\"owner\":\"Mary\"}");
+				transfers.put(key, quote("Archie"));
+			}
+
+			submitBatches(contract, "createCarsBatch", cars);
+			submitBatches(contract, "changeOwnerBatch", transfers);
+
+			result = contract.evaluateTransaction("queryCarsByOwner", "Archie");
+			System.out.println(new String(result));
+		}
+	}
+
+	/**
+	 * Submit a batch transaction once for each part of the entries that fits
+	 * within the batch limits, printing the result of each part.
+	 *
+	 * @param entries the keys of the batch, with their values as JSON
+	 */
+	static void submitBatches(Contract contract, String transaction, Map<String, String> entries) throws Exception {
+		for (String batch : splitBatch(entries, MAX_BATCH_CARS, MAX_BATCH_BYTES)) {
+			byte[] result = contract.submitTransaction(transaction, batch);
+			System.out.println(new String(result, UTF_8));
+		}
+	}
+
+	/**
+	 * Split the entries of a batch into JSON objects of at most maxEntries
+	 * entries and maxBytes bytes each, keeping the entries in order.
+	 *
+	 * @param entries the keys of the batch, with their values as JSON
+	 * @return the JSON objects to submit, one per transaction
+	 */
+	static List<String> splitBatch(Map<String, String> entries, int maxEntries, int maxBytes) {
+		List<String> batches = new ArrayList<>();
+		StringBuilder batch = new StringBuilder("{");
+		int batchEntries = 0;
+		int batchBytes = 2;
+
+		for (Map.Entry<String, String> entry : entries.entrySet()) {
+			String json = quote(entry.getKey()) + ":" + entry.getValue();
+			int entryBytes = json.getBytes(UTF_8).length;
+			if (entryBytes + 2 > maxBytes) {
+				throw new IllegalArgumentException("Entry " + entry.getKey() + " is larger than " + maxBytes + " bytes");
+			}
+
+			// Only entries after the first of a batch are preceded by a comma
+			if (batchEntries > 0 && (batchEntries == maxEntries || batchBytes + 1 + entryBytes > maxBytes)) {
+				batches.add(batch.append('}').toString());
+				batch = new StringBuilder("{");
+				batchEntries = 0;
+				batchBytes = 2;
+			}
+
+			if (batchEntries > 0) {
+				batch.append(',');
+				batchBytes++;
+			}
+			batch.append(json);
+			batchEntries++;
+			batchBytes += entryBytes;
+		}
+
+		if (batchEntries > 0) {
+			batches.add(batch.append('}').toString());
+		}
+		return batches;
+	}
+
+	/**
+	 * @return the value as a JSON string literal
+	 */
+	static String quote(String value) {
+		StringBuilder json = new StringBuilder(value.length() + 2).append('"');
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			if (c == '"' || c == '\\') {
+				json.append('\\').append(c);
+			} else if (c < ' ') {
+				json.append(String.format("\\u%04x", (int) c));
+			} else {
+				json.append(c);
+			}
 		}
+		return json.append('"').toString();
 	}
 
 }
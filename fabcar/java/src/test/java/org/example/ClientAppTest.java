@@ -0,0 +1,62 @@
+/*
+SPDX-License-Identifier: Apache-2.0
+*/
+
+package org.example;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+public class ClientAppTest {
+
+	private static Map<String, String> entries(String... keysAndValues) {
+		Map<String, String> entries = new LinkedHashMap<>();
+		for (int i = 0; i < keysAndValues.length; i += 2) {
+			entries.put(keysAndValues[i], keysAndValues[i + 1]);
+		}
+		return entries;
+	}
+
+	@Test
+	public void splitsByEntryCount() {
+		assertThat(ClientApp.splitBatch(entries("A", "1", "B", "2", "C", "3"), 2, 100))
+				.containsExactly("{\"A\":1,\"B\":2}", "{\"C\":3}");
+	}
+
+	@Test
+	public void splitsBySizeCountingCommasBetweenEntries() {
+		// Each entry is 5 bytes, so a batch of two is 2 + 5 + 1 + 5 = 13 bytes
+		Map<String, String> entries = entries("A", "1", "B", "2", "C", "3");
+
+		assertThat(ClientApp.splitBatch(entries, 10, 13)).containsExactly("{\"A\":1,\"B\":2}", "{\"C\":3}");
+		assertThat(ClientApp.splitBatch(entries, 10, 12)).containsExactly("{\"A\":1}", "{\"B\":2}", "{\"C\":3}");
+	}
+
+	@Test
+	public void entryOfLargestSizeFillsBatchOfItsOwn() {
+		// Each entry is 5 bytes, the largest that fits in 7 bytes with the braces
+		assertThat(ClientApp.splitBatch(entries("A", "1", "B", "2"), 10, 7))
+				.containsExactly("{\"A\":1}", "{\"B\":2}");
+	}
+
+	@Test
+	public void rejectsEntryLargerThanBatch() {
+		assertThatThrownBy(() -> ClientApp.splitBatch(entries("A", "1"), 10, 6))
+				.isInstanceOf(IllegalArgumentException.class).hasMessage("Entry A is larger than 6 bytes");
+	}
+
+	@Test
+	public void emptyBatchHasNoParts() {
+		assertThat(ClientApp.splitBatch(entries(), 10, 100)).isEmpty();
+	}
+
+	@Test
+	public void quotesKeys() {
+		assertThat(ClientApp.quote("a\"b\\c\u0001")).isEqualTo("\"a\\\"b\\\\c\\u0001\"");
+	}
+}
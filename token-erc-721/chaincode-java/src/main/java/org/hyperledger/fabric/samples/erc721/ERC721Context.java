@@ -0,0 +1,44 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.fabric.samples.erc721;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.hyperledger.fabric.contract.Context;
+import org.hyperledger.fabric.shim.ChaincodeStub;
+
+/**
+ * Transaction context for the ERC721 contract. It caches operator approvals by owner and operator
+ * pair, so an authorization decision is read from the ledger at most once per transaction.
+ */
+public class ERC721Context extends Context {
+
+  private final Map<String, Boolean> operatorApprovals = new HashMap<>();
+
+  /**
+   * Constructor of the class
+   *
+   * @param stub the chaincode stub of the current transaction
+   */
+  public ERC721Context(final ChaincodeStub stub) {
+    super(stub);
+  }
+
+  /**
+   * @param approvalKey the approval composite key of an owner and operator pair
+   * @return the cached approval, or null if the pair has not been looked up in this transaction
+   */
+  public Boolean getOperatorApproval(final String approvalKey) {
+    return operatorApprovals.get(approvalKey);
+  }
+
+  /**
+   * @param approvalKey the approval composite key of an owner and operator pair
+   * @param approved true if the operator is approved for all tokens of the owner
+   */
+  public void putOperatorApproval(final String approvalKey, final boolean approved) {
+    operatorApprovals.put(approvalKey, approved);
+  }
+}
@@ -43,6 +43,11 @@ import static org.hyperledger.fabric.samples.erc721.utils.ContractUtility.string
 @Default
 public class ERC721TokenContract implements ContractInterface {
 
+  @Override
+  public final Context createContext(final ChaincodeStub stub) {
+    return new ERC721Context(stub);
+  }
+
   /**
    * BalanceOf counts all non-fungible tokens assigned to an owner.There is a key record for every
    * non-fungible token in the format of balancePrefix.owner.tokenId. balanceOf() queries for and
@@ -100,16 +105,7 @@ public class ERC721TokenContract implements ContractInterface {
   public boolean IsApprovedForAll(final Context ctx, final String owner, final String operator) {
     //check contract options are already set first to execute the function
     this.checkInitialized(ctx);
-    final ChaincodeStub stub = ctx.getStub();
-    final CompositeKey approvalKey =
-        stub.createCompositeKey(ContractConstants.APPROVAL.getValue(), owner, operator);
-    final String approvalJson = stub.getStringState(approvalKey.toString());
-    if (stringIsNullOrEmpty(approvalJson)) {
-      return false;
-    } else {
-      final Approval approval = Approval.fromJSONString(approvalJson);
-      return approval.isApproved();
-    }
+    return this._isApprovedForAll(ctx, owner, operator);
   }
 
   /**
@@ -128,8 +124,7 @@ public class ERC721TokenContract implements ContractInterface {
     final String sender = ctx.getClientIdentity().getId();
     NFT nft = this._readNft(ctx, tokenId);
     final String owner = nft.getOwner();
-    final boolean operatorApproval = this.IsApprovedForAll(ctx, owner, sender);
-    if ((!owner.equalsIgnoreCase(sender)) && (!operatorApproval)) {
+    if ((!owner.equalsIgnoreCase(sender)) && (!this._isApprovedForAll(ctx, owner, sender))) {
       final String errorMessage =
           String.format(
               "The sender %s is not the current owner nor an authorized operator of the token %s.",
@@ -160,6 +155,9 @@ public class ERC721TokenContract implements ContractInterface {
     final CompositeKey approvalKey =
         stub.createCompositeKey(ContractConstants.APPROVAL.getValue(), sender, operator);
     stub.putStringState(approvalKey.toString(), nftApproval.toJSONString());
+    if (ctx instanceof ERC721Context) {
+      ((ERC721Context) ctx).putOperatorApproval(approvalKey.toString(), approved);
+    }
     stub.setEvent(
         ContractConstants.APPROVE_FOR_ALL.getValue(), nftApproval.toJSONString().getBytes(UTF_8));
   }
@@ -197,10 +195,11 @@ public class ERC721TokenContract implements ContractInterface {
     NFT nft = this._readNft(ctx, tokenId);
     final String owner = nft.getOwner();
     final String operator = nft.getApproved();
-    final boolean operatorApproval = this.IsApprovedForAll(ctx, owner, sender);
+    // The operator approval is only looked up when neither the owner nor the token approval
+    // authorizes the sender, and is served from the transaction context after the first lookup
     if ((!owner.equalsIgnoreCase(sender))
         && !operator.equalsIgnoreCase(sender)
-        && !operatorApproval) {
+        && !this._isApprovedForAll(ctx, owner, sender)) {
       final String errorMessage =
           String.format(
               "The sender %s is not the current owner nor an authorized operator of the token %s.",
@@ -462,6 +461,35 @@ public class ERC721TokenContract implements ContractInterface {
     return NFT.fromJSONString(nft);
   }
 
+  /**
+   * Check whether an operator is approved for all tokens of an owner. When the transaction context
+   * is an {@link ERC721Context} the result is cached per owner and operator pair.
+   *
+   * @param ctx the transaction context
+   * @param owner The client that owns the non-fungible tokens
+   * @param operator The client that acts on behalf of the owner
+   * @return true if the operator is an approved operator for the owner, false otherwise
+   */
+  private boolean _isApprovedForAll(final Context ctx, final String owner, final String operator) {
+    final ChaincodeStub stub = ctx.getStub();
+    final CompositeKey approvalKey =
+        stub.createCompositeKey(ContractConstants.APPROVAL.getValue(), owner, operator);
+    final ERC721Context erc721Ctx = (ctx instanceof ERC721Context) ? (ERC721Context) ctx : null;
+    if (erc721Ctx != null) {
+      final Boolean cached = erc721Ctx.getOperatorApproval(approvalKey.toString());
+      if (cached != null) {
+        return cached;
+      }
+    }
+    final String approvalJson = stub.getStringState(approvalKey.toString());
+    final boolean approved =
+        !stringIsNullOrEmpty(approvalJson) && Approval.fromJSONString(approvalJson).isApproved();
+    if (erc721Ctx != null) {
+      erc721Ctx.putOperatorApproval(approvalKey.toString(), approved);
+    }
+    return approved;
+  }
+
   /**
    * Check NFT exits.
    *
@@ -1,7 +1,9 @@
 package org.hyperledger.fabric.samples.erc721;
 
+import com.google.protobuf.ByteString;
 import org.hyperledger.fabric.contract.ClientIdentity;
 import org.hyperledger.fabric.contract.Context;
+import org.hyperledger.fabric.protos.msp.Identities.SerializedIdentity;
 import org.hyperledger.fabric.samples.erc721.models.Approval;
 import org.hyperledger.fabric.samples.erc721.models.NFT;
 import org.hyperledger.fabric.shim.ChaincodeException;
@@ -23,11 +25,44 @@ import java.util.List;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.catchThrowable;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 public class ERC721TokenContractTest {
 
+  /** Self-signed client certificate, so that a real transaction context can be built. */
+  private static final String CLIENT_CERT =
+      "-----BEGIN CERTIFICATE-----\n"
+      + "MIIB6jCCAY+gAwIBAgIUasJZ/soYZOVfDM4OWky4vm4BRrkwCgYIKoZIzj0EAwIw\n"
+      + "STELMAkGA1UEBhMCVVMxGTAXBgNVBAoMEG9yZzEuZXhhbXBsZS5jb20xDzANBgNV\n"
+      + "BAsMBmNsaWVudDEOMAwGA1UEAwwFQWxpY2UwIBcNMjYxMDE5MDgwNTM5WhgPMjEy\n"
+      + "NjA5MjUwODA1MzlaMEkxCzAJBgNVBAYTAlVTMRkwFwYDVQQKDBBvcmcxLmV4YW1w\n"
+      + "bGUuY29tMQ8wDQYDVQQLDAZjbGllbnQxDjAMBgNVBAMMBUFsaWNlMFkwEwYHKoZI\n"
+      + "zj0CAQYIKoZIzj0DAQcDQgAEb0j6InrRpdnWAotGEzgKqNHuKbF8rpvTzF41DPFS\n"
+      + "PUxQi49LhDJxWKeHANNCQT+k+InrQ2z5MaXRtO1mj1sQXqNTMFEwHQYDVR0OBBYE\n"
+      + "FPoOTKxiaV/5+K6Arz9LsLqSJ93jMB8GA1UdIwQYMBaAFPoOTKxiaV/5+K6Arz9L\n"
+      + "sLqSJ93jMA8GA1UdEwEB/wQFMAMBAf8wCgYIKoZIzj0EAwIDSQAwRgIhAMPb8GJy\n"
+      + "uklpxz1b9o0IRqR828ztJbUO3F72VMmHlurlAiEAztttN8meb1dC0oemTkmkLtuc\n"
+      + "3FgUKIFF0CbYidChacw=\n"
+      + "-----END CERTIFICATE-----\n";
+
+  /**
+   * @return a mock stub whose creator is a serialized identity of CLIENT_CERT, as Context reads
+   *     the client identity when it is constructed
+   */
+  private static ChaincodeStub mockStubWithCreator() {
+    ChaincodeStub stub = mock(ChaincodeStub.class);
+    when(stub.getCreator())
+        .thenReturn(
+            SerializedIdentity.newBuilder()
+                .setMspid("Org1MSP")
+                .setIdBytes(ByteString.copyFromUtf8(CLIENT_CERT))
+                .build()
+                .toByteArray());
+    return stub;
+  }
+
   private final class MockKeyValue implements KeyValue {
 
     private final String key;
@@ -348,6 +383,23 @@ public class ERC721TokenContractTest {
       boolean response = contract.IsApprovedForAll(ctx, "Alice", "Bob");
       assertThat(response).isEqualTo(true);
     }
+
+    @Test
+    public void invokeIsApprovedForAllReadsApprovalOncePerTransaction() {
+      ChaincodeStub stub = mockStubWithCreator();
+      Context ctx = new ERC721Context(stub);
+      when(stub.getStringState(ContractConstants.NAMEKEY.getValue())).thenReturn("ARBTToken");
+      ERC721TokenContract contract = new ERC721TokenContract();
+      Approval approval = new Approval("Alice", "Bob", true);
+      CompositeKey ck = mock(CompositeKey.class);
+      when(ck.toString()).thenReturn(ContractConstants.APPROVAL.getValue() + "Alice" + "Bob");
+      when(stub.createCompositeKey(ContractConstants.APPROVAL.getValue(), "Alice", "Bob"))
+          .thenReturn(ck);
+      when(stub.getStringState(ck.toString())).thenReturn(approval.toJSONString());
+      assertThat(contract.IsApprovedForAll(ctx, "Alice", "Bob")).isEqualTo(true);
+      assertThat(contract.IsApprovedForAll(ctx, "Alice", "Bob")).isEqualTo(true);
+      verify(stub, times(1)).getStringState(ck.toString());
+    }
   }
 
   @Nested